@@ -0,0 +1,97 @@
+package edu.cwru.bwp18.polygon;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building rectangles, axis & plane maps and whole groups.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConstructionBenchmark {
+    @Param({"100", "1000", "10000"})
+    int count;
+
+    @Param({"0.25", "4"})
+    double density;
+
+    @Param({"RANDOM", "CLUSTERED", "TILED", "NESTED"})
+    Layout layout;
+
+    private Set<Rectangle<Integer>> rectangles;
+    private int[] bounds;
+    private List<Integer> xBorders;
+
+    @Setup
+    public void setUp() {
+        rectangles = layout.generate(count, density, 293);
+
+        bounds   = new int[4 * count];
+        xBorders = new ArrayList<>(2 * count);
+        int i = 0;
+        for (Rectangle<Integer> rect : rectangles) {
+            bounds[i++] = rect.left();
+            bounds[i++] = rect.right();
+            bounds[i++] = rect.bottom();
+            bounds[i++] = rect.top();
+            xBorders.add(rect.left());
+            xBorders.add(rect.right());
+        }
+    }
+
+    @Benchmark
+    public void rectangleOf(Blackhole blackhole) {
+        for (int i = 0; i < bounds.length; i += 4) {
+            blackhole.consume(Rectangle.of(bounds[i], bounds[i + 1],
+                    bounds[i + 2], bounds[i + 3]));
+        }
+    }
+
+    @Benchmark
+    public Object axisMapFrom() {
+        return AxisMap.from(xBorders);
+    }
+
+    @Benchmark
+    public Object planeMapFrom() {
+        return PlaneMap.from(rectangles);
+    }
+
+    /**
+     * Groups compute their properties on first access, so build one and
+     * read the properties a caller typically needs.
+     */
+    @Benchmark
+    public void rectangleGroupFrom(Blackhole blackhole) {
+        RectangleGroup<Integer> group = RectangleGroup.from(rectangles);
+        blackhole.consume(group.getMap());
+        blackhole.consume(group.isOverlapping());
+        blackhole.consume(group.isConnected());
+    }
+
+    @Benchmark
+    public Object groupMap() {
+        return RectangleGroup.from(rectangles).getMap();
+    }
+
+    @Benchmark
+    public boolean groupIsOverlapping() {
+        return RectangleGroup.from(rectangles).isOverlapping();
+    }
+
+    @Benchmark
+    public int groupComponentCount() {
+        return RectangleGroup.from(rectangles).componentCount();
+    }
+
+    @Benchmark
+    public Object groupMatrixGrid() {
+        return RectangleGroup.from(rectangles).getMatrixGrid();
+    }
+}
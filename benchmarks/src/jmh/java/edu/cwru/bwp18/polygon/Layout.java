@@ -0,0 +1,125 @@
+package edu.cwru.bwp18.polygon;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Ways of spreading benchmark rectangles over a square of EXTENT x EXTENT
+ * integer coordinates. Keeping the coordinates on a bounded lattice caps
+ * the number of distinct borders, so grids stay comparable as the
+ * rectangle count grows.
+ */
+public enum Layout {
+    /**
+     * Uniformly random positions.
+     */
+    RANDOM {
+        @Override
+        void place(Set<Rectangle<Integer>> rectangles, int count, int side,
+                Random random) {
+            while (rectangles.size() < count) {
+                add(rectangles, random.nextInt(EXTENT), random.nextInt(EXTENT),
+                        sideNear(side, random), sideNear(side, random));
+            }
+        }
+    },
+
+    /**
+     * Normally distributed around a few centres.
+     */
+    CLUSTERED {
+        @Override
+        void place(Set<Rectangle<Integer>> rectangles, int count, int side,
+                Random random) {
+            int[][] centres = new int[CLUSTERS][];
+            for (int i = 0; i < CLUSTERS; i++) {
+                centres[i] = new int[] {random.nextInt(EXTENT), random.nextInt(EXTENT)};
+            }
+
+            while (rectangles.size() < count) {
+                int[] centre = centres[random.nextInt(CLUSTERS)];
+                add(rectangles,
+                        (int) (centre[0] + random.nextGaussian() * EXTENT / 16),
+                        (int) (centre[1] + random.nextGaussian() * EXTENT / 16),
+                        sideNear(side, random), sideNear(side, random));
+            }
+        }
+    },
+
+    /**
+     * A regular grid of equal tiles, which abut at density 1 and overlap
+     * their neighbours above it.
+     */
+    TILED {
+        @Override
+        void place(Set<Rectangle<Integer>> rectangles, int count, int side,
+                Random random) {
+            int perRow = (int) Math.ceil(Math.sqrt(count));
+            int pitch  = Math.max(1, EXTENT / perRow);
+            for (int i = 0; rectangles.size() < count; i++) {
+                add(rectangles, (i % perRow) * pitch, (i / perRow) * pitch,
+                        side, side);
+            }
+        }
+    },
+
+    /**
+     * Stacks of concentric rectangles, each inside the previous one.
+     */
+    NESTED {
+        @Override
+        void place(Set<Rectangle<Integer>> rectangles, int count, int side,
+                Random random) {
+            while (rectangles.size() < count) {
+                int x = random.nextInt(EXTENT), y = random.nextInt(EXTENT);
+                int outer = NESTING * sideNear(side, random);
+                for (int depth = 0; depth < NESTING && rectangles.size() < count; depth++) {
+                    int size = Math.max(1, outer - 2 * depth * (outer / (2 * NESTING)));
+                    add(rectangles, x - size / 2, y - size / 2, size, size);
+                }
+            }
+        }
+    };
+
+    static final int EXTENT   = 4096;
+    static final int CLUSTERS = 8;
+    static final int NESTING  = 8;
+
+    /**
+     * Generate count distinct rectangles. Density scales their sides so that
+     * their total area is about density * EXTENT^2: below 1 most of the
+     * plane is empty, above 1 rectangles overlap heavily.
+     * @param count the number of rectangles
+     * @param density the rectangles' total area relative to the plane's
+     * @param seed the seed of the random positions & sizes
+     * @return a new set of count rectangles
+     */
+    public Set<Rectangle<Integer>> generate(int count, double density, long seed) {
+        int side = Math.max(1, (int) (EXTENT * Math.sqrt(density / count)));
+        Set<Rectangle<Integer>> rectangles = new HashSet<>();
+        place(rectangles, count, side, new Random(seed));
+        return rectangles;
+    }
+
+    abstract void place(Set<Rectangle<Integer>> rectangles, int count, int side,
+            Random random);
+
+    /**
+     * Get a random side between half and one and a half times side.
+     */
+    private static int sideNear(int side, Random random) {
+        return Math.max(1, side / 2 + random.nextInt(side + 1));
+    }
+
+    /**
+     * Add the rectangle with the given corner & size, clamped to the plane.
+     */
+    private static void add(Set<Rectangle<Integer>> rectangles,
+            int left, int bottom, int width, int height) {
+        left   = Math.floorMod(left, EXTENT);
+        bottom = Math.floorMod(bottom, EXTENT);
+        rectangles.add(Rectangle.of(left, Math.min(EXTENT, left + width),
+                bottom, Math.min(EXTENT, bottom + height)));
+    }
+}
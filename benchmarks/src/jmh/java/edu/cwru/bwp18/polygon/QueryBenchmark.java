@@ -0,0 +1,99 @@
+package edu.cwru.bwp18.polygon;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of overlap detection, overlapping pair reporting, connectivity and
+ * grid iteration over groups that are already built.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QueryBenchmark {
+    @Param({"100", "1000", "10000"})
+    int count;
+
+    @Param({"0.25", "4"})
+    double density;
+
+    @Param({"RANDOM", "CLUSTERED", "TILED", "NESTED"})
+    Layout layout;
+
+    private Set<Rectangle<Integer>> rectangles;
+    private List<Rectangle<Integer>> rectangleList;
+    private PlaneMap<Integer> map;
+    private List<IntRectangle> indexBounds;
+    private Grid grid;
+
+    @Setup
+    public void setUp() {
+        rectangles    = layout.generate(count, density, 293);
+        rectangleList = List.copyOf(rectangles);
+        map           = PlaneMap.from(rectangles);
+        indexBounds   = rectangles.stream().map(map::indexBoundsOf).toList();
+        grid          = Grid.fromInts(IntRectangle.of(
+                0, map.xSize(), 0, map.ySize()));
+    }
+
+    @Benchmark
+    public boolean anyOverlap() {
+        return RectangleGroup.anyOverlap(rectangles);
+    }
+
+    @Benchmark
+    public void overlappingPairs(Blackhole blackhole) {
+        SweepLine.forEachOverlappingPair(rectangleList,
+                (first, second) -> blackhole.consume(first + second));
+    }
+
+    @Benchmark
+    public void overlappingPairsNaive(Blackhole blackhole) {
+        for (int i = 0; i < rectangleList.size(); i++) {
+            for (int j = i + 1; j < rectangleList.size(); j++) {
+                if (rectangleList.get(i).overlaps(rectangleList.get(j))) {
+                    blackhole.consume(i + j);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean gridOverlap() {
+        return CoverageGrid.of(map.xSize(), map.ySize(), indexBounds)
+                .isOverlapping();
+    }
+
+    @Benchmark
+    public Object rectangleComponents() {
+        return RectangleGroup.componentsOf(rectangles);
+    }
+
+    @Benchmark
+    public int gridComponents() {
+        return CoverageGrid.of(map.xSize(), map.ySize(), indexBounds)
+                .componentCount();
+    }
+
+    @Benchmark
+    public int bitmapComponents() {
+        return OccupancyBitmap.of(map.xSize(), map.ySize(), indexBounds)
+                .componentCount();
+    }
+
+    @Benchmark
+    public void gridIterator(Blackhole blackhole) {
+        for (IndexPair pair : grid) {
+            blackhole.consume(pair);
+        }
+    }
+
+    @Benchmark
+    public void gridForEachCell(Blackhole blackhole) {
+        grid.forEachCell((x, y) -> blackhole.consume(x + y));
+    }
+}
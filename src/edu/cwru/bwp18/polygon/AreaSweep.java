@@ -0,0 +1,132 @@
+package edu.cwru.bwp18.polygon;
+
+import java.util.List;
+
+/**
+ * Klee's measure for a group of rectangles: the area covered by at least one
+ * rectangle and by at least two. Sweeps the group's x indices while a
+ * segment tree over the y cells tracks how much length is covered once and
+ * twice, so no cell is ever materialized.
+ */
+final class AreaSweep {
+    /**
+     * Total height of the y cells below each index, so the height of the
+     * cells [from, to) is prefixHeights[to] - prefixHeights[from].
+     */
+    private final double[] prefixHeights;
+
+    /**
+     * Segment tree over the y cells, rooted at node 1. For each node: how
+     * many rectangles cover its whole range without covering its parent's,
+     * and how much of its range is covered at least once & at least twice.
+     */
+    private final int[] cover;
+    private final double[] once, twice;
+
+    private AreaSweep(double[] ys) {
+        assert ys != null && ys.length >= 2;
+
+        int nodes = 4 * (ys.length - 1);
+        this.prefixHeights = new double[ys.length];
+        for (int i = 1; i < ys.length; i++) {
+            prefixHeights[i] = prefixHeights[i - 1] + (ys[i] - ys[i - 1]);
+        }
+        this.cover   = new int[nodes];
+        this.once    = new double[nodes];
+        this.twice   = new double[nodes];
+    }
+
+    /**
+     * Compute the union and overlap areas of rectangles in map's index space.
+     * The coordinates of map must be Numbers; areas are computed in double
+     * precision.
+     * @param map the PlaneMap the rectangles are indexed in
+     * @param indexBounds the rectangles' bounds in map's index space
+     * @return {area covered by at least one rectangle,
+     *          area covered by at least two rectangles}
+     */
+    static double[] areas(PlaneMap<?> map, List<IntRectangle> indexBounds) {
+        assert map != null && indexBounds != null;
+
+        double[] xs = coordinates(map.xAxis());
+        double[] ys = coordinates(map.yAxis());
+        if (xs.length < 2 || ys.length < 2) {
+            return new double[] {0, 0};
+        }
+
+        ColumnEvents events = ColumnEvents.of(xs.length, indexBounds);
+        AreaSweep sweep = new AreaSweep(ys);
+        int cells = ys.length - 1;
+        double union = 0, overlap = 0;
+
+        for (int x = 0; x < xs.length - 1; x++) {
+            for (int e = events.from(x); e < events.to(x); e++) {
+                IntRectangle bounds = indexBounds.get(events.rectangle(e));
+                sweep.update(1, 0, cells, bounds.bottom(), bounds.top(),
+                        events.isLeft(e) ? 1 : -1);
+            }
+
+            double width = xs[x + 1] - xs[x];
+            union   += width * sweep.once[1];
+            overlap += width * sweep.twice[1];
+        }
+
+        return new double[] {union, overlap};
+    }
+
+    private static double[] coordinates(AxisMap<?> axis) {
+        double[] coordinates = new double[axis.size()];
+        for (int i = 0; i < coordinates.length; i++) {
+            coordinates[i] = ((Number) axis.coordinateAt(i)).doubleValue();
+        }
+        return coordinates;
+    }
+
+    /**
+     * Add delta to the cover count of the cells [from, to) below node, which
+     * spans the cells [nodeFrom, nodeTo).
+     */
+    private void update(int node, int nodeFrom, int nodeTo,
+            int from, int to, int delta) {
+        if (to <= nodeFrom || nodeTo <= from) {
+            return;
+        }
+
+        if (from <= nodeFrom && nodeTo <= to) {
+            cover[node] += delta;
+        }
+        else {
+            int middle = (nodeFrom + nodeTo) >>> 1;
+            update(2 * node,     nodeFrom, middle, from, to, delta);
+            update(2 * node + 1, middle,   nodeTo, from, to, delta);
+        }
+
+        pull(node, nodeFrom, nodeTo);
+    }
+
+    /**
+     * Recompute node's covered lengths from its cover count & children.
+     */
+    private void pull(int node, int nodeFrom, int nodeTo) {
+        boolean leaf = nodeTo - nodeFrom == 1;
+        double childOnce  = leaf ? 0 : once[2 * node]  + once[2 * node + 1];
+        double childTwice = leaf ? 0 : twice[2 * node] + twice[2 * node + 1];
+
+        if (cover[node] >= 2) {
+            once[node]  = length(nodeFrom, nodeTo);
+            twice[node] = once[node];
+        }
+        else if (cover[node] == 1) {
+            once[node]  = length(nodeFrom, nodeTo);
+            twice[node] = childOnce;
+        }
+        else {
+            once[node]  = childOnce;
+            twice[node] = childTwice;
+        }
+    }
+
+    private double length(int from, int to) {
+        return prefixHeights[to] - prefixHeights[from];
+    }
+}
@@ -1,25 +1,55 @@
 package edu.cwru.bwp18.polygon;
 
 import java.util.*;
-import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 public final class AxisMap<S extends Comparable<S>> {
     /**
-     * Map of coordinates to their indices.
-     * Guaranteed to be non-null and to contain no null values.
+     * A half-open range [from, to) of indices in an AxisMap.
+     *
+     * @param from the first index in the range
+     * @param to   one past the last index in the range (to >= from)
      */
-    private final Map<S, Integer> index;
+    public record IndexRange(int from, int to) {
+        public IndexRange {
+            assert from <= to;
+        }
+
+        public int size() {
+            return to - from;
+        }
+
+        public boolean isEmpty() {
+            return from == to;
+        }
+    }
+
+    /**
+     * Sorted, distinct coordinates; the position of a coordinate is its index.
+     * Null iff this AxisMap was built from ints, otherwise guaranteed to
+     * contain no null values.
+     */
+    private final Object[] coordinates;
 
     /**
-     * Create an AxisMap from the given map of coordinates to indices. Null
-     * coordinates are illegal.
-     * @param index the coordinate -> index map
+     * Sorted, distinct primitive coordinates for AxisMaps built from ints
+     * (the position of a coordinate is its index), or null otherwise.
      */
-    private AxisMap(Map<S, Integer> index) {
-        assert index != null;
-        index.forEach((coord, i) -> {assert coord != null;});
+    private final int[] intCoordinates;
 
-        this.index = index;
+    /**
+     * Create an AxisMap from the given sorted, distinct coordinates. Exactly
+     * one of coordinates and intCoordinates must be nonnull.
+     * @param coordinates the sorted, distinct, nonnull coordinates, or null
+     * @param intCoordinates the sorted distinct int coordinates, or null
+     */
+    private AxisMap(Object[] coordinates, int[] intCoordinates) {
+        assert (coordinates == null) != (intCoordinates == null);
+        assert coordinates == null
+                || Arrays.stream(coordinates).allMatch(Objects::nonNull);
+
+        this.coordinates    = coordinates;
+        this.intCoordinates = intCoordinates;
     }
 
     /**
@@ -30,16 +60,121 @@ public final class AxisMap<S extends Comparable<S>> {
      * @param <S> the type of a coordinate
      */
     static <S extends Comparable<S>> AxisMap<S> from(Collection<S> coordinates) {
+        return from(coordinates, false);
+    }
+
+    /**
+     * Generate an AxisMap from the given coordinates, optionally sorting them
+     * in parallel on the current fork-join pool.
+     * Null coordinates are illegal.
+     * @param coordinates the nonnull coordinates for the new AxisMap
+     * @param parallel whether to sort the coordinates in parallel
+     * @return a new AxisMap with the given coordinates
+     * @param <S> the type of a coordinate
+     */
+    static <S extends Comparable<S>> AxisMap<S> from(Collection<S> coordinates,
+            boolean parallel) {
         assert coordinates != null;
         coordinates.forEach(coord -> {assert coord != null;});
 
-        List<S> coordList = coordinates.stream().sorted().distinct().toList();
-        Map<S, Integer> index = new HashMap<>();
+        Stream<S> stream = parallel
+                ? coordinates.parallelStream()
+                : coordinates.stream();
+
+        return new AxisMap<S>(stream.sorted().distinct().toArray(), null);
+    }
+
+    /**
+     * Generate an AxisMap from coordinates that are already sorted and
+     * distinct, without sorting them again.
+     * @param coordinates the sorted, distinct, nonnull coordinates
+     * @return a new AxisMap with the given coordinates
+     * @param <S> the type of a coordinate
+     */
+    static <S extends Comparable<S>> AxisMap<S> fromSorted(Collection<S> coordinates) {
+        assert coordinates != null;
+
+        Object[] sorted = coordinates.toArray();
+        assert isSorted(sorted);
+        return new AxisMap<S>(sorted, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean isSorted(Object[] coordinates) {
+        for (int i = 1; i < coordinates.length; i++) {
+            if (((Comparable<Object>) coordinates[i - 1]).compareTo(coordinates[i]) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Generate an AxisMap from the given primitive coordinates. Sorts and
+     * deduplicates without boxing.
+     * @param coordinates the coordinates for the new AxisMap (not modified)
+     * @return a new AxisMap with the given coordinates
+     */
+    static AxisMap<Integer> fromInts(int[] coordinates) {
+        return fromInts(coordinates, false);
+    }
+
+    /**
+     * Generate an AxisMap from the given primitive coordinates, optionally
+     * sorting them in parallel on the current fork-join pool.
+     * @param coordinates the coordinates for the new AxisMap (not modified)
+     * @param parallel whether to sort the coordinates in parallel
+     * @return a new AxisMap with the given coordinates
+     */
+    static AxisMap<Integer> fromInts(int[] coordinates, boolean parallel) {
+        assert coordinates != null;
+
+        int[] sorted = coordinates.clone();
+        if (parallel) {
+            Arrays.parallelSort(sorted);
+        }
+        else {
+            Arrays.sort(sorted);
+        }
+
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+
+        return new AxisMap<Integer>(null, Arrays.copyOf(sorted, distinct));
+    }
+
+    /**
+     * Generate an AxisMap from primitive coordinates that are already sorted
+     * and distinct, without copying or sorting them.
+     * @param coordinates the sorted, distinct coordinates, which the AxisMap
+     *                    takes ownership of
+     * @return a new AxisMap with the given coordinates
+     */
+    static AxisMap<Integer> fromSortedInts(int[] coordinates) {
+        assert coordinates != null;
+        for (int i = 1; i < coordinates.length; i++) {
+            assert coordinates[i - 1] < coordinates[i];
+        }
+
+        return new AxisMap<Integer>(null, coordinates);
+    }
 
-        IntStream.range(0, coordList.size())
-                .forEach(i -> index.put(coordList.get(i), i));
+    /**
+     * Binary search for value in this AxisMap's coordinates.
+     * @param value the nonnull value to find
+     * @return value's index if it's present, otherwise
+     *          (-(insertion point) - 1) as in Arrays::binarySearch
+     */
+    private int search(S value) {
+        assert value != null;
 
-        return new AxisMap<S>(index);
+        return intCoordinates != null
+                ? Arrays.binarySearch(intCoordinates, (Integer) value)
+                : Arrays.binarySearch(coordinates, value);
     }
 
     /**
@@ -49,11 +184,54 @@ public final class AxisMap<S extends Comparable<S>> {
      * @return value's index, or null if value == null or value is not in index
      */
     Integer flatIndexOf(S value) {
-        return index.get(value);
+        if (value == null) {
+            return null;
+        }
+
+        int i = search(value);
+        return i >= 0 ? i : null;
+    }
+
+    /**
+     * Get the index of a primitive value in this AxisMap without boxing.
+     * Only valid for AxisMaps built with fromInts.
+     * @param value the value to get the index for
+     * @return value's index, or -1 if value is not in index
+     */
+    int intIndexOf(int value) {
+        assert intCoordinates != null;
+
+        int i = Arrays.binarySearch(intCoordinates, value);
+        return i >= 0 ? i : -1;
+    }
+
+    /**
+     * Whether this AxisMap was built from primitive ints.
+     * @return true iff intIndexOf may be used
+     */
+    boolean isIntegral() {
+        return intCoordinates != null;
     }
 
     public int size() {
-        return index.size();
+        return intCoordinates != null
+                ? intCoordinates.length
+                : coordinates.length;
+    }
+
+    /**
+     * Get the coordinate at the given index.
+     * @param index the index of the coordinate (0 <= index < size())
+     * @return the coordinate at index
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    @SuppressWarnings("unchecked")
+    public S coordinateAt(int index) {
+        Objects.checkIndex(index, size());
+
+        return intCoordinates != null
+                ? (S) (Integer) intCoordinates[index]
+                : (S) coordinates[index];
     }
 
     /**
@@ -66,4 +244,75 @@ public final class AxisMap<S extends Comparable<S>> {
     public Optional<Integer> indexOf(S value) {
         return Optional.ofNullable(flatIndexOf(value));
     }
+
+    /**
+     * Get the number of coordinates in this AxisMap strictly less than value.
+     * @param value the value to rank
+     * @return the number of coordinates less than value
+     * @throws IllegalArgumentException containing a RectangleException as its
+     *          cause if value is null
+     */
+    public int rank(S value) {
+        RectangleException.verifyNonNull(value);
+
+        int i = search(value);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    /**
+     * Get the index of the greatest coordinate less than or equal to value.
+     * For a value between two borders, that's the index of the cell it
+     * falls in.
+     * @param value the value to map
+     * @return the floor coordinate's index, or empty if every coordinate is
+     *          greater than value
+     * @throws IllegalArgumentException containing a RectangleException as its
+     *          cause if value is null
+     */
+    public OptionalInt floorIndex(S value) {
+        RectangleException.verifyNonNull(value);
+
+        int i = search(value);
+        int floor = i >= 0 ? i : -i - 2;
+        return floor >= 0 ? OptionalInt.of(floor) : OptionalInt.empty();
+    }
+
+    /**
+     * Get the index of the least coordinate greater than or equal to value.
+     * @param value the value to map
+     * @return the ceiling coordinate's index, or empty if every coordinate is
+     *          less than value
+     * @throws IllegalArgumentException containing a RectangleException as its
+     *          cause if value is null
+     */
+    public OptionalInt ceilingIndex(S value) {
+        RectangleException.verifyNonNull(value);
+
+        int i = search(value);
+        int ceiling = i >= 0 ? i : -i - 1;
+        return ceiling < size() ? OptionalInt.of(ceiling) : OptionalInt.empty();
+    }
+
+    /**
+     * Get the range of indices whose coordinates lie in [lo, hi].
+     * @param lo the inclusive lower bound
+     * @param hi the inclusive upper bound
+     * @return the indices of all coordinates c with lo <= c <= hi (empty if
+     *          there are none or lo > hi)
+     * @throws IllegalArgumentException containing a RectangleException as its
+     *          cause if lo or hi is null
+     */
+    public IndexRange indexRange(S lo, S hi) {
+        RectangleException.verifyNonNull(lo, hi);
+
+        if (lo.compareTo(hi) > 0) {
+            return new IndexRange(0, 0);
+        }
+
+        int from = rank(lo);
+        int to   = search(hi);
+        to = to >= 0 ? to + 1 : -to - 1;
+
+        return new IndexRange(from, Math.max(from, to));
+    }
 }
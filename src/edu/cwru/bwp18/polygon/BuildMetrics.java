@@ -0,0 +1,148 @@
+package edu.cwru.bwp18.polygon;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process registry of how long each phase of building RectangleGroups
+ * takes. Nothing is recorded unless a registry is installed; the same
+ * phases are also emitted as "edu.cwru.bwp18.polygon.BuildPhase" Flight
+ * Recorder events whenever a recording enables them.
+ */
+public final class BuildMetrics {
+    /**
+     * The phases of computing a RectangleGroup's properties.
+     */
+    public enum Phase {
+        /**
+         * Sorting each axis's borders and mapping rectangles to index space.
+         */
+        AXIS_COMPRESSION,
+
+        /**
+         * Counting the coverage of each cell.
+         */
+        COVERAGE_GRID,
+
+        /**
+         * Checking whether any rectangles overlap.
+         */
+        OVERLAP_SCAN,
+
+        /**
+         * Counting the connected components of covered cells.
+         */
+        CONNECTIVITY
+    }
+
+    /**
+     * Totals over every recorded run of a phase.
+     *
+     * @param count          the number of runs
+     * @param totalNanos     the total duration of the runs
+     * @param maxNanos       the longest run's duration
+     * @param rectangles     the total number of rectangles processed
+     * @param cells          the total number of cells in the runs' grids,
+     *                       (xBorders - 1) * (yBorders - 1) each
+     * @param bytesAllocated the total bytes allocated by the threads that ran
+     *                       the phases; allocations by the workers of
+     *                       parallel builds aren't counted
+     */
+    public record PhaseStats(long count, long totalNanos, long maxNanos,
+            long rectangles, long cells, long bytesAllocated) {
+    }
+
+    /**
+     * Accumulators of one phase, safe to update from any thread.
+     */
+    private static final class Recorder {
+        final LongAdder count          = new LongAdder();
+        final LongAdder totalNanos     = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        final LongAdder rectangles     = new LongAdder();
+        final LongAdder cells          = new LongAdder();
+        final LongAdder bytesAllocated = new LongAdder();
+    }
+
+    private static volatile BuildMetrics installed;
+
+    private final Map<Phase, Recorder> recorders = new EnumMap<>(Phase.class);
+
+    public BuildMetrics() {
+        for (Phase phase : Phase.values()) {
+            recorders.put(phase, new Recorder());
+        }
+    }
+
+    /**
+     * Record every later build phase in metrics, replacing any previously
+     * installed registry.
+     * @param metrics the registry to record in, or null to stop recording
+     */
+    public static void install(BuildMetrics metrics) {
+        installed = metrics;
+    }
+
+    /**
+     * Get the registry build phases are recorded in.
+     * @return the installed registry, or null if none is installed
+     */
+    public static BuildMetrics installed() {
+        return installed;
+    }
+
+    void record(Phase phase, long nanos, int rectangles, long cells,
+            long bytesAllocated) {
+        Recorder recorder = recorders.get(phase);
+        recorder.count.increment();
+        recorder.totalNanos.add(nanos);
+        recorder.maxNanos.accumulate(nanos);
+        recorder.rectangles.add(rectangles);
+        recorder.cells.add(cells);
+        recorder.bytesAllocated.add(Math.max(0, bytesAllocated));
+    }
+
+    /**
+     * Get the totals recorded for phase so far.
+     * @param phase the phase to get the totals of
+     * @return phase's totals
+     * @throws IllegalArgumentException if phase is null
+     */
+    public PhaseStats stats(Phase phase) {
+        RectangleException.verifyNonNull(phase);
+
+        Recorder recorder = recorders.get(phase);
+        return new PhaseStats(recorder.count.sum(), recorder.totalNanos.sum(),
+                recorder.maxNanos.get(), recorder.rectangles.sum(),
+                recorder.cells.sum(), recorder.bytesAllocated.sum());
+    }
+
+    /**
+     * Get the totals recorded for every phase so far.
+     * @return an unmodifiable map from each phase to its totals
+     */
+    public Map<Phase, PhaseStats> snapshot() {
+        Map<Phase, PhaseStats> snapshot = new EnumMap<>(Phase.class);
+        for (Phase phase : Phase.values()) {
+            snapshot.put(phase, stats(phase));
+        }
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    /**
+     * Discard everything recorded so far.
+     */
+    public void reset() {
+        for (Recorder recorder : recorders.values()) {
+            recorder.count.reset();
+            recorder.totalNanos.reset();
+            recorder.maxNanos.reset();
+            recorder.rectangles.reset();
+            recorder.cells.reset();
+            recorder.bytesAllocated.reset();
+        }
+    }
+}
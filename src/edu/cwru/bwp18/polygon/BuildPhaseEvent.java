@@ -0,0 +1,43 @@
+package edu.cwru.bwp18.polygon;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one phase of building a RectangleGroup. Its
+ * duration is the phase's; disabled events are never committed and cost
+ * next to nothing.
+ */
+@Name("edu.cwru.bwp18.polygon.BuildPhase")
+@Label("Rectangle Group Build Phase")
+@Category({"Polygon", "RectangleGroup"})
+@Description("One phase of computing a RectangleGroup's derived properties")
+@StackTrace(false)
+final class BuildPhaseEvent extends Event {
+    @Label("Phase")
+    String phase;
+
+    @Label("Rectangles")
+    int rectangleCount;
+
+    @Label("Distinct X Borders")
+    int xBorders;
+
+    @Label("Distinct Y Borders")
+    int yBorders;
+
+    @Label("Cells")
+    @Description("Cells between the borders, (xBorders - 1) * (yBorders - 1)")
+    long cellCount;
+
+    @Label("Bytes Allocated")
+    @Description("Bytes allocated during the phase by the thread that ran it, or -1 if"
+            + " unknown; parallel phases' fork-join workers aren't counted")
+    @DataAmount
+    long bytesAllocated;
+}
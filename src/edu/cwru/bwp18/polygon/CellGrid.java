@@ -0,0 +1,65 @@
+package edu.cwru.bwp18.polygon;
+
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Coverage counts over the cells of a PlaneMap's index space, however they
+ * are stored.
+ */
+interface CellGrid {
+    /**
+     * Visitor of covered cells.
+     */
+    @FunctionalInterface
+    interface CellVisitor {
+        void visit(int x, int y, int count);
+    }
+
+    int xSize();
+
+    int ySize();
+
+    /**
+     * Get the number of rectangles covering cell (x, y).
+     */
+    int count(int x, int y);
+
+    /**
+     * Whether any cell is covered by more than one rectangle.
+     */
+    boolean isOverlapping();
+
+    /**
+     * Count the 4-connected regions of covered cells.
+     */
+    int componentCount();
+
+    /**
+     * Count the 4-connected regions of covered cells, using pool if the
+     * grid supports counting in parallel.
+     * @param pool the pool to count on, or null to count on this thread
+     */
+    default int componentCount(ForkJoinPool pool) {
+        return componentCount();
+    }
+
+    /**
+     * Visit every covered cell in IndexPair order: by x, then by y.
+     */
+    void forEachCovered(CellVisitor visitor);
+
+    /**
+     * Materialize this grid as a matrix grid of every covered cell. Grids
+     * too large to copy may return a read-only view instead.
+     * @return a map from IndexPairs to Longs representing the number of
+     *          rectangles at each covered cell
+     */
+    default NavigableMap<IndexPair, Long> toMatrixGrid() {
+        NavigableMap<IndexPair, Long> matrixGrid = new TreeMap<>();
+        forEachCovered((x, y, count) ->
+                matrixGrid.put(new IndexPair(x, y), (long) count));
+        return matrixGrid;
+    }
+}
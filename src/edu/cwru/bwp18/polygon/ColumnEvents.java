@@ -0,0 +1,83 @@
+package edu.cwru.bwp18.polygon;
+
+import java.util.List;
+
+/**
+ * The left & right edges of rectangles in index space, bucketed by x index
+ * so that a sweep can visit them in order without a comparison sort.
+ */
+final class ColumnEvents {
+    /**
+     * The events at x index x are events[starts[x]] to events[starts[x + 1]].
+     */
+    private final int[] starts;
+
+    /**
+     * Each event is a rectangle's position in the bounds list, or
+     * -(position) - 1 for its right edge.
+     */
+    private final int[] events;
+
+    private ColumnEvents(int[] starts, int[] events) {
+        assert starts != null && events != null;
+
+        this.starts = starts;
+        this.events = events;
+    }
+
+    /**
+     * Bucket the edges of indexBounds by x index in O(n + xSize).
+     * @param xSize the number of x indices
+     * @param indexBounds the rectangles' bounds in index space
+     * @return the rectangles' edge events
+     */
+    static ColumnEvents of(int xSize, List<IntRectangle> indexBounds) {
+        assert indexBounds != null;
+
+        int[] starts = new int[xSize + 1];
+        for (IntRectangle bounds : indexBounds) {
+            starts[bounds.left()  + 1]++;
+            starts[bounds.right() + 1]++;
+        }
+        for (int x = 0; x < xSize; x++) {
+            starts[x + 1] += starts[x];
+        }
+
+        int[] events = new int[2 * indexBounds.size()];
+        int[] next = starts.clone();
+        for (int i = 0; i < indexBounds.size(); i++) {
+            events[next[indexBounds.get(i).left()]++]  = i;
+            events[next[indexBounds.get(i).right()]++] = -i - 1;
+        }
+
+        return new ColumnEvents(starts, events);
+    }
+
+    /**
+     * Get the first event at x index x.
+     */
+    int from(int x) {
+        return starts[x];
+    }
+
+    /**
+     * Get one past the last event at x index x.
+     */
+    int to(int x) {
+        return starts[x + 1];
+    }
+
+    /**
+     * Whether event is a rectangle's left edge.
+     */
+    boolean isLeft(int event) {
+        return events[event] >= 0;
+    }
+
+    /**
+     * Get the position of event's rectangle in the bounds list.
+     */
+    int rectangle(int event) {
+        return events[event] >= 0 ? events[event] : -events[event] - 1;
+    }
+}
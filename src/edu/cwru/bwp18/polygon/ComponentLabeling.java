@@ -0,0 +1,579 @@
+package edu.cwru.bwp18.polygon;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * The 4-connected regions of a group's covered cells, with the component
+ * id of every covered cell and every rectangle, and the size and bounding
+ * box of every component. Ids are numbered from 0 in IndexPair order of
+ * each component's first cell, so they don't depend on how the labeling
+ * was computed. They may differ from the ids of rectangleComponents, which
+ * follow the order of the group's rectangles.
+ * <br>
+ * Labels of a TiledGrid's cells aren't stored: each tile keeps only the
+ * component id of each of its own regions, and a lookup relabels the
+ * cell's tile from its counts, so memory stays proportional to the
+ * number of regions rather than to the plane.
+ *
+ * @param <T> the comparable type of the group's bounds
+ */
+public final class ComponentLabeling<T extends Comparable<T>> {
+    /**
+     * One connected region of covered cells.
+     *
+     * @param id         the component's id
+     * @param cells      the number of index-space cells in the component
+     * @param rectangles the number of rectangles in the component
+     * @param bounds     the smallest rectangle containing the component
+     * @param <T>        the comparable type of the group's bounds
+     */
+    public record Component<T extends Comparable<T>>(int id, long cells,
+            int rectangles, Rectangle<T> bounds) {
+    }
+
+    private final PlaneMap<T> map;
+
+    /**
+     * Component id of each cell by CoverageGrid flat index, or -1 if
+     * uncovered. Null if the labels are stored otherwise.
+     */
+    private final int[] cellLabels;
+
+    /**
+     * Keys of the covered cells in IndexPair order and the id of each, when
+     * the grid was sparse.
+     */
+    private final long[] coveredKeys;
+    private final int[] coveredLabels;
+
+    /**
+     * The tiled grid, and the component id of each local region of each
+     * tile by tile key, when the grid was tiled.
+     */
+    private final TiledGrid tiles;
+    private final int[][] tileIds;
+
+    /**
+     * Key and local labels of the tile last looked up; guarded by this.
+     */
+    private int lastTile = -1;
+    private int[] lastLabels;
+
+    private final List<Component<T>> components;
+
+    private ComponentLabeling(PlaneMap<T> map, int[] cellLabels,
+            long[] coveredKeys, int[] coveredLabels, TiledGrid tiles,
+            int[][] tileIds, List<Component<T>> components) {
+        this.map           = map;
+        this.cellLabels    = cellLabels;
+        this.coveredKeys   = coveredKeys;
+        this.coveredLabels = coveredLabels;
+        this.tiles         = tiles;
+        this.tileIds       = tileIds;
+        this.components    = Collections.unmodifiableList(components);
+    }
+
+    /**
+     * Label the components of grid's covered cells. A dense CoverageGrid is
+     * joined in parallel x-stripes on pool, and its roots found in parallel
+     * too; a TiledGrid's tiles are labeled in parallel on pool and joined
+     * across the tile seams. Any other grid is joined on this thread,
+     * storing a label for each covered cell only.
+     * @param map the PlaneMap the grid covers
+     * @param grid the coverage of the group's cells
+     * @param indexBounds the group's rectangles in map's index space
+     * @param pool the pool to label on, or null to label on this thread
+     * @return the labeling of grid
+     */
+    static <S extends Comparable<S>> ComponentLabeling<S> of(PlaneMap<S> map,
+            CellGrid grid, List<IntRectangle> indexBounds, ForkJoinPool pool) {
+        assert map != null && grid != null && indexBounds != null;
+
+        if (grid instanceof TiledGrid tiled) {
+            return ofTiles(map, tiled, indexBounds, pool);
+        }
+
+        if (grid instanceof CoverageGrid dense) {
+            int[] labels = dense.componentRoots(pool);
+            Labeler labeler = new Labeler(labels.length);
+            for (int x = 0, cell = 0; x < grid.xSize(); x++) {
+                for (int y = 0; y < grid.ySize(); y++, cell++) {
+                    if (labels[cell] >= 0) {
+                        labels[cell] = labeler.label(x, y, labels[cell]);
+                    }
+                }
+            }
+
+            int ySize = grid.ySize();
+            return new ComponentLabeling<S>(map, labels, null, null, null, null,
+                    labeler.components(map, indexBounds,
+                            (x, y) -> labels[x * ySize + y]));
+        }
+
+        // Position of each covered cell in IndexPair order, sized up front
+        // when the grid knows how many cells are covered
+        LongLongHashMap positions = grid instanceof SparseCoverageGrid sparse
+                ? new LongLongHashMap(sparse.coveredCount())
+                : new LongLongHashMap();
+        grid.forEachCovered((x, y, count) ->
+                positions.put(IndexPair.key(x, y), positions.size()));
+
+        long[] keys = new long[positions.size()];
+        positions.forEach((key, position) -> keys[(int) position] = key);
+
+        UnionFind components = new UnionFind(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            int x = IndexPair.xIndexOf(keys[i]), y = IndexPair.yIndexOf(keys[i]);
+            if (y > 0 && i > 0 && keys[i - 1] == IndexPair.key(x, y - 1)) {
+                components.union(i, i - 1);
+            }
+            if (x > 0) {
+                long left = positions.get(IndexPair.key(x - 1, y), -1);
+                if (left >= 0) {
+                    components.union(i, (int) left);
+                }
+            }
+        }
+
+        Labeler labeler = new Labeler(keys.length);
+        int[] labels = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            labels[i] = labeler.label(IndexPair.xIndexOf(keys[i]),
+                    IndexPair.yIndexOf(keys[i]), components.find(i));
+        }
+        return new ComponentLabeling<S>(map, null, keys, labels, null, null,
+                labeler.components(map, indexBounds, (x, y) -> {
+                    int i = Arrays.binarySearch(keys, IndexPair.key(x, y));
+                    return i >= 0 ? labels[i] : -1;
+                }));
+    }
+
+    /**
+     * The regions of one tile, numbered locally in scan order of their
+     * first cells, with their measures in index space and the local labels
+     * along the tile's four edges.
+     */
+    private static final class TileRegions {
+        int count;
+        long[] first, cells;
+        int[] left, right, bottom, top, rectangles;
+        int[] leftEdge, rightEdge, bottomEdge, topEdge;
+    }
+
+    /**
+     * Label every tile of grid on its own, in parallel on pool, then join
+     * the tiles' regions across each seam and number the joined regions in
+     * IndexPair order of their first cells.
+     */
+    private static <S extends Comparable<S>> ComponentLabeling<S> ofTiles(
+            PlaneMap<S> map, TiledGrid grid, List<IntRectangle> indexBounds,
+            ForkJoinPool pool) {
+        int tileSize = grid.tileSize(), yTiles = grid.yTiles();
+        int numTiles = grid.xTiles() * yTiles;
+
+        // Rectangles by the tile holding their lower left corner
+        int[] cornerStarts = new int[numTiles + 1];
+        for (IntRectangle bounds : indexBounds) {
+            cornerStarts[tileKey(grid, bounds.left(), bounds.bottom()) + 1]++;
+        }
+        for (int key = 0; key < numTiles; key++) {
+            cornerStarts[key + 1] += cornerStarts[key];
+        }
+        int[] corners = new int[indexBounds.size()];
+        int[] next = Arrays.copyOf(cornerStarts, numTiles);
+        for (IntRectangle bounds : indexBounds) {
+            int key = tileKey(grid, bounds.left(), bounds.bottom());
+            corners[next[key]++] = bounds.left() % tileSize * tileSize
+                    + bounds.bottom() % tileSize;
+        }
+
+        TileRegions[] regions = new TileRegions[numTiles];
+        IntConsumer labelTile = key -> regions[key] = regionsOf(grid, key,
+                Arrays.copyOfRange(corners, cornerStarts[key], cornerStarts[key + 1]));
+        if (pool == null) {
+            IntStream.range(0, numTiles).forEach(labelTile);
+        }
+        else {
+            // Parallel streams run on the pool they're started from
+            pool.submit(() -> IntStream.range(0, numTiles).parallel()
+                    .forEach(labelTile)).join();
+        }
+
+        // Number the tiles' regions globally and join them across the seams
+        int[] bases = new int[numTiles + 1];
+        for (int key = 0; key < numTiles; key++) {
+            bases[key + 1] = bases[key] + regions[key].count;
+        }
+        UnionFind joined = new UnionFind(bases[numTiles]);
+        for (int key = 0; key < numTiles; key++) {
+            TileRegions tile = regions[key];
+            if (key >= yTiles) {
+                joinEdges(joined, bases[key], tile.leftEdge,
+                        bases[key - yTiles], regions[key - yTiles].rightEdge);
+            }
+            if (key % yTiles > 0) {
+                joinEdges(joined, bases[key], tile.bottomEdge,
+                        bases[key - 1], regions[key - 1].topEdge);
+            }
+        }
+
+        // Merge each region's measures into its root's
+        int numRegions = bases[numTiles];
+        TileRegions merged = new TileRegions();
+        merged.first  = new long[numRegions];
+        merged.cells  = new long[numRegions];
+        merged.left   = new int[numRegions];
+        merged.right  = new int[numRegions];
+        merged.bottom = new int[numRegions];
+        merged.top    = new int[numRegions];
+        merged.rectangles = new int[numRegions];
+        Arrays.fill(merged.first, Long.MAX_VALUE);
+        Arrays.fill(merged.left, Integer.MAX_VALUE);
+        Arrays.fill(merged.bottom, Integer.MAX_VALUE);
+        Arrays.fill(merged.right, -1);
+        Arrays.fill(merged.top, -1);
+
+        for (int key = 0; key < numTiles; key++) {
+            TileRegions tile = regions[key];
+            for (int local = 0; local < tile.count; local++) {
+                int root = joined.find(bases[key] + local);
+                merged.first[root]  = Math.min(merged.first[root], tile.first[local]);
+                merged.cells[root] += tile.cells[local];
+                merged.left[root]   = Math.min(merged.left[root], tile.left[local]);
+                merged.right[root]  = Math.max(merged.right[root], tile.right[local]);
+                merged.bottom[root] = Math.min(merged.bottom[root], tile.bottom[local]);
+                merged.top[root]    = Math.max(merged.top[root], tile.top[local]);
+                merged.rectangles[root] += tile.rectangles[local];
+            }
+        }
+
+        // Ids follow the roots' first cells
+        int[] roots = IntStream.range(0, numRegions)
+                .filter(region -> joined.find(region) == region)
+                .boxed()
+                .sorted(Comparator.comparingLong(root -> merged.first[root]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        int[] ids = new int[numRegions];
+        List<Component<S>> components = new ArrayList<>(roots.length);
+        for (int id = 0; id < roots.length; id++) {
+            int root = roots[id];
+            ids[root] = id;
+            components.add(component(map, id, merged.cells[root],
+                    merged.rectangles[root], merged.left[root], merged.right[root],
+                    merged.bottom[root], merged.top[root]));
+        }
+
+        int[][] tileIds = new int[numTiles][];
+        for (int key = 0; key < numTiles; key++) {
+            tileIds[key] = new int[regions[key].count];
+            for (int local = 0; local < tileIds[key].length; local++) {
+                tileIds[key][local] = ids[joined.find(bases[key] + local)];
+            }
+        }
+        return new ComponentLabeling<S>(map, null, null, null, grid, tileIds,
+                components);
+    }
+
+    private static int tileKey(TiledGrid grid, int x, int y) {
+        return x / grid.tileSize() * grid.yTiles() + y / grid.tileSize();
+    }
+
+    /**
+     * Union the regions along one tile's edge with those along the facing
+     * edge of its neighbour, cell by cell.
+     */
+    private static void joinEdges(UnionFind joined, int base, int[] edge,
+            int neighbourBase, int[] neighbourEdge) {
+        for (int i = 0; i < edge.length; i++) {
+            if (edge[i] >= 0 && neighbourEdge[i] >= 0) {
+                joined.union(base + edge[i], neighbourBase + neighbourEdge[i]);
+            }
+        }
+    }
+
+    /**
+     * Label tile key of grid and measure its regions.
+     * @param corners the in-tile cell of each rectangle's lower left corner
+     *                that lies in the tile
+     */
+    private static TileRegions regionsOf(TiledGrid grid, int key, int[] corners) {
+        int tileSize = grid.tileSize();
+        int tx = key / grid.yTiles(), ty = key % grid.yTiles();
+        int left = tx * tileSize, bottom = ty * tileSize;
+        int width  = Math.min(tileSize, grid.xSize() - left);
+        int height = Math.min(tileSize, grid.ySize() - bottom);
+
+        int[] labels = new int[tileSize * tileSize];
+        TileRegions tile = new TileRegions();
+        tile.count = labelTile(grid.tile(tx, ty), tileSize, width, height, labels);
+        tile.first  = new long[tile.count];
+        tile.cells  = new long[tile.count];
+        tile.left   = new int[tile.count];
+        tile.right  = new int[tile.count];
+        tile.bottom = new int[tile.count];
+        tile.top    = new int[tile.count];
+        tile.rectangles = new int[tile.count];
+        Arrays.fill(tile.bottom, Integer.MAX_VALUE);
+
+        // Local ids follow the scan, so each region's first cell is seen
+        // when its id is and its columns arrive in order
+        int seen = 0;
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                int local = labels[x * tileSize + y];
+                if (local < 0) {
+                    continue;
+                }
+                if (local == seen) {
+                    tile.first[local] = IndexPair.key(left + x, bottom + y);
+                    tile.left[local]  = left + x;
+                    seen++;
+                }
+                tile.cells[local]++;
+                tile.right[local]  = left + x;
+                tile.bottom[local] = Math.min(tile.bottom[local], bottom + y);
+                tile.top[local]    = Math.max(tile.top[local], bottom + y);
+            }
+        }
+        for (int corner : corners) {
+            tile.rectangles[labels[corner]]++;
+        }
+
+        tile.leftEdge   = new int[height];
+        tile.rightEdge  = new int[height];
+        tile.bottomEdge = new int[width];
+        tile.topEdge    = new int[width];
+        for (int y = 0; y < height; y++) {
+            tile.leftEdge[y]  = labels[y];
+            tile.rightEdge[y] = labels[(width - 1) * tileSize + y];
+        }
+        for (int x = 0; x < width; x++) {
+            tile.bottomEdge[x] = labels[x * tileSize];
+            tile.topEdge[x]    = labels[x * tileSize + height - 1];
+        }
+        return tile;
+    }
+
+    /**
+     * Label the covered cells of a tile by flood fill, with local ids
+     * numbered from 0 in scan order of each region's first cell.
+     * @param labels set to each cell's local id, or -1 if it's uncovered
+     * @return the number of regions in the tile
+     */
+    private static int labelTile(int[] tile, int tileSize, int width, int height,
+            int[] labels) {
+        Arrays.fill(labels, -1);
+        int[] stack = new int[width * height];
+        int count = 0;
+
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                int start = x * tileSize + y;
+                if (tile[start] == 0 || labels[start] >= 0) {
+                    continue;
+                }
+
+                // Cells are labeled as they're pushed, so each is pushed once
+                labels[start] = count;
+                int size = 0;
+                stack[size++] = start;
+                while (size > 0) {
+                    int cell = stack[--size];
+                    int cellX = cell / tileSize, cellY = cell % tileSize;
+                    if (cellX > 0) {
+                        size = push(tile, labels, stack, size, cell - tileSize, count);
+                    }
+                    if (cellX < width - 1) {
+                        size = push(tile, labels, stack, size, cell + tileSize, count);
+                    }
+                    if (cellY > 0) {
+                        size = push(tile, labels, stack, size, cell - 1, count);
+                    }
+                    if (cellY < height - 1) {
+                        size = push(tile, labels, stack, size, cell + 1, count);
+                    }
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int push(int[] tile, int[] labels, int[] stack, int size,
+            int cell, int label) {
+        if (tile[cell] > 0 && labels[cell] < 0) {
+            labels[cell] = label;
+            stack[size++] = cell;
+        }
+        return size;
+    }
+
+    private static <S extends Comparable<S>> Component<S> component(
+            PlaneMap<S> map, int id, long cells, int rectangles,
+            int left, int right, int bottom, int top) {
+        return new Component<S>(id, cells, rectangles, Rectangle.of(
+                map.xAxis().coordinateAt(left),
+                map.xAxis().coordinateAt(right + 1),
+                map.yAxis().coordinateAt(bottom),
+                map.yAxis().coordinateAt(top + 1)));
+    }
+
+    /**
+     * Numbers roots as their first cell is seen and accumulates each
+     * component's cell count and bounds, in index space.
+     */
+    private static final class Labeler {
+        private final int[] ids;
+        private int count;
+        private long[] cells = new long[16];
+        private int[] left = new int[16], right = new int[16];
+        private int[] bottom = new int[16], top = new int[16];
+
+        Labeler(int roots) {
+            this.ids = new int[roots];
+            Arrays.fill(ids, -1);
+        }
+
+        int label(int x, int y, int root) {
+            int id = ids[root];
+            if (id < 0) {
+                id = ids[root] = count++;
+                if (id == cells.length) {
+                    cells  = Arrays.copyOf(cells,  2 * id);
+                    left   = Arrays.copyOf(left,   2 * id);
+                    right  = Arrays.copyOf(right,  2 * id);
+                    bottom = Arrays.copyOf(bottom, 2 * id);
+                    top    = Arrays.copyOf(top,    2 * id);
+                }
+                left[id]   = x;
+                bottom[id] = y;
+                top[id]    = y;
+            }
+
+            // Cells arrive by x, then y, so only right, bottom & top move
+            cells[id]++;
+            right[id]  = x;
+            bottom[id] = Math.min(bottom[id], y);
+            top[id]    = Math.max(top[id], y);
+            return id;
+        }
+
+        /**
+         * Get the measured components, counting each rectangle in the
+         * component label gives its lower left corner.
+         */
+        <S extends Comparable<S>> List<Component<S>> components(PlaneMap<S> map,
+                List<IntRectangle> indexBounds, IntBinaryOperator label) {
+            int[] rectangles = new int[count];
+            for (IntRectangle bounds : indexBounds) {
+                rectangles[label.applyAsInt(bounds.left(), bounds.bottom())]++;
+            }
+
+            List<Component<S>> components = new ArrayList<>(count);
+            for (int id = 0; id < count; id++) {
+                components.add(component(map, id, cells[id], rectangles[id],
+                        left[id], right[id], bottom[id], top[id]));
+            }
+            return components;
+        }
+    }
+
+    /**
+     * Get the id of the component covering cell (x, y) of the index space,
+     * or -1 if it's uncovered.
+     */
+    int label(int x, int y) {
+        assert 0 <= x && x < map.xSize() && 0 <= y && y < map.ySize();
+
+        if (cellLabels != null) {
+            return cellLabels[x * map.ySize() + y];
+        }
+        if (tiles != null) {
+            int tileSize = tiles.tileSize();
+            int local = tileLabels(x, y)[x % tileSize * tileSize + y % tileSize];
+            return local < 0 ? -1 : tileIds[tileKey(tiles, x, y)][local];
+        }
+        int i = Arrays.binarySearch(coveredKeys, IndexPair.key(x, y));
+        return i >= 0 ? coveredLabels[i] : -1;
+    }
+
+    /**
+     * Get the local labels of the tile holding cell (x, y), relabeling it
+     * unless it was the last tile looked up.
+     */
+    private synchronized int[] tileLabels(int x, int y) {
+        int key = tileKey(tiles, x, y);
+        if (key != lastTile) {
+            int tileSize = tiles.tileSize();
+            int tx = x / tileSize, ty = y / tileSize;
+            lastLabels = new int[tileSize * tileSize];
+            labelTile(tiles.tile(tx, ty), tileSize,
+                    Math.min(tileSize, tiles.xSize() - tx * tileSize),
+                    Math.min(tileSize, tiles.ySize() - ty * tileSize), lastLabels);
+            lastTile = key;
+        }
+        return lastLabels;
+    }
+
+    /**
+     * Get the number of components.
+     */
+    public int componentCount() {
+        return components.size();
+    }
+
+    /**
+     * Get every component, by id.
+     * @return an unmodifiable list of the components, where the component
+     *          with id i is at position i
+     */
+    public List<Component<T>> components() {
+        return components;
+    }
+
+    /**
+     * Get the id of the component covering the point (x, y). Like the cells
+     * of a matrix grid, a rectangle covers its left & bottom borders but not
+     * its right & top ones.
+     * @param x the point's x coordinate
+     * @param y the point's y coordinate
+     * @return the component's id, or -1 if no rectangle covers the point
+     * @throws IllegalArgumentException containing a RectangleException as its
+     *          cause if x or y is null
+     */
+    public int componentAt(T x, T y) {
+        OptionalInt column = map.xAxis().floorIndex(x);
+        OptionalInt row    = map.yAxis().floorIndex(y);
+
+        return column.isPresent() && row.isPresent()
+                && column.getAsInt() < map.xSize() - 1
+                && row.getAsInt() < map.ySize() - 1
+                ? label(column.getAsInt(), row.getAsInt())
+                : -1;
+    }
+
+    /**
+     * Get the id of the component a rectangle of the group belongs to, i.e.
+     * the component covering its lower left corner.
+     * @param rectangle a rectangle of the group
+     * @return the rectangle's component id, or -1 if rectangle isn't
+     *          covered by the group
+     * @throws IllegalArgumentException containing a RectangleException as its
+     *          cause if rectangle is null
+     */
+    public int componentOf(Rectangle<T> rectangle) {
+        RectangleException.verifyNonNull(rectangle);
+
+        return componentAt(rectangle.left(), rectangle.bottom());
+    }
+}
@@ -0,0 +1,321 @@
+package edu.cwru.bwp18.polygon;
+
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntBinaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * Dense matrix of how many rectangles cover each cell of a PlaneMap's index
+ * space. Cell (x, y) is stored at x * ySize + y, so the flat order of the
+ * cells matches the IndexPair ordering used by the matrix grid.
+ */
+final class CoverageGrid implements CellGrid {
+    /**
+     * Number of x-stripes per thread when building in parallel. More stripes
+     * than threads lets the pool balance stripes of uneven cost.
+     */
+    private static final int STRIPES_PER_THREAD = 4;
+
+    private final int xSize, ySize;
+
+    /**
+     * Coverage count of each cell, indexed by cell(x, y).
+     * Guaranteed to be non-null with length xSize * ySize.
+     */
+    private final int[] counts;
+
+    private CoverageGrid(int xSize, int ySize, int[] counts) {
+        assert xSize  >= 0;
+        assert ySize  >= 0;
+        assert counts != null && counts.length == xSize * ySize;
+
+        this.xSize  = xSize;
+        this.ySize  = ySize;
+        this.counts = counts;
+    }
+
+    /**
+     * Count the coverage of each cell by the provided rectangles. Each
+     * rectangle only writes its four corners into a difference array, which
+     * a single prefix-sum pass turns into counts, so the cost is
+     * O(rectangles + xSize * ySize) regardless of the rectangles' areas.
+     * @param xSize the number of x indices
+     * @param ySize the number of y indices
+     * @param indexBounds the rectangles' bounds in index space; every bound
+     *                    must be in [0, xSize) or [0, ySize)
+     * @return the coverage grid of the rectangles
+     * @throws ArithmeticException if xSize * ySize overflows an int
+     */
+    static CoverageGrid of(int xSize, int ySize,
+            Collection<IntRectangle> indexBounds) {
+        return of(xSize, ySize, indexBounds, null);
+    }
+
+    /**
+     * Count the coverage of each cell by the provided rectangles, splitting
+     * the grid into x-stripes that are filled in parallel on pool. Each
+     * stripe runs the same difference-array pass over the rectangles that
+     * cross it, so the counts are identical to the sequential ones.
+     * @param xSize the number of x indices
+     * @param ySize the number of y indices
+     * @param indexBounds the rectangles' bounds in index space; every bound
+     *                    must be in [0, xSize) or [0, ySize)
+     * @param pool the pool to fill stripes on, or null to fill the whole
+     *             grid as one stripe on this thread
+     * @return the coverage grid of the rectangles
+     * @throws ArithmeticException if xSize * ySize overflows an int
+     */
+    static CoverageGrid of(int xSize, int ySize,
+            Collection<IntRectangle> indexBounds, ForkJoinPool pool) {
+        assert indexBounds != null;
+
+        CoverageGrid grid = new CoverageGrid(xSize, ySize,
+                new int[Math.multiplyExact(xSize, ySize)]);
+        grid.sumOverStripes(pool, (left, right) -> {
+            grid.fillStripe(left, right, indexBounds);
+            return 0;
+        });
+        return grid;
+    }
+
+    /**
+     * Fill the counts of columns [stripeLeft, stripeRight) from the
+     * rectangles that cross them. Only writes to those columns.
+     */
+    private void fillStripe(int stripeLeft, int stripeRight,
+            Collection<IntRectangle> indexBounds) {
+        for (IntRectangle bounds : indexBounds) {
+            assert bounds.right() < xSize && bounds.top() < ySize;
+
+            if (bounds.left() >= stripeRight || bounds.right() <= stripeLeft) {
+                continue;
+            }
+
+            // A rectangle starting left of the stripe opens at its first
+            // column; right & top bounds are at most xSize - 1 & ySize - 1,
+            // so the closing corners always land inside the array
+            int left = Math.max(bounds.left(), stripeLeft) * ySize;
+            counts[left + bounds.bottom()]++;
+            counts[left + bounds.top()]--;
+
+            if (bounds.right() < stripeRight) {
+                int right = bounds.right() * ySize;
+                counts[right + bounds.bottom()]--;
+                counts[right + bounds.top()]++;
+            }
+        }
+
+        // Turn the difference array into counts in place: accumulate up each
+        // column, then across the stripe's columns
+        for (int x = stripeLeft; x < stripeRight; x++) {
+            int column = x * ySize;
+            for (int y = 1; y < ySize; y++) {
+                counts[column + y] += counts[column + y - 1];
+            }
+        }
+
+        for (int i = (stripeLeft + 1) * ySize; i < stripeRight * ySize; i++) {
+            counts[i] += counts[i - ySize];
+        }
+    }
+
+    /**
+     * Run task on each x-stripe [left, right) of the grid and sum the
+     * results. With a pool, the grid is split into STRIPES_PER_THREAD
+     * stripes per thread that run in parallel; without one, the whole grid
+     * is a single stripe run on this thread.
+     */
+    private int sumOverStripes(ForkJoinPool pool, IntBinaryOperator task) {
+        int width = stripeWidth(pool);
+        if (width >= xSize) {
+            return task.applyAsInt(0, xSize);
+        }
+
+        IntStream stripes = IntStream.range(0, (xSize + width - 1) / width)
+                .parallel()
+                .map(stripe -> task.applyAsInt(stripe * width,
+                        Math.min(xSize, (stripe + 1) * width)));
+
+        // Parallel streams run on the pool they're started from
+        return pool.submit(stripes::sum).join();
+    }
+
+    /**
+     * Get the width of the stripes sumOverStripes uses with pool; xSize if
+     * there's only one stripe.
+     */
+    private int stripeWidth(ForkJoinPool pool) {
+        int numStripes = pool == null
+                ? 1
+                : Math.min(xSize, pool.getParallelism() * STRIPES_PER_THREAD);
+        return numStripes <= 1
+                ? xSize
+                : (xSize + numStripes - 1) / numStripes;
+    }
+
+    @Override
+    public int xSize() {
+        return xSize;
+    }
+
+    @Override
+    public int ySize() {
+        return ySize;
+    }
+
+    /**
+     * Get the flat index of cell (x, y).
+     */
+    int cell(int x, int y) {
+        assert x >= 0 && x < xSize;
+        assert y >= 0 && y < ySize;
+
+        return x * ySize + y;
+    }
+
+    @Override
+    public int count(int x, int y) {
+        return counts[cell(x, y)];
+    }
+
+    /**
+     * Get the number of rectangles covering the cell with the given flat
+     * index.
+     */
+    int count(int cell) {
+        return counts[cell];
+    }
+
+    /**
+     * Get the total number of cells, covered or not.
+     */
+    int cellCount() {
+        return counts.length;
+    }
+
+    @Override
+    public boolean isOverlapping() {
+        for (int count : counts) {
+            if (count > 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Count the 4-connected regions of covered cells. Scans the cells once,
+     * joining each covered cell to its covered left & lower neighbours in a
+     * UnionFind, so it uses no recursion and allocates only the forest.
+     * @return the number of connected components of covered cells
+     */
+    @Override
+    public int componentCount() {
+        return componentCount(null);
+    }
+
+    /**
+     * Count the 4-connected regions of covered cells, labeling x-stripes in
+     * parallel on pool and then merging the components that meet across
+     * each seam between stripes.
+     * @param pool the pool to label stripes on, or null to label the whole
+     *             grid as one stripe on this thread
+     * @return the number of connected components of covered cells
+     */
+    @Override
+    public int componentCount(ForkJoinPool pool) {
+        return joinComponents(pool, new UnionFind(counts.length));
+    }
+
+    /**
+     * Label each cell with the root of its component, joined as by
+     * componentCount(pool), or -1 if it's uncovered. Once the stripes and
+     * seams are joined the forest no longer changes, so the roots of each
+     * stripe are also found in parallel.
+     * @param pool the pool to label stripes on, or null to label the whole
+     *             grid as one stripe on this thread
+     * @return the root of each cell by flat index, in [0, cellCount())
+     */
+    int[] componentRoots(ForkJoinPool pool) {
+        UnionFind components = new UnionFind(counts.length);
+        joinComponents(pool, components);
+
+        int[] roots = new int[counts.length];
+        sumOverStripes(pool, (left, right) -> {
+            for (int cell = left * ySize; cell < right * ySize; cell++) {
+                roots[cell] = counts[cell] > 0 ? components.root(cell) : -1;
+            }
+            return 0;
+        });
+        return roots;
+    }
+
+    /**
+     * Join the covered cells of each stripe in parallel, then the cells
+     * across each seam between stripes.
+     * @return the number of connected components of covered cells
+     */
+    private int joinComponents(ForkJoinPool pool, UnionFind components) {
+        // Stripes only union cells inside themselves, so they never touch
+        // the same part of the forest
+        int numComponents = sumOverStripes(pool, (left, right) ->
+                stripeComponents(left, right, components));
+
+        int width = stripeWidth(pool);
+        for (int seam = width; seam < xSize; seam += width) {
+            int column = seam * ySize;
+            for (int y = 0; y < ySize; y++) {
+                int cell = column + y;
+                if (counts[cell] > 0 && counts[cell - ySize] > 0
+                        && components.union(cell, cell - ySize)) {
+                    numComponents--;
+                }
+            }
+        }
+
+        return numComponents;
+    }
+
+    /**
+     * Join the covered cells of columns [stripeLeft, stripeRight) in
+     * components and count the stripe's own components.
+     */
+    private int stripeComponents(int stripeLeft, int stripeRight,
+            UnionFind components) {
+        int numComponents = 0;
+
+        for (int x = stripeLeft; x < stripeRight; x++) {
+            for (int y = 0; y < ySize; y++) {
+                int cell = cell(x, y);
+                if (counts[cell] == 0) {
+                    continue;
+                }
+
+                numComponents++;
+                if (y > 0 && counts[cell - 1] > 0
+                        && components.union(cell, cell - 1)) {
+                    numComponents--;
+                }
+                if (x > stripeLeft && counts[cell - ySize] > 0
+                        && components.union(cell, cell - ySize)) {
+                    numComponents--;
+                }
+            }
+        }
+
+        return numComponents;
+    }
+
+    @Override
+    public void forEachCovered(CellVisitor visitor) {
+        for (int x = 0; x < xSize; x++) {
+            for (int y = 0; y < ySize; y++) {
+                int count = counts[cell(x, y)];
+                if (count > 0) {
+                    visitor.visit(x, y, count);
+                }
+            }
+        }
+    }
+}
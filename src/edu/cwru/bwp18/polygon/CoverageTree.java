@@ -0,0 +1,272 @@
+package edu.cwru.bwp18.polygon;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * Updatable coverage counts over the cells of a PlaneMap's index space, held
+ * in a 2D binary indexed (Fenwick) tree. Adding or removing a rectangle and
+ * asking how many rectangles cover a point or how much coverage a window
+ * holds all take O(log(xSize) * log(ySize)) time.
+ * <br>
+ * The tree stores the 2D difference array d of the counts, so a rectangle
+ * is four point updates. The sum of the counts of cells up to (x, y) is
+ * (x + 1)(y + 1) * sum(d) - (y + 1) * sum(i * d) - (x + 1) * sum(j * d)
+ * + sum(i * j * d) over d's entries (i, j) up to (x, y), so the tree keeps
+ * those four sums interleaved in one array.
+ *
+ * @param <T> the comparable type of the map's coordinates
+ */
+final class CoverageTree<T extends Comparable<T>> {
+    private static final int SUMS = 4;
+
+    private final PlaneMap<T> map;
+
+    /**
+     * Positions are cells + 1, from 1 to xCells & yCells; position 0 of each
+     * dimension is unused.
+     */
+    private final int xCells, yCells;
+
+    /**
+     * The sums of d, i * d, j * d and i * j * d of position (i, j) are
+     * tree[SUMS * (i * (yCells + 1) + j)] and the following three entries.
+     */
+    private final long[] tree;
+
+    private CoverageTree(PlaneMap<T> map) {
+        assert map != null;
+
+        this.map    = map;
+        this.xCells = map.xSize();
+        this.yCells = map.ySize();
+        this.tree   = new long[Math.multiplyExact(SUMS,
+                Math.multiplyExact(xCells + 1, yCells + 1))];
+    }
+
+    /**
+     * Build the tree of the provided rectangles in linear time, by writing
+     * their differences directly and then summing them into tree nodes one
+     * dimension at a time.
+     * @param map the PlaneMap the rectangles are indexed in
+     * @param indexBounds the rectangles' bounds in map's index space
+     * @return the coverage tree of the rectangles
+     * @throws ArithmeticException if the tree needs more than
+     *          Integer.MAX_VALUE entries
+     */
+    static <S extends Comparable<S>> CoverageTree<S> of(PlaneMap<S> map,
+            Collection<IntRectangle> indexBounds) {
+        assert indexBounds != null;
+
+        CoverageTree<S> coverage = new CoverageTree<S>(map);
+        for (IntRectangle bounds : indexBounds) {
+            coverage.forEachCorner(bounds, 1, coverage::addDifference);
+        }
+
+        int stride = coverage.yCells + 1;
+        long[] tree = coverage.tree;
+        for (int i = 1; i <= coverage.xCells; i++) {
+            for (int j = 1; j <= coverage.yCells; j++) {
+                int parent = j + (j & -j);
+                if (parent <= coverage.yCells) {
+                    addNode(tree, i * stride + parent, i * stride + j);
+                }
+            }
+        }
+        for (int i = 1; i <= coverage.xCells; i++) {
+            int parent = i + (i & -i);
+            if (parent <= coverage.xCells) {
+                for (int j = 1; j <= coverage.yCells; j++) {
+                    addNode(tree, parent * stride + j, i * stride + j);
+                }
+            }
+        }
+
+        return coverage;
+    }
+
+    private static void addNode(long[] tree, int to, int from) {
+        for (int s = 0; s < SUMS; s++) {
+            tree[SUMS * to + s] += tree[SUMS * from + s];
+        }
+    }
+
+    @FunctionalInterface
+    private interface CornerUpdate {
+        void apply(int i, int j, long delta);
+    }
+
+    /**
+     * Apply the four difference updates that add delta to the cells of
+     * bounds.
+     */
+    private void forEachCorner(IntRectangle bounds, long delta, CornerUpdate update) {
+        assert bounds.right() < xCells && bounds.top() < yCells;
+
+        update.apply(bounds.left()  + 1, bounds.bottom() + 1,  delta);
+        update.apply(bounds.right() + 1, bounds.bottom() + 1, -delta);
+        update.apply(bounds.left()  + 1, bounds.top()    + 1, -delta);
+        update.apply(bounds.right() + 1, bounds.top()    + 1,  delta);
+    }
+
+    private void addDifference(int i, int j, long delta) {
+        int at = SUMS * (i * (yCells + 1) + j);
+        tree[at]     += delta;
+        tree[at + 1] += delta * i;
+        tree[at + 2] += delta * j;
+        tree[at + 3] += delta * i * j;
+    }
+
+    private void update(int i, int j, long delta) {
+        for (int a = i; a <= xCells; a += a & -a) {
+            for (int b = j; b <= yCells; b += b & -b) {
+                int at = SUMS * (a * (yCells + 1) + b);
+                tree[at]     += delta;
+                tree[at + 1] += delta * i;
+                tree[at + 2] += delta * j;
+                tree[at + 3] += delta * i * j;
+            }
+        }
+    }
+
+    /**
+     * Sum the four sums over positions up to (i, j).
+     */
+    private long[] prefixSums(int i, int j) {
+        long[] sums = new long[SUMS];
+        for (int a = i; a > 0; a -= a & -a) {
+            for (int b = j; b > 0; b -= b & -b) {
+                int at = SUMS * (a * (yCells + 1) + b);
+                for (int s = 0; s < SUMS; s++) {
+                    sums[s] += tree[at + s];
+                }
+            }
+        }
+        return sums;
+    }
+
+    /**
+     * Get the total count of the cells at positions up to (i, j).
+     */
+    private long prefixCount(int i, int j) {
+        if (i <= 0 || j <= 0) {
+            return 0;
+        }
+
+        long[] sums = prefixSums(i, j);
+        return (i + 1L) * (j + 1L) * sums[0] - (j + 1L) * sums[1]
+                - (i + 1L) * sums[2] + sums[3];
+    }
+
+    /**
+     * Get the PlaneMap whose cells the tree counts.
+     */
+    public PlaneMap<T> getMap() {
+        return map;
+    }
+
+    /**
+     * Get the number of rectangles covering cell (x, y) of the index space.
+     */
+    int count(int x, int y) {
+        assert 0 <= x && x < xCells && 0 <= y && y < yCells;
+
+        long count = 0;
+        for (int a = x + 1; a > 0; a -= a & -a) {
+            for (int b = y + 1; b > 0; b -= b & -b) {
+                count += tree[SUMS * (a * (yCells + 1) + b)];
+            }
+        }
+        return (int) count;
+    }
+
+    /**
+     * Sum the counts of the cells [left, right) x [bottom, top) of the
+     * index space.
+     */
+    long cellSum(int left, int right, int bottom, int top) {
+        assert 0 <= left && left <= right && right <= xCells;
+        assert 0 <= bottom && bottom <= top && top <= yCells;
+
+        return prefixCount(right, top) - prefixCount(left, top)
+                - prefixCount(right, bottom) + prefixCount(left, bottom);
+    }
+
+    /**
+     * Get the number of rectangles covering the point (x, y). Like the cells
+     * of a matrix grid, a rectangle covers its left & bottom borders but not
+     * its right & top ones.
+     * @param x the point's x coordinate
+     * @param y the point's y coordinate
+     * @return the number of rectangles covering the point
+     * @throws IllegalArgumentException containing a RectangleException as its
+     *          cause if x or y is null
+     */
+    public int coverageAt(T x, T y) {
+        OptionalInt column = map.xAxis().floorIndex(x);
+        OptionalInt row    = map.yAxis().floorIndex(y);
+
+        return column.isPresent() && row.isPresent()
+                && column.getAsInt() < xCells && row.getAsInt() < yCells
+                ? count(column.getAsInt(), row.getAsInt())
+                : 0;
+    }
+
+    /**
+     * Sum the coverage counts of every cell that window intersects.
+     * @param window the window to sum
+     * @return the total coverage count of the cells in window
+     * @throws IllegalArgumentException containing a RectangleException as its
+     *          cause if window is null
+     */
+    public long windowSum(Rectangle<T> window) {
+        RectangleException.verifyNonNull(window);
+
+        int left   = map.xAxis().floorIndex(window.left()).orElse(0);
+        int bottom = map.yAxis().floorIndex(window.bottom()).orElse(0);
+        int right  = Math.min(map.xAxis().rank(window.right()), xCells);
+        int top    = Math.min(map.yAxis().rank(window.top()), yCells);
+
+        return left < right && bottom < top
+                ? cellSum(left, right, bottom, top)
+                : 0;
+    }
+
+    /**
+     * Add a rectangle to the counts. Its borders must be borders of the map.
+     * @param rectangle the rectangle to add
+     * @throws IllegalArgumentException if rectangle is null or has a border
+     *          that isn't in the map
+     */
+    public void add(Rectangle<T> rectangle) {
+        forEachCorner(indexBoundsOf(rectangle), 1, this::update);
+    }
+
+    /**
+     * Remove a rectangle from the counts. Its borders must be borders of the
+     * map, and it should have been added or part of the tree's group;
+     * removing any other rectangle makes counts negative.
+     * @param rectangle the rectangle to remove
+     * @throws IllegalArgumentException if rectangle is null or has a border
+     *          that isn't in the map
+     */
+    public void remove(Rectangle<T> rectangle) {
+        forEachCorner(indexBoundsOf(rectangle), -1, this::update);
+    }
+
+    private IntRectangle indexBoundsOf(Rectangle<T> rectangle) {
+        RectangleException.verifyNonNull(rectangle);
+
+        return new IntRectangle(
+                indexOf(map.xIndexOf(rectangle.left())),
+                indexOf(map.xIndexOf(rectangle.right())),
+                indexOf(map.yIndexOf(rectangle.bottom())),
+                indexOf(map.yIndexOf(rectangle.top())));
+    }
+
+    private static int indexOf(Optional<Integer> index) {
+        return index.orElseThrow(() -> new IllegalArgumentException(
+                "Rectangle border is not in the map"));
+    }
+}
@@ -1,17 +1,29 @@
 package edu.cwru.bwp18.polygon;
 
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public final class Grid implements Iterable<IndexPair> {
+    /**
+     * Action on the x & y indices of a cell.
+     */
+    @FunctionalInterface
+    public interface CellConsumer {
+        void accept(int x, int y);
+    }
 
     /**
      * Underlying rectangle.
-     * Guaranteed to have all four bounds.
+     * Guaranteed to be non-null.
      */
-    private final Rectangle<Integer> rectangle;
+    private final IntRectangle rectangle;
 
-    private Grid(Rectangle<Integer> rectangle) {
+    private Grid(IntRectangle rectangle) {
         assert rectangle != null;
 
         this.rectangle = rectangle;
@@ -20,7 +32,14 @@ public final class Grid implements Iterable<IndexPair> {
     public static Grid from(Rectangle<Integer> rectangle) {
         RectangleException.verifyNonNull(rectangle);
 
-        return new Grid(Rectangle.copyOf(rectangle));
+        return new Grid(IntRectangle.from(rectangle));
+    }
+
+    public static Grid fromInts(IntRectangle rectangle) {
+        RectangleException.verifyNonNull(rectangle);
+
+        // IntRectangles are immutable, so no copy is needed
+        return new Grid(rectangle);
     }
 
     public Integer top() {
@@ -39,27 +58,72 @@ public final class Grid implements Iterable<IndexPair> {
         return rectangle.right();
     }
 
+    /**
+     * Get the number of cells in this grid.
+     * @return (right - left) * (top - bottom)
+     */
+    public long size() {
+        return (long) (rectangle.right() - rectangle.left())
+                * (rectangle.top() - rectangle.bottom());
+    }
+
     @Override
     public Iterator<IndexPair> iterator() {
         return new GridIterator(this);
     }
 
+    /**
+     * Call action on every cell in the same order as iterator(), without
+     * allocating an IndexPair per cell.
+     * @param action the action to perform on each cell's indices
+     * @throws IllegalArgumentException if action is null
+     */
+    public void forEachCell(CellConsumer action) {
+        RectangleException.verifyNonNull(action);
+
+        for (int x = rectangle.left(); x < rectangle.right(); x++) {
+            for (int y = rectangle.bottom(); y < rectangle.top(); y++) {
+                action.accept(x, y);
+            }
+        }
+    }
+
+    /**
+     * Get a sized spliterator over the cells in iteration order. It splits
+     * on column boundaries, so parallel streams hand whole column ranges to
+     * each thread.
+     */
+    @Override
+    public Spliterator<IndexPair> spliterator() {
+        return new GridSpliterator(rectangle, 0, size());
+    }
+
+    /**
+     * Stream the cells of this grid in iteration order.
+     * @return a sequential stream of every cell's IndexPair
+     */
+    public Stream<IndexPair> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
     public static class GridIterator implements Iterator<IndexPair> {
 
-        Grid grid;
+        final int right, bottom, top;
         int xCoord, yCoord;
 
         GridIterator(Grid grid) {
             assert grid != null;
 
-            this.grid = grid;
-            xCoord = grid.left();
-            yCoord = grid.bottom();
+            right  = grid.rectangle.right();
+            bottom = grid.rectangle.bottom();
+            top    = grid.rectangle.top();
+            xCoord = grid.rectangle.left();
+            yCoord = bottom;
         }
 
         @Override
         public boolean hasNext() {
-            return xCoord < grid.right();
+            return xCoord < right;
         }
 
         @Override
@@ -72,15 +136,112 @@ public final class Grid implements Iterable<IndexPair> {
             IndexPair pair = new IndexPair(xCoord, yCoord);
 
             // Increment coordinates to be ready for the next next() call
-            if (yCoord < grid.top() - 1) {
+            if (yCoord < top - 1) {
                 yCoord++;
             }
             else {
-                yCoord = grid.bottom();
+                yCoord = bottom;
                 xCoord++;
             }
 
             return pair;
         }
     }
+
+    /**
+     * Spliterator over the cells [position, end) of a grid, numbered in
+     * iteration order: column by column, bottom to top.
+     */
+    static final class GridSpliterator implements Spliterator<IndexPair> {
+        private final int left, bottom, height;
+        private long position;
+        private final long end;
+
+        GridSpliterator(IntRectangle rectangle, long position, long end) {
+            assert rectangle != null && 0 <= position && position <= end;
+
+            this.left     = rectangle.left();
+            this.bottom   = rectangle.bottom();
+            this.height   = rectangle.top() - rectangle.bottom();
+            this.position = position;
+            this.end      = end;
+        }
+
+        private GridSpliterator(GridSpliterator parent, long position, long end) {
+            this.left     = parent.left;
+            this.bottom   = parent.bottom;
+            this.height   = parent.height;
+            this.position = position;
+            this.end      = end;
+        }
+
+        private IndexPair pairAt(long index) {
+            return new IndexPair(left + (int) (index / height),
+                    bottom + (int) (index % height));
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super IndexPair> action) {
+            RectangleException.verifyNonNull(action);
+
+            if (position >= end) {
+                return false;
+            }
+            action.accept(pairAt(position++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super IndexPair> action) {
+            RectangleException.verifyNonNull(action);
+
+            for (; position < end; position++) {
+                action.accept(pairAt(position));
+            }
+        }
+
+        /**
+         * Split off the first half of the remaining cells, rounded to a
+         * column boundary unless they're all in one column.
+         */
+        @Override
+        public Spliterator<IndexPair> trySplit() {
+            long middle = position + (end - position) / 2;
+            long column = middle - middle % height;
+            if (column > position) {
+                middle = column;
+            }
+            else if (column + height < end) {
+                middle = column + height;
+            }
+
+            if (middle <= position || middle >= end) {
+                return null;
+            }
+
+            GridSpliterator prefix = new GridSpliterator(
+                    this, position, middle);
+            position = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - position;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SORTED | DISTINCT | NONNULL | IMMUTABLE
+                    | SIZED | SUBSIZED;
+        }
+
+        /**
+         * Cells are produced in IndexPair's natural order.
+         */
+        @Override
+        public Comparator<? super IndexPair> getComparator() {
+            return null;
+        }
+    }
 }
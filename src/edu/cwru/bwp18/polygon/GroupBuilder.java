@@ -0,0 +1,151 @@
+package edu.cwru.bwp18.polygon;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Incremental builder of a PlaneMap or RectangleGroup of int rectangles,
+ * fed one rectangle at a time, e.g. by a RectangleReader. Borders are kept
+ * as primitives and deduplicated whenever their buffer fills, so the
+ * borders take memory proportional to the distinct borders rather than to
+ * the number of rectangles added. Rectangles are packed four ints each, and
+ * not kept at all by a builder of borders only.
+ */
+final class GroupBuilder {
+    private final boolean keepRectangles;
+
+    /**
+     * Rectangle i is bounds[4 * i] to bounds[4 * i + 4] as
+     * {left, right, bottom, top}.
+     */
+    private int[] bounds;
+    private int size;
+
+    private final Borders x = new Borders(), y = new Borders();
+
+    private GroupBuilder(boolean keepRectangles) {
+        this.keepRectangles = keepRectangles;
+        this.bounds         = new int[keepRectangles ? 64 : 0];
+    }
+
+    /**
+     * Create a builder of both a PlaneMap and a RectangleGroup.
+     */
+    static GroupBuilder create() {
+        return new GroupBuilder(true);
+    }
+
+    /**
+     * Create a builder that only keeps the distinct borders, so it can build
+     * a PlaneMap but not a RectangleGroup.
+     */
+    static GroupBuilder bordersOnly() {
+        return new GroupBuilder(false);
+    }
+
+    /**
+     * Add a rectangle to the builder.
+     * @throws IllegalArgumentException containing a RectangleException as its
+     *          cause if left >= right or bottom >= top
+     */
+    void add(int left, int right, int bottom, int top) {
+        RectangleException.verifyBounds(left, right);
+        RectangleException.verifyBounds(bottom, top);
+
+        if (keepRectangles) {
+            if (4 * size == bounds.length) {
+                bounds = Arrays.copyOf(bounds, 2 * bounds.length);
+            }
+            bounds[4 * size]     = left;
+            bounds[4 * size + 1] = right;
+            bounds[4 * size + 2] = bottom;
+            bounds[4 * size + 3] = top;
+        }
+        x.add(left, right);
+        y.add(bottom, top);
+        size++;
+    }
+
+    /**
+     * Get the number of rectangles added.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Build the PlaneMap of the borders added so far.
+     */
+    PlaneMap<Integer> map() {
+        return PlaneMap.fromAxes(AxisMap.fromInts(x.distinct()),
+                AxisMap.fromInts(y.distinct()));
+    }
+
+    /**
+     * Build the RectangleGroup of the rectangles added so far, reusing their
+     * index bounds instead of indexing them again.
+     * @throws IllegalStateException if this builder only keeps borders
+     */
+    RectangleGroup<Integer> build() {
+        if (!keepRectangles) {
+            throw new IllegalStateException("builder only keeps borders");
+        }
+
+        PlaneMap<Integer> map = map();
+        List<IntRectangle> rectangles  = new ArrayList<>(size);
+        List<IntRectangle> indexBounds = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            IntRectangle rectangle = new IntRectangle(bounds[4 * i],
+                    bounds[4 * i + 1], bounds[4 * i + 2], bounds[4 * i + 3]);
+            rectangles.add(rectangle);
+            indexBounds.add(map.indexBoundsOf(rectangle));
+        }
+
+        return RectangleGroup.fromIndexed(() -> rectangles.stream()
+                        .map(IntRectangle::toRectangle)
+                        .collect(Collectors.<Rectangle<Integer>>toUnmodifiableSet()),
+                map, List.copyOf(indexBounds));
+    }
+
+    /**
+     * Growable buffer of one axis's borders. When the buffer fills it is
+     * sorted and deduplicated in place, and only grown if that leaves it
+     * more than half full.
+     */
+    private static final class Borders {
+        private int[] values = new int[64];
+        private int size;
+
+        void add(int low, int high) {
+            if (size + 2 > values.length) {
+                compact();
+                if (2 * size > values.length) {
+                    values = Arrays.copyOf(values, 2 * values.length);
+                }
+            }
+            values[size++] = low;
+            values[size++] = high;
+        }
+
+        private void compact() {
+            Arrays.sort(values, 0, size);
+            int distinct = 0;
+            for (int i = 0; i < size; i++) {
+                if (i == 0 || values[i] != values[distinct - 1]) {
+                    values[distinct++] = values[i];
+                }
+            }
+            size = distinct;
+        }
+
+        /**
+         * Get the sorted distinct borders.
+         */
+        int[] distinct() {
+            compact();
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package edu.cwru.bwp18.polygon;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cache of RectangleGroups keyed by the content of their rectangle sets, so
+ * building a group from a set with the same bounds as a cached one returns
+ * the cached, immutable group and everything it has already computed.
+ * Entries are evicted least recently used first once the cache holds more
+ * than maxGroups groups or more than maxWeight rectangles in total.
+ * <br>
+ * Rectangles compare by identity, so sets are keyed by a hash of their
+ * rectangles' bounds that doesn't depend on iteration order, and a hit is
+ * confirmed by comparing the bounds. A shared group's rectangles are those
+ * of the set it was first built from.
+ * <br>
+ * The cache also interns the groups' AxisMaps, so groups whose borders are
+ * the same along an axis share one AxisMap even when their rectangles
+ * differ. All methods are thread safe.
+ *
+ * @param <S> the comparable type of the rectangles' bounds
+ */
+public final class GroupCache<S extends Comparable<S>> {
+    /**
+     * Totals since the cache was created or last cleared.
+     *
+     * @param hits       the number of lookups that returned a cached group
+     * @param misses     the number of lookups that built a new group
+     * @param evictions  the number of groups evicted
+     * @param axisHits   the number of axes that reused an interned AxisMap
+     * @param axisMisses the number of axes that were interned
+     * @param groups     the number of groups cached
+     * @param weight     the total number of rectangles in cached groups
+     */
+    public record Stats(long hits, long misses, long evictions, long axisHits,
+            long axisMisses, int groups, long weight) {
+        /**
+         * Get the fraction of lookups that were hits, or 0 if there were
+         * none.
+         */
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    /**
+     * Content hash of a rectangle set: two independent order-free sums of
+     * the rectangles' mixed hashes, and the set's size.
+     */
+    private record Key(long sum, long xor, int size) {}
+
+    /**
+     * Content hash of an axis's coordinates, in order.
+     */
+    private record AxisKey(long hash, int size) {}
+
+    private final int maxGroups;
+    private final long maxWeight;
+
+    private final LinkedHashMap<Key, RectangleGroup<S>> groups =
+            new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<AxisKey, AxisMap<S>> axes =
+            new LinkedHashMap<>(16, 0.75f, true);
+
+    private long weight;
+    private long hits, misses, evictions, axisHits, axisMisses;
+
+    private GroupCache(int maxGroups, long maxWeight) {
+        this.maxGroups = maxGroups;
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Create an empty cache.
+     * @param maxGroups the most groups to keep
+     * @param maxWeight the most rectangles to keep over all groups
+     * @return a new cache
+     * @throws IllegalArgumentException containing a RectangleException as its
+     *          cause if maxGroups or maxWeight isn't positive
+     */
+    public static <S extends Comparable<S>> GroupCache<S> create(int maxGroups,
+            long maxWeight) {
+        RectangleException.verifyBounds(0, maxGroups);
+        RectangleException.verifyBounds(0L, maxWeight);
+
+        return new GroupCache<S>(maxGroups, maxWeight);
+    }
+
+    /**
+     * Get the cached group of rectangles with the same bounds as the provided
+     * ones, or build, cache and return a new one with RectangleGroup.from.
+     * Sets of more than maxWeight rectangles are built but not cached.
+     * <br>
+     * A new group is built from a copy of rectangles, so later changes to
+     * the set don't reach the cached group. On a hit the group's rectangles
+     * are the instances it was first built from, not the provided ones:
+     * since Rectangles compare by identity, look the provided ones up in
+     * the group by their bounds, e.g. with componentLabeling().componentOf,
+     * rather than with getRectangles().contains or rectangleComponents().get.
+     * @param rectangles the Set of Rectangles to group
+     * @return a group of rectangles with the same bounds
+     * @throws IllegalArgumentException if rectangles is null or contains null
+     *                                  elements
+     */
+    public RectangleGroup<S> group(Set<Rectangle<S>> rectangles) {
+        RectangleException.verifyNonNull(rectangles);
+        RectangleException.verifyNonNull(rectangles.toArray());
+
+        Key key = keyOf(rectangles);
+        synchronized (this) {
+            RectangleGroup<S> cached = groups.get(key);
+            if (cached != null && sameBounds(cached.getRectangles(), rectangles)) {
+                hits++;
+                return cached;
+            }
+
+            misses++;
+            RectangleGroup<S> group = RectangleGroup.from(rectangles, this::intern);
+            if (rectangles.size() <= maxWeight) {
+                RectangleGroup<S> replaced = groups.put(key, group);
+                if (replaced != null) {
+                    weight -= replaced.getRectangles().size();
+                }
+                weight += rectangles.size();
+                evict();
+            }
+            return group;
+        }
+    }
+
+    private void evict() {
+        Iterator<RectangleGroup<S>> eldest = groups.values().iterator();
+        while (groups.size() > maxGroups || weight > maxWeight) {
+            weight -= eldest.next().getRectangles().size();
+            eldest.remove();
+            evictions++;
+        }
+
+        // Interned axes are small; keep at most two per group
+        Iterator<AxisMap<S>> eldestAxis = axes.values().iterator();
+        while (axes.size() > 2 * maxGroups) {
+            eldestAxis.next();
+            eldestAxis.remove();
+        }
+    }
+
+    /**
+     * Swap each of map's axes for an interned AxisMap with the same
+     * coordinates, interning it if there's none.
+     */
+    private synchronized PlaneMap<S> intern(PlaneMap<S> map) {
+        AxisMap<S> x = intern(map.xAxis()), y = intern(map.yAxis());
+        return x == map.xAxis() && y == map.yAxis()
+                ? map
+                : PlaneMap.fromAxes(x, y);
+    }
+
+    private AxisMap<S> intern(AxisMap<S> axis) {
+        long hash = 1;
+        for (int i = 0; i < axis.size(); i++) {
+            hash = 31 * hash + mix(axis.coordinateAt(i).hashCode());
+        }
+        AxisKey key = new AxisKey(hash, axis.size());
+
+        AxisMap<S> interned = axes.get(key);
+        if (interned != null && sameCoordinates(interned, axis)) {
+            axisHits++;
+            return interned;
+        }
+
+        axisMisses++;
+        axes.put(key, axis);
+        return axis;
+    }
+
+    private static <S extends Comparable<S>> boolean sameCoordinates(
+            AxisMap<S> a, AxisMap<S> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (!a.coordinateAt(i).equals(b.coordinateAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hash the bounds of every rectangle and combine them with sum and xor,
+     * which don't depend on the order of the set.
+     */
+    private static <S extends Comparable<S>> Key keyOf(Set<Rectangle<S>> rectangles) {
+        long sum = 0, xor = 0;
+        for (Rectangle<S> rect : rectangles) {
+            long hash = mix(rect.left().hashCode());
+            hash = mix(hash ^ rect.right().hashCode());
+            hash = mix(hash ^ rect.bottom().hashCode());
+            hash = mix(hash ^ rect.top().hashCode());
+            sum += hash;
+            xor ^= mix(hash);
+        }
+        return new Key(sum, xor, rectangles.size());
+    }
+
+    /**
+     * Spread the bits of value (the SplitMix64 finalizer).
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * Whether two sets hold rectangles with the same bounds the same number
+     * of times.
+     */
+    private static <S extends Comparable<S>> boolean sameBounds(
+            Set<Rectangle<S>> a, Set<Rectangle<S>> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+
+        Map<List<S>, Integer> counts = new HashMap<>();
+        a.forEach(rect -> counts.merge(boundsOf(rect), 1, Integer::sum));
+        for (Rectangle<S> rect : b) {
+            if (counts.merge(boundsOf(rect), -1, Integer::sum) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static <S extends Comparable<S>> List<S> boundsOf(Rectangle<S> rect) {
+        return List.of(rect.left(), rect.right(), rect.bottom(), rect.top());
+    }
+
+    /**
+     * Get the cache's statistics, for monitoring.
+     */
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, axisHits, axisMisses,
+                groups.size(), weight);
+    }
+
+    /**
+     * Remove every group and interned axis and reset the statistics.
+     */
+    public synchronized void clear() {
+        groups.clear();
+        axes.clear();
+        weight     = 0;
+        hits       = 0;
+        misses     = 0;
+        evictions  = 0;
+        axisHits   = 0;
+        axisMisses = 0;
+    }
+}
@@ -0,0 +1,490 @@
+package edu.cwru.bwp18.polygon;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+/**
+ * A RectangleGroup stored in a memory-mapped binary file, with its
+ * computed axis maps, coverage grid and component labels. Opening a file
+ * maps it without parsing; every accessor reads straight from the mapping.
+ * <br>
+ * The file is little-endian: a HEADER_SIZE-byte header, then a payload of
+ * 8-byte aligned sections.
+ * <pre>
+ * header  magic, version, bound type, rectangle count, x size, y size,
+ *         run count, component count, payload length, payload CRC32C
+ * bounds  left[n], right[n], bottom[n], top[n]    (int, long or double)
+ * axes    x[xSize], y[ySize]                      (int, long or double)
+ * index   left[n], right[n], bottom[n], top[n]    (int)
+ * labels  component[n]                            (int)
+ * grid    columnStarts[xSize + 1], runStarts[runs], runLengths[runs],
+ *         runCounts[runs]                         (int, see RunLengthGrid)
+ * </pre>
+ * Files larger than Integer.MAX_VALUE bytes aren't supported.
+ *
+ * @param <T> the type of the stored rectangles' bounds
+ */
+final class GroupFile<T extends Comparable<T>> {
+    static final int MAGIC       = 0x50524752;    // "RGRP"
+    static final int VERSION     = 1;
+    static final int HEADER_SIZE = 64;
+
+    /**
+     * The types bounds may be stored as, by their code in the header.
+     */
+    private static final List<Class<?>> BOUND_TYPES =
+            List.of(Integer.class, Long.class, Double.class);
+
+    private final ByteBuffer buffer;
+    private final Class<T> type;
+    private final int width;
+    private final int size, xSize, ySize, runs, componentCount;
+
+    /**
+     * Offsets of each section from the start of the file.
+     */
+    private final int bounds, xAxis, yAxis, index, labels;
+    private final int columnStarts, runStarts, runLengths, runCounts;
+
+    private GroupFile(ByteBuffer buffer, Class<T> type) {
+        this.buffer         = buffer;
+        this.type           = type;
+        this.width          = type == Integer.class ? Integer.BYTES : Long.BYTES;
+        this.size           = buffer.getInt(12);
+        this.xSize          = buffer.getInt(16);
+        this.ySize          = buffer.getInt(20);
+        this.runs           = buffer.getInt(24);
+        this.componentCount = buffer.getInt(28);
+
+        long[] offsets = offsets(width, size, xSize, ySize, runs);
+        this.bounds       = (int) offsets[0];
+        this.xAxis        = (int) offsets[1];
+        this.yAxis        = xAxis + xSize * width;
+        this.index        = (int) offsets[2];
+        this.labels       = (int) offsets[3];
+        this.columnStarts = (int) offsets[4];
+        this.runStarts    = (int) offsets[5];
+        this.runLengths   = runStarts + runs * Integer.BYTES;
+        this.runCounts    = runLengths + runs * Integer.BYTES;
+    }
+
+    /**
+     * Get the offsets of the bounds, axes, index, labels, column starts and
+     * runs sections, followed by the file's total length.
+     */
+    private static long[] offsets(int width, int size, int xSize, int ySize,
+            int runs) {
+        long[] offsets = new long[7];
+        long position = HEADER_SIZE;
+        long[] sections = {
+                4L * size * width,
+                ((long) xSize + ySize) * width,
+                4L * size * Integer.BYTES,
+                (long) size * Integer.BYTES,
+                ((long) xSize + 1) * Integer.BYTES,
+                3L * runs * Integer.BYTES,
+        };
+
+        for (int i = 0; i < sections.length; i++) {
+            offsets[i] = position;
+            position = align(position + sections[i]);
+        }
+        offsets[sections.length] = position;
+        return offsets;
+    }
+
+    private static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    /**
+     * Store group in a new file at path, replacing any existing file. Builds
+     * the group's compressed grid and rectangle components if they haven't
+     * been already.
+     * @param path the file to write
+     * @param group the group to store
+     * @param <S> the type of the group's bounds: Integer, Long or Double
+     * @throws IOException if the file can't be written
+     * @throws IllegalArgumentException if path or group is null
+     * @throws UnsupportedOperationException if the group's bounds aren't
+     *          Integers, Longs or Doubles
+     */
+    static <S extends Comparable<S>> void write(Path path, RectangleGroup<S> group)
+            throws IOException {
+        RectangleException.verifyNonNull(path, group);
+
+        List<Rectangle<S>> rectangles = List.copyOf(group.getRectangles());
+        PlaneMap<S> map = group.getMap();
+        int typeCode = rectangles.isEmpty()
+                ? 0
+                : BOUND_TYPES.indexOf(rectangles.get(0).left().getClass());
+        if (typeCode < 0) {
+            throw new UnsupportedOperationException(
+                    "Only Integer, Long and Double bounds can be stored");
+        }
+
+        int width = typeCode == 0 ? Integer.BYTES : Long.BYTES;
+        RunLengthGrid grid = group.compressedGrid();
+        Map<Rectangle<S>, Integer> components = group.rectangleComponents();
+        long[] offsets = offsets(width, rectangles.size(), map.xSize(),
+                map.ySize(), grid.runCount());
+        long length = offsets[offsets.length - 1];
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Group too large to store: " + length + " bytes");
+        }
+
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE,
+                    0, length);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            int n = rectangles.size();
+            for (int i = 0; i < n; i++) {
+                Rectangle<S> rect = rectangles.get(i);
+                int position = (int) offsets[0] + i * width;
+                putBound(buffer, position,                 rect.left());
+                putBound(buffer, position + n * width,     rect.right());
+                putBound(buffer, position + 2 * n * width, rect.bottom());
+                putBound(buffer, position + 3 * n * width, rect.top());
+
+                IntRectangle bounds = map.indexBoundsOf(rect);
+                position = (int) offsets[2] + i * Integer.BYTES;
+                buffer.putInt(position,                           bounds.left());
+                buffer.putInt(position + n * Integer.BYTES,       bounds.right());
+                buffer.putInt(position + 2 * n * Integer.BYTES,   bounds.bottom());
+                buffer.putInt(position + 3 * n * Integer.BYTES,   bounds.top());
+
+                buffer.putInt((int) offsets[3] + i * Integer.BYTES,
+                        components.get(rect));
+            }
+
+            int position = (int) offsets[1];
+            for (int i = 0; i < map.xSize(); i++, position += width) {
+                putBound(buffer, position, map.xAxis().coordinateAt(i));
+            }
+            for (int i = 0; i < map.ySize(); i++, position += width) {
+                putBound(buffer, position, map.yAxis().coordinateAt(i));
+            }
+
+            position = (int) offsets[4];
+            for (int x = 0; x <= map.xSize(); x++, position += Integer.BYTES) {
+                buffer.putInt(position, grid.columnStart(x));
+            }
+            int runs = grid.runCount();
+            position = (int) offsets[5];
+            for (int run = 0; run < runs; run++, position += Integer.BYTES) {
+                buffer.putInt(position,                            grid.runStart(run));
+                buffer.putInt(position + runs * Integer.BYTES,     grid.runLength(run));
+                buffer.putInt(position + 2 * runs * Integer.BYTES, grid.runCoverage(run));
+            }
+
+            buffer.putInt(0,  MAGIC);
+            buffer.putInt(4,  VERSION);
+            buffer.putInt(8,  typeCode);
+            buffer.putInt(12, n);
+            buffer.putInt(16, map.xSize());
+            buffer.putInt(20, map.ySize());
+            buffer.putInt(24, runs);
+            buffer.putInt(28, group.componentCount());
+            buffer.putLong(32, length - HEADER_SIZE);
+            buffer.putLong(40, checksum(buffer, (int) length));
+            buffer.force();
+        }
+    }
+
+    private static void putBound(ByteBuffer buffer, int position, Object bound) {
+        if (bound instanceof Integer value) {
+            buffer.putInt(position, value);
+        }
+        else if (bound instanceof Long value) {
+            buffer.putLong(position, value);
+        }
+        else {
+            buffer.putDouble(position, (Double) bound);
+        }
+    }
+
+    private static long checksum(ByteBuffer buffer, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(HEADER_SIZE, length - HEADER_SIZE));
+        return crc.getValue();
+    }
+
+    /**
+     * Map a stored group and verify its header & checksum.
+     * @param path the file to open
+     * @param type the type of the stored bounds
+     * @param <S> the type of the stored bounds
+     * @return the mapped group
+     * @throws IOException if the file can't be read, isn't a group file of
+     *          this version, stores another type of bounds, or fails its
+     *          checksum
+     * @throws IllegalArgumentException if path or type is null
+     */
+    static <S extends Comparable<S>> GroupFile<S> open(Path path, Class<S> type)
+            throws IOException {
+        return open(path, type, true);
+    }
+
+    /**
+     * Map a stored group, optionally skipping the checksum, which is the
+     * only part of opening that reads the whole file.
+     * @param path the file to open
+     * @param type the type of the stored bounds
+     * @param verify whether to verify the payload's checksum
+     * @param <S> the type of the stored bounds
+     * @return the mapped group
+     * @throws IOException if the file can't be read, isn't a group file of
+     *          this version, stores another type of bounds, or fails its
+     *          checksum
+     * @throws IllegalArgumentException if path or type is null
+     */
+    static <S extends Comparable<S>> GroupFile<S> open(Path path, Class<S> type,
+            boolean verify) throws IOException {
+        RectangleException.verifyNonNull(path, type);
+
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_SIZE || length > Integer.MAX_VALUE) {
+                throw new IOException("Not a group file: " + path);
+            }
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a group file: " + path);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported group file version "
+                    + buffer.getInt(4) + ": " + path);
+        }
+        int typeCode = buffer.getInt(8);
+        if (typeCode < 0 || typeCode >= BOUND_TYPES.size()
+                || (BOUND_TYPES.get(typeCode) != type && buffer.getInt(12) > 0)) {
+            throw new IOException("Group file doesn't store "
+                    + type.getSimpleName() + " bounds: " + path);
+        }
+        if (buffer.getLong(32) != buffer.capacity() - HEADER_SIZE
+                || verify && buffer.getLong(40) != checksum(buffer, buffer.capacity())) {
+            throw new IOException("Corrupt group file: " + path);
+        }
+        checkSections(buffer, typeCode, path);
+
+        return new GroupFile<S>(buffer, type);
+    }
+
+    /**
+     * Check that the sections the header's counts describe exactly fill the
+     * mapping, so no accessor can read past it, and that the grid's column
+     * starts end at its run count.
+     * @throws IOException if they don't
+     */
+    private static void checkSections(ByteBuffer buffer, int typeCode, Path path)
+            throws IOException {
+        int width = typeCode == 0 ? Integer.BYTES : Long.BYTES;
+        int size = buffer.getInt(12), xSize = buffer.getInt(16);
+        int ySize = buffer.getInt(20), runs = buffer.getInt(24);
+        if (size < 0 || xSize < 0 || ySize < 0 || runs < 0
+                || buffer.getInt(28) < 0) {
+            throw new IOException("Corrupt group file header: " + path);
+        }
+
+        long[] offsets = offsets(width, size, xSize, ySize, runs);
+        long length = offsets[offsets.length - 1];
+        if (length != buffer.capacity()) {
+            throw new IOException("Group file is " + buffer.capacity()
+                    + " bytes but its header describes " + length + ": " + path);
+        }
+        if (buffer.getInt((int) offsets[4] + xSize * Integer.BYTES) != runs) {
+            throw new IOException("Corrupt group file grid: " + path);
+        }
+    }
+
+    /**
+     * Get the number of stored rectangles.
+     */
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T bound(int position) {
+        if (type == Integer.class) {
+            return (T) (Integer) buffer.getInt(position);
+        }
+        if (type == Long.class) {
+            return (T) (Long) buffer.getLong(position);
+        }
+        return (T) (Double) buffer.getDouble(position);
+    }
+
+    /**
+     * Get the i'th stored rectangle.
+     * @throws IndexOutOfBoundsException if i isn't in [0, size())
+     */
+    Rectangle<T> rectangle(int i) {
+        Objects.checkIndex(i, size);
+
+        int position = bounds + i * width;
+        return Rectangle.of(bound(position), bound(position + size * width),
+                bound(position + 2 * size * width), bound(position + 3 * size * width));
+    }
+
+    /**
+     * Get the i'th stored rectangle's bounds in index space.
+     * @throws IndexOutOfBoundsException if i isn't in [0, size())
+     */
+    IntRectangle indexBounds(int i) {
+        Objects.checkIndex(i, size);
+
+        int position = index + i * Integer.BYTES, column = size * Integer.BYTES;
+        return IntRectangle.of(buffer.getInt(position),
+                buffer.getInt(position + column),
+                buffer.getInt(position + 2 * column),
+                buffer.getInt(position + 3 * column));
+    }
+
+    /**
+     * Get the component id of the i'th stored rectangle.
+     * @throws IndexOutOfBoundsException if i isn't in [0, size())
+     */
+    int componentOf(int i) {
+        Objects.checkIndex(i, size);
+
+        return buffer.getInt(labels + i * Integer.BYTES);
+    }
+
+    int componentCount() {
+        return componentCount;
+    }
+
+    int xSize() {
+        return xSize;
+    }
+
+    int ySize() {
+        return ySize;
+    }
+
+    /**
+     * Get the x coordinate with index i.
+     * @throws IndexOutOfBoundsException if i isn't in [0, xSize())
+     */
+    T xCoordinate(int i) {
+        Objects.checkIndex(i, xSize);
+
+        return bound(xAxis + i * width);
+    }
+
+    /**
+     * Get the y coordinate with index i.
+     * @throws IndexOutOfBoundsException if i isn't in [0, ySize())
+     */
+    T yCoordinate(int i) {
+        Objects.checkIndex(i, ySize);
+
+        return bound(yAxis + i * width);
+    }
+
+    private int columnStart(int x) {
+        return buffer.getInt(columnStarts + x * Integer.BYTES);
+    }
+
+    /**
+     * Get the number of rectangles covering cell (x, y) by binary searching
+     * column x's runs.
+     * @throws IndexOutOfBoundsException if (x, y) isn't a cell of the grid
+     */
+    int count(int x, int y) {
+        Objects.checkIndex(x, xSize);
+        Objects.checkIndex(y, ySize);
+
+        int low = columnStart(x), high = columnStart(x + 1) - 1;
+        while (low <= high) {
+            int run = (low + high) >>> 1;
+            int start = buffer.getInt(runStarts + run * Integer.BYTES);
+            if (y < start) {
+                high = run - 1;
+            }
+            else if (y >= start + buffer.getInt(runLengths + run * Integer.BYTES)) {
+                low = run + 1;
+            }
+            else {
+                return buffer.getInt(runCounts + run * Integer.BYTES);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Visit the covered cells of column x from bottom to top.
+     * @throws IndexOutOfBoundsException if x isn't in [0, xSize())
+     */
+    void forEachInColumn(int x, CellGrid.CellVisitor visitor) {
+        Objects.checkIndex(x, xSize);
+
+        for (int run = columnStart(x); run < columnStart(x + 1); run++) {
+            int start  = buffer.getInt(runStarts  + run * Integer.BYTES);
+            int length = buffer.getInt(runLengths + run * Integer.BYTES);
+            int count  = buffer.getInt(runCounts  + run * Integer.BYTES);
+            for (int y = start; y < start + length; y++) {
+                visitor.visit(x, y, count);
+            }
+        }
+    }
+
+    /**
+     * Rebuild the stored group. The stored axes, which are already sorted,
+     * and index bounds are reused rather than re-sorted, and the rectangles
+     * are only read back when the group first needs them.
+     * @return a RectangleGroup equal to the stored one
+     */
+    RectangleGroup<T> toGroup() {
+        List<IntRectangle> indexBounds = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            indexBounds.add(indexBounds(i));
+        }
+
+        return RectangleGroup.fromIndexed(() -> {
+            Set<Rectangle<T>> rectangles = new HashSet<>();
+            for (int i = 0; i < size; i++) {
+                rectangles.add(rectangle(i));
+            }
+            return Collections.unmodifiableSet(rectangles);
+        }, PlaneMap.fromAxes(axis(xAxis, xSize), axis(yAxis, ySize)), indexBounds);
+    }
+
+    /**
+     * Build the AxisMap of the stored, sorted axis of length coordinates at
+     * position, without boxing int coordinates.
+     */
+    @SuppressWarnings("unchecked")
+    private AxisMap<T> axis(int position, int length) {
+        if (type == Integer.class) {
+            int[] coordinates = new int[length];
+            buffer.slice(position, length * Integer.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN)
+                    .asIntBuffer()
+                    .get(coordinates);
+            return (AxisMap<T>) AxisMap.fromSortedInts(coordinates);
+        }
+
+        List<T> coordinates = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            coordinates.add(bound(position + i * width));
+        }
+        return AxisMap.fromSorted(coordinates);
+    }
+}
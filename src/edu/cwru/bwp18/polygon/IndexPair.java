@@ -3,6 +3,29 @@ package edu.cwru.bwp18.polygon;
 import java.util.Objects;
 
 public record IndexPair(int xIndex, int yIndex) implements Comparable<IndexPair> {
+    /**
+     * Pack a cell's indices into one long, x in the high half and y in the
+     * low half. For nonnegative indices, keys sort in IndexPair order.
+     */
+    static long key(int xIndex, int yIndex) {
+        return (long) xIndex << 32 | (yIndex & 0xFFFFFFFFL);
+    }
+
+    static int xIndexOf(long key) {
+        return (int) (key >> 32);
+    }
+
+    static int yIndexOf(long key) {
+        return (int) key;
+    }
+
+    static IndexPair fromKey(long key) {
+        return new IndexPair(xIndexOf(key), yIndexOf(key));
+    }
+
+    long key() {
+        return key(xIndex, yIndex);
+    }
 
     public IndexPair increment(Direction direction) {
         Objects.requireNonNull(direction);
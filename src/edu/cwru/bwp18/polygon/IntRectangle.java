@@ -0,0 +1,96 @@
+package edu.cwru.bwp18.polygon;
+
+/**
+ * A rectangle with four primitive int borders. Behaves like a
+ * Rectangle&lt;Integer&gt; without the EnumMap or the boxed bounds, so large
+ * sets of integer rectangles can be loaded cheaply.
+ *
+ * @param left   left bound (must be less than right)
+ * @param right  right bound
+ * @param bottom lower bound (must be less than top)
+ * @param top    upper bound
+ */
+public record IntRectangle(int left, int right, int bottom, int top) {
+
+    /**
+     * Create an IntRectangle with the provided bounds.
+     * @throws IllegalArgumentException containing a RectangleException as its
+     *          cause if the bottom/left bounds are greater than or equal to
+     *          the top/right bounds (respectively)
+     */
+    public IntRectangle {
+        RectangleException.verifyBounds(bottom, top);
+        RectangleException.verifyBounds(left, right);
+    }
+
+    /**
+     * Factory method to create int rectangles with the provided bounds.
+     * Mirrors Rectangle::of.
+     *
+     * @param left   left bound (must be less than right)
+     * @param right  right bound
+     * @param bottom lower bound (must be less than top)
+     * @param top    upper bound
+     * @return an IntRectangle with the provided bounds
+     * @throws IllegalArgumentException containing a RectangleException as its
+     *          cause if the bottom/left bounds are greater than or equal to
+     *          the top/right bounds (respectively)
+     */
+    public static IntRectangle of(int left, int right, int bottom, int top) {
+        return new IntRectangle(left, right, bottom, top);
+    }
+
+    /**
+     * Create an IntRectangle with the same bounds as the provided rectangle.
+     * @param rectangle the rectangle to copy
+     * @return an IntRectangle with the same bounds as rectangle
+     * @throws IllegalArgumentException containing a RectangleException as its
+     *          cause if the rectangle is null
+     */
+    public static IntRectangle from(Rectangle<Integer> rectangle) {
+        RectangleException.verifyNonNull(rectangle);
+
+        return new IntRectangle(rectangle.left(), rectangle.right(),
+                rectangle.bottom(), rectangle.top());
+    }
+
+    /**
+     * Create a generic Rectangle with the same bounds as this rectangle.
+     * @return a Rectangle&lt;Integer&gt; with this rectangle's bounds
+     */
+    public Rectangle<Integer> toRectangle() {
+        return Rectangle.of(left, right, bottom, top);
+    }
+
+    /**
+     * Whether every bound of the provided rectangle is an Integer, meaning it
+     * can be handled as an IntRectangle.
+     * @param rectangle the nonnull rectangle to check
+     * @return true iff all four of rectangle's bounds are Integers
+     */
+    static boolean isIntegral(Rectangle<?> rectangle) {
+        assert rectangle != null;
+
+        return rectangle.left()   instanceof Integer
+            && rectangle.right()  instanceof Integer
+            && rectangle.bottom() instanceof Integer
+            && rectangle.top()    instanceof Integer;
+    }
+
+    /**
+     * Whether this rectangle and that share an edge or some area, like
+     * Rectangle::touches. Rectangles meeting only at a corner don't touch.
+     */
+    boolean touches(IntRectangle that) {
+        assert that != null;
+
+        if (left > that.right || that.left > right
+                || bottom > that.top || that.bottom > top) {
+            return false;
+        }
+
+        boolean xPoint = left == that.right || that.left == right;
+        boolean yPoint = bottom == that.top || that.bottom == top;
+        return !(xPoint && yPoint);
+    }
+}
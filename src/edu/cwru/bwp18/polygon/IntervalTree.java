@@ -0,0 +1,209 @@
+package edu.cwru.bwp18.polygon;
+
+import java.util.function.IntConsumer;
+
+/**
+ * A dynamic set of intervals with generic Comparable bounds, each tagged
+ * with an int id. Implemented as a treap ordered by (lo, id) where every
+ * node also tracks the greatest hi in its subtree, so that subtrees ending
+ * before a query are skipped. Reporting the k intervals that intersect a
+ * query takes O(min(n, k log n)) expected time, not O(log n + k): each
+ * reported interval is reached along an O(log n) expected path, and no
+ * node is visited twice.
+ *
+ * @param <S> the type of the interval bounds
+ */
+final class IntervalTree<S extends Comparable<S>> {
+    private static final class Node<S> {
+        final S lo, hi;
+        final int id;
+        final int priority;
+        S maxHi;
+        Node<S> left, right;
+
+        Node(S lo, S hi, int id, int priority) {
+            this.lo       = lo;
+            this.hi       = hi;
+            this.id       = id;
+            this.priority = priority;
+            this.maxHi    = hi;
+        }
+    }
+
+    private Node<S> root;
+    private int size;
+
+    /**
+     * State of the xorshift generator for treap priorities. Fixed seed so
+     * that tree shapes are reproducible.
+     */
+    private int seed = 0x2545F491;
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Add the interval [lo, hi] with the given id. The pair (lo, id) must not
+     * already be in the tree.
+     */
+    void insert(S lo, S hi, int id) {
+        assert lo != null && hi != null;
+        assert lo.compareTo(hi) <= 0;
+
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+
+        root = insert(root, new Node<S>(lo, hi, id, seed));
+        size++;
+    }
+
+    /**
+     * Remove the interval with the given lo and id, if it's present.
+     * @return true iff an interval was removed
+     */
+    boolean remove(S lo, int id) {
+        assert lo != null;
+
+        int before = size;
+        root = remove(root, lo, id);
+        return size < before;
+    }
+
+    /**
+     * Report the id of every interval that intersects [lo, hi], in
+     * O(min(n, k log n)) expected time for k intervals.
+     * @param lo the query's lower bound
+     * @param hi the query's upper bound
+     * @param closed if true, intervals sharing only an endpoint with the query
+     *               intersect it; if false they must share some length
+     * @param action called once with each intersecting interval's id
+     */
+    void forEachIntersecting(S lo, S hi, boolean closed, IntConsumer action) {
+        assert lo != null && hi != null && action != null;
+
+        forEachIntersecting(root, lo, hi, closed ? 0 : 1, action);
+    }
+
+    private void forEachIntersecting(Node<S> node, S lo, S hi, int strict,
+            IntConsumer action) {
+        // Every interval in this subtree ends before the query starts
+        if (node == null || node.maxHi.compareTo(lo) < strict) {
+            return;
+        }
+
+        forEachIntersecting(node.left, lo, hi, strict, action);
+
+        // This interval and everything to its right start after the query
+        if (hi.compareTo(node.lo) < strict) {
+            return;
+        }
+
+        if (node.hi.compareTo(lo) >= strict) {
+            action.accept(node.id);
+        }
+
+        forEachIntersecting(node.right, lo, hi, strict, action);
+    }
+
+    private static <S extends Comparable<S>> int compare(S lo, int id, Node<S> node) {
+        int diff = lo.compareTo(node.lo);
+        return diff != 0 ? diff : Integer.compare(id, node.id);
+    }
+
+    private Node<S> insert(Node<S> node, Node<S> added) {
+        if (node == null) {
+            return added;
+        }
+
+        if (compare(added.lo, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        }
+        else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+
+        update(node);
+        return node;
+    }
+
+    private Node<S> remove(Node<S> node, S lo, int id) {
+        if (node == null) {
+            return null;
+        }
+
+        int diff = compare(lo, id, node);
+        if (diff < 0) {
+            node.left = remove(node.left, lo, id);
+        }
+        else if (diff > 0) {
+            node.right = remove(node.right, lo, id);
+        }
+        else {
+            size--;
+            return merge(node.left, node.right);
+        }
+
+        update(node);
+        return node;
+    }
+
+    /**
+     * Merge two treaps where every key in left precedes every key in right.
+     */
+    private Node<S> merge(Node<S> left, Node<S> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        else {
+            right.left = merge(left, right.left);
+            update(right);
+            return right;
+        }
+    }
+
+    private Node<S> rotateRight(Node<S> node) {
+        Node<S> pivot = node.left;
+        node.left   = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node<S> rotateLeft(Node<S> node) {
+        Node<S> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private void update(Node<S> node) {
+        S maxHi = node.hi;
+        if (node.left != null && node.left.maxHi.compareTo(maxHi) > 0) {
+            maxHi = node.left.maxHi;
+        }
+        if (node.right != null && node.right.maxHi.compareTo(maxHi) > 0) {
+            maxHi = node.right.maxHi;
+        }
+        node.maxHi = maxHi;
+    }
+}
@@ -0,0 +1,65 @@
+package edu.cwru.bwp18.polygon;
+
+import java.util.function.Supplier;
+
+/**
+ * A thread-safe, memoized value that is computed on first access.
+ * @param <V> the type of the value
+ */
+final class Lazy<V> {
+    /**
+     * Computes the value. Set to null once the value is computed so that
+     * anything it captured can be collected.
+     */
+    private Supplier<V> supplier;
+
+    /**
+     * The computed value, or null if it hasn't been computed yet.
+     */
+    private volatile V value;
+
+    private Lazy(Supplier<V> supplier) {
+        assert supplier != null;
+
+        this.supplier = supplier;
+    }
+
+    /**
+     * Create a Lazy value that will be computed by supplier on first access.
+     * @param supplier computes the value; must not return null
+     * @return a new Lazy value
+     * @param <V> the type of the value
+     */
+    static <V> Lazy<V> of(Supplier<V> supplier) {
+        return new Lazy<V>(supplier);
+    }
+
+    /**
+     * Get the value, computing it if this is the first access.
+     * @return the memoized value
+     */
+    V get() {
+        V result = value;
+        if (result == null) {
+            synchronized (this) {
+                result = value;
+                if (result == null) {
+                    result = supplier.get();
+                    assert result != null;
+
+                    value    = result;
+                    supplier = null;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Whether the value has already been computed.
+     * @return true iff get() would return without computing
+     */
+    boolean isEvaluated() {
+        return value != null;
+    }
+}
@@ -0,0 +1,169 @@
+package edu.cwru.bwp18.polygon;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from longs to longs with linear probing. Keys and
+ * values are stored in parallel primitive arrays, so lookups and updates
+ * never box or allocate.
+ * <br>
+ * NO_KEY marks empty slots and can't be used as a key; keys made by
+ * IndexPair.key from nonnegative indices never equal it.
+ */
+final class LongLongHashMap {
+    /**
+     * Action on a key & its value.
+     */
+    @FunctionalInterface
+    interface EntryConsumer {
+        void accept(long key, long value);
+    }
+
+    static final long NO_KEY = Long.MIN_VALUE;
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    /**
+     * The most entries a map can hold, keeping its table at most half full.
+     */
+    static final int MAX_SIZE = MAX_CAPACITY / 2;
+
+    private long[] keys, values;
+    private int size;
+
+    LongLongHashMap() {
+        this(8);
+    }
+
+    /**
+     * Create a map that holds expectedSize entries without resizing.
+     * @param expectedSize the expected number of entries (>= 0)
+     */
+    LongLongHashMap(int expectedSize) {
+        assert expectedSize >= 0;
+
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Get the least power of two at least twice size, so the table is at
+     * most half full.
+     */
+    private static int capacityFor(int size) {
+        if (size > MAX_SIZE) {
+            throw new IllegalStateException("Too many entries: " + size);
+        }
+        return Math.max(4, Integer.highestOneBit(Math.max(1, 2 * size - 1)) << 1);
+    }
+
+    private void allocate(int capacity) {
+        keys   = new long[capacity];
+        values = new long[capacity];
+        Arrays.fill(keys, NO_KEY);
+    }
+
+    /**
+     * Get the slot key is in, or the empty slot it would be put in.
+     */
+    private int slotOf(long key) {
+        assert key != NO_KEY;
+
+        // Fibonacci hashing spreads consecutive keys over the table
+        int mask = keys.length - 1;
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        while (keys[slot] != NO_KEY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean containsKey(long key) {
+        return keys[slotOf(key)] == key;
+    }
+
+    /**
+     * Get key's value, or missing if key isn't in the map.
+     */
+    long get(long key, long missing) {
+        int slot = slotOf(key);
+        return keys[slot] == key ? values[slot] : missing;
+    }
+
+    /**
+     * Map key to value, replacing any previous value.
+     */
+    void put(long key, long value) {
+        int slot = slotOf(key);
+        if (keys[slot] != key) {
+            slot = insert(slot, key);
+        }
+        values[slot] = value;
+    }
+
+    /**
+     * Add delta to key's value, taking absent keys' values as 0.
+     * @return key's new value
+     */
+    long addTo(long key, long delta) {
+        int slot = slotOf(key);
+        if (keys[slot] != key) {
+            slot = insert(slot, key);
+        }
+        return values[slot] += delta;
+    }
+
+    /**
+     * Claim the empty slot for key, growing the table first if it would be
+     * more than half full.
+     * @return the slot key is now in
+     */
+    private int insert(int slot, long key) {
+        if (2 * (size + 1) > keys.length) {
+            long[] oldKeys = keys, oldValues = values;
+            allocate(capacityFor(size + 1));
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != NO_KEY) {
+                    int moved = slotOf(oldKeys[i]);
+                    keys[moved]   = oldKeys[i];
+                    values[moved] = oldValues[i];
+                }
+            }
+            slot = slotOf(key);
+        }
+
+        keys[slot] = key;
+        size++;
+        return slot;
+    }
+
+    /**
+     * Call action on every entry, in no particular order.
+     */
+    void forEach(EntryConsumer action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != NO_KEY) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Get every key in ascending order.
+     * @return a new sorted array of the keys
+     */
+    long[] sortedKeys() {
+        long[] sorted = new long[size];
+        int i = 0;
+        for (long key : keys) {
+            if (key != NO_KEY) {
+                sorted[i++] = key;
+            }
+        }
+        Arrays.sort(sorted);
+        return sorted;
+    }
+}
@@ -0,0 +1,414 @@
+package edu.cwru.bwp18.polygon;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * A group of rectangles that can be edited in place. Unlike RectangleGroup,
+ * adding or removing a rectangle updates the axis borders, overlap status
+ * and connectivity from the rectangles near the change instead of
+ * rebuilding everything.
+ * <br>
+ * Rectangles near a change are found with an IntervalTree over the x
+ * bounds, so an edit costs O((1 + m) log n) expected time for the m
+ * rectangles sharing some x range with the edited one. Two costs remain on top of that:
+ * <ul>
+ * <li>Removing a rectangle with k > 1 touching neighbours searches from
+ * all of them in step until only one search is left running, so a split
+ * costs O(k) times the size of the pieces that break off, and a removal
+ * that splits nothing costs up to O(k) times the smallest detour between
+ * neighbours. Adding a rectangle relabels all but the largest of the
+ * components it joins.</li>
+ * <li>getMap() rebuilds the PlaneMap, in O(borders) without sorting, when
+ * some border value gained its first or lost its last rectangle since the
+ * last call.</li>
+ * </ul>
+ *
+ * @param <T> the comparable type of the rectangles' bounds
+ */
+final class MutableRectangleGroup<T extends Comparable<T>> {
+    /**
+     * A rectangle in the group with its slot's touching neighbours and
+     * component label.
+     */
+    private static final class Entry<T extends Comparable<T>> {
+        final Rectangle<T> rectangle;
+        final Set<Integer> neighbours = new HashSet<>();
+        int component = -1;
+
+        Entry(Rectangle<T> rectangle) {
+            this.rectangle = rectangle;
+        }
+    }
+
+    /**
+     * Entries by slot; removed rectangles leave null slots that are reused.
+     */
+    private final List<Entry<T>> entries = new ArrayList<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final Map<Rectangle<T>, Integer> slots = new HashMap<>();
+
+    /**
+     * The x bounds of every rectangle, tagged with its slot.
+     */
+    private final IntervalTree<T> xIndex = new IntervalTree<>();
+
+    /**
+     * Number of rectangles with each border, per axis.
+     */
+    private final NavigableMap<T, Integer> xBorders = new TreeMap<>();
+    private final NavigableMap<T, Integer> yBorders = new TreeMap<>();
+
+    /**
+     * PlaneMap of the current borders, or null if the borders changed since
+     * it was last built.
+     */
+    private PlaneMap<T> map;
+
+    /**
+     * Number of rectangles with each component label.
+     */
+    private final Map<Integer, Integer> componentSizes = new HashMap<>();
+
+    private long overlappingPairs;
+    private int nextComponent;
+
+    private MutableRectangleGroup() {
+    }
+
+    /**
+     * Create a MutableRectangleGroup containing the provided rectangles.
+     *
+     * @param rectangles the rectangles to start with (may be empty)
+     * @param <S>        the type of the rectangles' dimensions
+     * @return a new MutableRectangleGroup
+     * @throws IllegalArgumentException if rectangles is null or contains null
+     *                                  elements
+     */
+    public static <S extends Comparable<S>> MutableRectangleGroup<S>
+    from(Collection<Rectangle<S>> rectangles) {
+        RectangleException.verifyNonNull(rectangles);
+        RectangleException.verifyNonNull(rectangles.toArray());
+
+        MutableRectangleGroup<S> group = new MutableRectangleGroup<>();
+        rectangles.forEach(group::add);
+        return group;
+    }
+
+    /**
+     * Add a rectangle to the group.
+     * @param rectangle the rectangle to add
+     * @return true iff the rectangle wasn't already in the group
+     * @throws IllegalArgumentException if rectangle is null
+     */
+    public boolean add(Rectangle<T> rectangle) {
+        RectangleException.verifyNonNull(rectangle);
+
+        if (slots.containsKey(rectangle)) {
+            return false;
+        }
+
+        int slot = freeSlots.isEmpty() ? entries.size() : freeSlots.pop();
+        Entry<T> entry = new Entry<>(rectangle);
+        if (slot == entries.size()) {
+            entries.add(entry);
+        }
+        else {
+            entries.set(slot, entry);
+        }
+        slots.put(rectangle, slot);
+
+        forEachNearby(rectangle, other -> {
+            Rectangle<T> near = entries.get(other).rectangle;
+            if (rectangle.touches(near)) {
+                entry.neighbours.add(other);
+                entries.get(other).neighbours.add(slot);
+            }
+            if (rectangle.overlaps(near)) {
+                overlappingPairs++;
+            }
+        });
+        xIndex.insert(rectangle.left(), rectangle.right(), slot);
+
+        addBorder(xBorders, rectangle.left());
+        addBorder(xBorders, rectangle.right());
+        addBorder(yBorders, rectangle.bottom());
+        addBorder(yBorders, rectangle.top());
+
+        joinComponents(slot);
+        return true;
+    }
+
+    /**
+     * Remove a rectangle from the group.
+     * @param rectangle the rectangle to remove
+     * @return true iff the rectangle was in the group
+     * @throws IllegalArgumentException if rectangle is null
+     */
+    public boolean remove(Rectangle<T> rectangle) {
+        RectangleException.verifyNonNull(rectangle);
+
+        Integer slot = slots.remove(rectangle);
+        if (slot == null) {
+            return false;
+        }
+
+        Entry<T> entry = entries.get(slot);
+        xIndex.remove(rectangle.left(), slot);
+        forEachNearby(rectangle, other -> {
+            if (rectangle.overlaps(entries.get(other).rectangle)) {
+                overlappingPairs--;
+            }
+        });
+        entry.neighbours.forEach(other ->
+                entries.get(other).neighbours.remove(slot));
+
+        removeBorder(xBorders, rectangle.left());
+        removeBorder(xBorders, rectangle.right());
+        removeBorder(yBorders, rectangle.bottom());
+        removeBorder(yBorders, rectangle.top());
+
+        entries.set(slot, null);
+        freeSlots.push(slot);
+
+        splitComponents(entry);
+        return true;
+    }
+
+    /**
+     * Call action with the slot of every rectangle whose x range shares at
+     * least a point with rectangle's.
+     */
+    private void forEachNearby(Rectangle<T> rectangle,
+            IntConsumer action) {
+        xIndex.forEachIntersecting(rectangle.left(), rectangle.right(), true,
+                other -> {
+                    if (entries.get(other).rectangle
+                            .bottom().compareTo(rectangle.top()) <= 0
+                            && rectangle.bottom().compareTo(
+                            entries.get(other).rectangle.top()) <= 0) {
+                        action.accept(other);
+                    }
+                });
+    }
+
+    /**
+     * Merge the new rectangle in slot with its neighbours' components,
+     * relabeling the smaller components into the largest one.
+     */
+    private void joinComponents(int slot) {
+        Entry<T> entry = entries.get(slot);
+
+        // One neighbour to start relabeling from in each distinct component
+        Map<Integer, Integer> starts = new HashMap<>();
+        entry.neighbours.forEach(other ->
+                starts.putIfAbsent(entries.get(other).component, other));
+
+        if (starts.isEmpty()) {
+            entry.component = nextComponent++;
+            componentSizes.put(entry.component, 1);
+            return;
+        }
+
+        int largest = Collections.max(starts.keySet(),
+                Comparator.comparing(componentSizes::get));
+        int size = 1;
+        for (Map.Entry<Integer, Integer> start : starts.entrySet()) {
+            size += componentSizes.remove(start.getKey());
+            if (start.getKey() != largest) {
+                relabel(start.getValue(), largest);
+            }
+        }
+
+        entry.component = largest;
+        componentSizes.put(largest, size);
+    }
+
+    /**
+     * After removing entry, find whether its former neighbours are still
+     * connected. One breadth-first search runs from each neighbour, a step
+     * at a time in turn; searches that meet merge, and a search that runs
+     * out of rectangles has found a whole piece. Once one search is left
+     * running, the rest of the component is its piece, which keeps the old
+     * label without being visited. Only the finished pieces are relabeled.
+     */
+    private void splitComponents(Entry<T> entry) {
+        int oldSize = componentSizes.remove(entry.component) - 1;
+        List<Integer> starts = List.copyOf(entry.neighbours);
+        if (starts.size() <= 1) {
+            if (oldSize > 0) {
+                componentSizes.put(entry.component, oldSize);
+            }
+            return;
+        }
+
+        // Search i's root in searches, its queue and the slots it reached
+        int[] searches = new int[starts.size()];
+        List<Deque<Integer>> queues = new ArrayList<>();
+        List<List<Integer>> reached = new ArrayList<>();
+        Map<Integer, Integer> owners = new HashMap<>();
+        for (int i = 0; i < starts.size(); i++) {
+            searches[i] = i;
+            queues.add(new ArrayDeque<>(List.of(starts.get(i))));
+            reached.add(new ArrayList<>(List.of(starts.get(i))));
+            owners.put(starts.get(i), i);
+        }
+
+        int running = starts.size();
+        List<Integer> finished = new ArrayList<>();
+        for (int turn = 0; running > 1; turn = (turn + 1) % starts.size()) {
+            if (searches[turn] != turn || queues.get(turn).isEmpty()) {
+                continue;
+            }
+
+            for (int next : entries.get(queues.get(turn).poll()).neighbours) {
+                Integer owner = owners.putIfAbsent(next, turn);
+                if (owner == null) {
+                    queues.get(turn).add(next);
+                    reached.get(turn).add(next);
+                }
+                else if (root(searches, owner) != turn) {
+                    // Merge the other search into this one
+                    int other = root(searches, owner);
+                    searches[other] = turn;
+                    queues.get(turn).addAll(queues.get(other));
+                    reached.get(turn).addAll(reached.get(other));
+                    queues.set(other, null);
+                    reached.set(other, null);
+                    running--;
+                }
+            }
+            if (queues.get(turn).isEmpty()) {
+                finished.add(turn);
+                running--;
+            }
+        }
+
+        // If every search finished, the last piece found keeps the label
+        if (running == 0) {
+            finished.remove(finished.size() - 1);
+        }
+        for (int piece : finished) {
+            int component = nextComponent++;
+            reached.get(piece).forEach(slot -> entries.get(slot).component = component);
+            componentSizes.put(component, reached.get(piece).size());
+            oldSize -= reached.get(piece).size();
+        }
+        if (oldSize > 0) {
+            componentSizes.put(entry.component, oldSize);
+        }
+    }
+
+    private static int root(int[] searches, int search) {
+        while (searches[search] != search) {
+            search = searches[search] = searches[searches[search]];
+        }
+        return search;
+    }
+
+    /**
+     * Breadth-first search from start over touching neighbours with start's
+     * current label, relabeling every rectangle reached with component.
+     */
+    private void relabel(int start, int component) {
+        int from = entries.get(start).component;
+        Set<Integer> reached = new HashSet<>();
+        Deque<Integer> queue = new ArrayDeque<>();
+        reached.add(start);
+        queue.add(start);
+
+        while (!queue.isEmpty()) {
+            Entry<T> entry = entries.get(queue.poll());
+            entry.component = component;
+            for (int next : entry.neighbours) {
+                if (entries.get(next).component == from && reached.add(next)) {
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    private void addBorder(Map<T, Integer> borders, T border) {
+        if (borders.merge(border, 1, Integer::sum) == 1) {
+            map = null;
+        }
+    }
+
+    private void removeBorder(Map<T, Integer> borders, T border) {
+        if (borders.merge(border, -1, Integer::sum) == 0) {
+            borders.remove(border);
+            map = null;
+        }
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    public Set<Rectangle<T>> getRectangles() {
+        return Collections.unmodifiableSet(slots.keySet());
+    }
+
+    /**
+     * Get the PlaneMap of the group's current borders. Rebuilt from the
+     * already sorted borders only when a border value has gained its first
+     * or lost its last rectangle since the last call.
+     * @return a PlaneMap of every rectangle's borders
+     */
+    public PlaneMap<T> getMap() {
+        if (map == null) {
+            map = PlaneMap.fromAxes(AxisMap.fromSorted(xBorders.keySet()),
+                    AxisMap.fromSorted(yBorders.keySet()));
+        }
+        return map;
+    }
+
+    public boolean isOverlapping() {
+        return overlappingPairs > 0;
+    }
+
+    /**
+     * Get the number of connected regions formed by the group's rectangles.
+     * Rectangles touching only at a corner are in separate regions.
+     * @return the number of connected components (0 for an empty group)
+     */
+    public int componentCount() {
+        return componentSizes.size();
+    }
+
+    boolean isConnected() {
+        return componentCount() <= 1;
+    }
+
+    /**
+     * Count the rectangles covering the point (x, y). Each rectangle covers
+     * its left & bottom borders but not its right & top ones, like the cells
+     * of a matrix grid.
+     * @param x the point's x coordinate
+     * @param y the point's y coordinate
+     * @return the number of rectangles covering (x, y)
+     * @throws IllegalArgumentException if x or y is null
+     */
+    public int coverageAt(T x, T y) {
+        RectangleException.verifyNonNull(x, y);
+
+        int[] count = {0};
+        xIndex.forEachIntersecting(x, x, true, other -> {
+            Rectangle<T> rect = entries.get(other).rectangle;
+            if (x.compareTo(rect.right()) < 0
+                    && rect.bottom().compareTo(y) <= 0
+                    && y.compareTo(rect.top()) < 0) {
+                count[0]++;
+            }
+        });
+        return count[0];
+    }
+
+    /**
+     * Take an immutable snapshot of this group.
+     * @return a RectangleGroup of the group's current rectangles
+     */
+    public RectangleGroup<T> toGroup() {
+        return RectangleGroup.from(Set.copyOf(slots.keySet()));
+    }
+}
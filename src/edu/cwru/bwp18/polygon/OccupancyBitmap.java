@@ -0,0 +1,335 @@
+package edu.cwru.bwp18.polygon;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bit-packed record of which cells of a PlaneMap's index space are covered.
+ * Each column is stored as ceil(ySize / 64) words with cell (x, y) at bit
+ * y % 64 of word y / 64, so connectivity is computed 64 cells at a time
+ * with shifts, masks and carries instead of cell-by-cell probes.
+ */
+final class OccupancyBitmap {
+    /**
+     * One 4-connected region of covered cells, stored as a bitmap of just
+     * its bounding columns and the 64-cell words of them it reaches. Cell
+     * (x, y) of cells is cell (left + x, bottom + y) of the whole bitmap.
+     *
+     * @param left   the region's leftmost column
+     * @param bottom the first y index of cells' words, a multiple of 64
+     * @param cells  the region's cells
+     */
+    record Region(int left, int bottom, OccupancyBitmap cells) {
+        /**
+         * Whether cell (x, y) of the whole bitmap is in the region.
+         */
+        boolean contains(int x, int y) {
+            return left <= x && x < left + cells.xSize
+                    && bottom <= y && y < bottom + cells.ySize
+                    && cells.isOccupied(x - left, y - bottom);
+        }
+    }
+
+    private final int xSize, ySize;
+
+    /**
+     * Number of words per column.
+     */
+    private final int columnWords;
+
+    /**
+     * Column x is words[x * columnWords] to words[(x + 1) * columnWords];
+     * bits at or past ySize are always clear.
+     */
+    private final long[] words;
+
+    private OccupancyBitmap(int xSize, int ySize, long[] words) {
+        assert xSize >= 0 && ySize >= 0;
+
+        this.xSize       = xSize;
+        this.ySize       = ySize;
+        this.columnWords = (ySize + 63) >>> 6;
+        this.words       = words;
+
+        assert words.length == (long) xSize * columnWords;
+    }
+
+    private static OccupancyBitmap empty(int xSize, int ySize) {
+        return new OccupancyBitmap(xSize, ySize,
+                new long[Math.multiplyExact(xSize, (ySize + 63) >>> 6)]);
+    }
+
+    /**
+     * Mark the cells covered by the provided rectangles, filling whole words
+     * of each column at a time.
+     * @param xSize the number of x indices
+     * @param ySize the number of y indices
+     * @param indexBounds the rectangles' bounds in index space; every bound
+     *                    must be in [0, xSize) or [0, ySize)
+     * @return the occupancy bitmap of the rectangles
+     * @throws ArithmeticException if the bitmap needs more than
+     *          Integer.MAX_VALUE words
+     */
+    static OccupancyBitmap of(int xSize, int ySize,
+            Collection<IntRectangle> indexBounds) {
+        assert indexBounds != null;
+
+        OccupancyBitmap bitmap = empty(xSize, ySize);
+        for (IntRectangle bounds : indexBounds) {
+            assert bounds.right() < xSize && bounds.top() < ySize;
+
+            for (int x = bounds.left(); x < bounds.right(); x++) {
+                bitmap.setRange(x, bounds.bottom(), bounds.top());
+            }
+        }
+        return bitmap;
+    }
+
+    /**
+     * Mark the covered cells of grid.
+     * @param grid the grid to take the covered cells of
+     * @return the occupancy bitmap of grid
+     */
+    static OccupancyBitmap of(CellGrid grid) {
+        assert grid != null;
+
+        OccupancyBitmap bitmap = empty(grid.xSize(), grid.ySize());
+        grid.forEachCovered((x, y, count) -> bitmap.words[
+                bitmap.word(x, y)] |= 1L << y);
+        return bitmap;
+    }
+
+    /**
+     * Set the bits of cells [from, to) in column x.
+     */
+    private void setRange(int x, int from, int to) {
+        int first = word(x, from), last = word(x, to - 1);
+        long firstMask = -1L << from, lastMask = -1L >>> -to;
+
+        if (first == last) {
+            words[first] |= firstMask & lastMask;
+            return;
+        }
+
+        words[first] |= firstMask;
+        Arrays.fill(words, first + 1, last, -1L);
+        words[last] |= lastMask;
+    }
+
+    /**
+     * Get the position of the word holding cell (x, y).
+     */
+    private int word(int x, int y) {
+        return x * columnWords + (y >>> 6);
+    }
+
+    int xSize() {
+        return xSize;
+    }
+
+    int ySize() {
+        return ySize;
+    }
+
+    /**
+     * Whether cell (x, y) is covered by at least one rectangle.
+     */
+    boolean isOccupied(int x, int y) {
+        assert 0 <= x && x < xSize && 0 <= y && y < ySize;
+
+        return (words[word(x, y)] >>> y & 1) != 0;
+    }
+
+    /**
+     * Get the number of covered cells.
+     */
+    long occupiedCount() {
+        long count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Count the 4-connected regions of covered cells.
+     */
+    int componentCount() {
+        return extractRegions(null);
+    }
+
+    /**
+     * Split the covered cells into their 4-connected regions. Each region is
+     * stored clipped to its bounding columns and words, so the regions
+     * together take memory proportional to their bounding boxes rather than
+     * to the whole plane each.
+     * @return each region, ordered by their lowest cell
+     */
+    List<Region> regions() {
+        List<Region> regions = new ArrayList<>();
+        extractRegions(regions);
+        return regions;
+    }
+
+    /**
+     * Flood fill each region from its lowest remaining cell, removing it from
+     * a copy of the bitmap, and count the regions.
+     * @param regions collects each region, or null
+     */
+    private int extractRegions(List<Region> regions) {
+        long[] remaining = words.clone();
+        long[] region    = new long[words.length];
+        int count = 0;
+
+        for (int i = 0; i < remaining.length; i++) {
+            while (remaining[i] != 0) {
+                int x = i / columnWords;
+                int[] range = flood(remaining, region, x, i,
+                        Long.lowestOneBit(remaining[i]));
+
+                int from = range[0] * columnWords, to = (range[1] + 1) * columnWords;
+                if (regions != null) {
+                    regions.add(clip(region, range[0], range[1]));
+                }
+                for (int j = from; j < to; j++) {
+                    remaining[j] &= ~region[j];
+                }
+                Arrays.fill(region, from, to, 0);
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Copy the words of region's columns [left, right] that hold any of its
+     * cells into a Region.
+     */
+    private Region clip(long[] region, int left, int right) {
+        int low = columnWords, high = -1;
+        for (int x = left; x <= right; x++) {
+            for (int i = 0; i < columnWords; i++) {
+                if (region[x * columnWords + i] != 0) {
+                    low  = Math.min(low, i);
+                    high = Math.max(high, i);
+                }
+            }
+        }
+
+        int bottom = low << 6;
+        int height = Math.min(ySize, (high + 1) << 6) - bottom;
+        OccupancyBitmap cells = empty(right - left + 1, height);
+        for (int x = left; x <= right; x++) {
+            System.arraycopy(region, x * columnWords + low, cells.words,
+                    (x - left) * cells.columnWords, high - low + 1);
+        }
+        return new Region(left, bottom, cells);
+    }
+
+    /**
+     * Fill region with the cells of mask connected to seed, the bit of word
+     * seedWord in column x. Sweeps right then left over the columns the
+     * region has reached, refilling each column from its neighbours, until a
+     * round of sweeps changes nothing.
+     * @return the {leftmost, rightmost} columns of the region
+     */
+    private int[] flood(long[] mask, long[] region, int x, int seedWord, long seed) {
+        // Scratch columns shared by every refill
+        long[] seeds = new long[columnWords], up = new long[columnWords];
+        seeds[seedWord - x * columnWords] = seed;
+        fillColumn(mask, region, x, seeds, up);
+
+        int left = x, right = x;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+
+            for (int column = left; column <= right + 1 && column < xSize; column++) {
+                if (refill(mask, region, column, seeds, up)) {
+                    changed = true;
+                    right = Math.max(right, column);
+                }
+            }
+            for (int column = right; column >= left - 1 && column >= 0; column--) {
+                if (refill(mask, region, column, seeds, up)) {
+                    changed = true;
+                    left = Math.min(left, column);
+                }
+            }
+        }
+
+        return new int[] {left, right};
+    }
+
+    /**
+     * Seed column from the region's cells in it and its neighbouring columns
+     * and refill it.
+     * @return whether the column's region cells changed
+     */
+    private boolean refill(long[] mask, long[] region, int column,
+            long[] seeds, long[] up) {
+        int offset = column * columnWords;
+
+        boolean grows = false;
+        for (int i = 0; i < columnWords; i++) {
+            long seed = region[offset + i];
+            if (column > 0) {
+                seed |= region[offset + i - columnWords];
+            }
+            if (column < xSize - 1) {
+                seed |= region[offset + i + columnWords];
+            }
+            seeds[i] = seed & mask[offset + i];
+            grows |= seeds[i] != region[offset + i];
+        }
+
+        return grows && fillColumn(mask, region, column, seeds, up);
+    }
+
+    /**
+     * Set region's cells in column to every run of mask's cells in the
+     * column containing a seed. Adding the seeds to the mask carries each
+     * seed up to the top of its run, flipping the bits above it, and the
+     * carry out of a word continues the run into the next; doing the same
+     * on the bit-reversed words fills each run downwards.
+     * @return whether the column's region cells changed
+     */
+    private boolean fillColumn(long[] mask, long[] region, int column,
+            long[] seeds, long[] up) {
+        int offset = column * columnWords;
+
+        long carry = 0;
+        for (int i = 0; i < columnWords; i++) {
+            long m = mask[offset + i], s = seeds[i] & m;
+            long sum = m + s + carry;
+            carry = carryOut(m, s, sum);
+            up[i] = (sum ^ m) & m | s;
+        }
+
+        boolean changed = false;
+        carry = 0;
+        for (int i = columnWords - 1; i >= 0; i--) {
+            long m = Long.reverse(mask[offset + i]);
+            long s = Long.reverse(seeds[i]) & m;
+            long sum = m + s + carry;
+            carry = carryOut(m, s, sum);
+            long filled = up[i] | Long.reverse((sum ^ m) & m | s);
+
+            changed |= filled != region[offset + i];
+            region[offset + i] = filled;
+        }
+
+        return changed;
+    }
+
+    /**
+     * Get the carry out of the 64-bit addition a + b + carry in = sum, from
+     * the top bits of the operands and of the sum.
+     */
+    private static long carryOut(long a, long b, long sum) {
+        return ((a & b) | ((a | b) & ~sum)) >>> 63;
+    }
+}
@@ -0,0 +1,34 @@
+package edu.cwru.bwp18.polygon;
+
+/**
+ * A pair of rectangles that overlap, i.e. share some area. Rectangles
+ * compare by identity, so two overlaps are equal iff they hold the same
+ * rectangles in the same order.
+ *
+ * @param first  the rectangle that starts first along x
+ * @param second the other rectangle
+ * @param <T>    the comparable type of the rectangles' bounds
+ */
+public record Overlap<T extends Comparable<T>>(Rectangle<T> first,
+        Rectangle<T> second) {
+
+    /**
+     * Get the rectangle the pair shares, computed on each call.
+     * @return the intersection of first and second
+     */
+    public Rectangle<T> intersection() {
+        return Rectangle.of(
+                max(first.left(),   second.left()),
+                min(first.right(),  second.right()),
+                max(first.bottom(), second.bottom()),
+                min(first.top(),    second.top()));
+    }
+
+    private static <S extends Comparable<S>> S min(S a, S b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    private static <S extends Comparable<S>> S max(S a, S b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+}
@@ -0,0 +1,104 @@
+package edu.cwru.bwp18.polygon;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Times one build phase for the installed BuildMetrics and for Flight
+ * Recorder. When neither is listening, start returns a shared timer whose
+ * stop does nothing, so untraced builds only pay for two checks.
+ * <br>
+ * Allocation is measured on the thread that starts and stops the timer
+ * only, so memory that a parallel phase allocates on a fork-join pool's
+ * workers isn't counted.
+ */
+final class PhaseTimer {
+    private static final PhaseTimer DISABLED = new PhaseTimer(null, null, null);
+
+    /**
+     * Source of per-thread allocation counts, or null if the JVM has none.
+     */
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+    private final BuildMetrics.Phase phase;
+    private final BuildMetrics metrics;
+    private final BuildPhaseEvent event;
+    private final long startNanos, startBytes;
+
+    private PhaseTimer(BuildMetrics.Phase phase, BuildMetrics metrics,
+            BuildPhaseEvent event) {
+        this.phase      = phase;
+        this.metrics    = metrics;
+        this.event      = event;
+        this.startBytes = phase == null ? 0 : allocatedBytes();
+        this.startNanos = phase == null ? 0 : System.nanoTime();
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        try {
+            if (ManagementFactory.getThreadMXBean()
+                    instanceof com.sun.management.ThreadMXBean threads
+                    && threads.isThreadAllocatedMemorySupported()
+                    && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads;
+            }
+        }
+        catch (UnsupportedOperationException | SecurityException e) {
+            // Only allocation counts are lost
+        }
+        return null;
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? -1 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Start timing phase if a registry is installed or Flight Recorder is
+     * recording build phases.
+     */
+    static PhaseTimer start(BuildMetrics.Phase phase) {
+        assert phase != null;
+
+        BuildMetrics metrics = BuildMetrics.installed();
+        BuildPhaseEvent event = new BuildPhaseEvent();
+        if (metrics == null && !event.isEnabled()) {
+            return DISABLED;
+        }
+
+        event.begin();
+        return new PhaseTimer(phase, metrics, event);
+    }
+
+    /**
+     * Finish timing the phase and report it.
+     * @param rectangles the number of rectangles the phase processed
+     * @param map the map of the group being built
+     */
+    void stop(int rectangles, PlaneMap<?> map) {
+        if (phase != null) {
+            stop(rectangles, map.xSize(), map.ySize());
+        }
+    }
+
+    private void stop(int rectangles, int xBorders, int yBorders) {
+        long nanos = System.nanoTime() - startNanos;
+        long bytes = startBytes < 0 ? -1 : allocatedBytes() - startBytes;
+        // n borders bound n - 1 cells
+        long cells = (long) Math.max(0, xBorders - 1) * Math.max(0, yBorders - 1);
+
+        if (metrics != null) {
+            metrics.record(phase, nanos, rectangles, cells, bytes);
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.phase          = phase.name();
+            event.rectangleCount = rectangles;
+            event.xBorders       = xBorders;
+            event.yBorders       = yBorders;
+            event.cellCount      = cells;
+            event.bytesAllocated = bytes;
+            event.commit();
+        }
+    }
+}
@@ -23,6 +23,18 @@ public final class PlaneMap<S extends Comparable<S>> {
         return new PlaneMap<S>(AxisMap.from(x), AxisMap.from(y));
     }
 
+    /**
+     * Create a PlaneMap from two already built AxisMaps.
+     * @param x the horizontal AxisMap
+     * @param y the vertical AxisMap
+     * @return a PlaneMap of the two axes
+     */
+    static <S extends Comparable<S>> PlaneMap<S> fromAxes(AxisMap<S> x, AxisMap<S> y) {
+        assert x != null && y != null;
+
+        return new PlaneMap<S>(x, y);
+    }
+
     public Optional<Integer> xIndexOf(S value) {
         return x.indexOf(value);
     }
@@ -31,6 +43,24 @@ public final class PlaneMap<S extends Comparable<S>> {
         return y.indexOf(value);
     }
 
+    /**
+     * Get the horizontal AxisMap, e.g. to map arbitrary x coordinates onto
+     * the compressed grid with AxisMap::floorIndex.
+     * @return the AxisMap of x coordinates
+     */
+    public AxisMap<S> xAxis() {
+        return x;
+    }
+
+    /**
+     * Get the vertical AxisMap, e.g. to map arbitrary y coordinates onto the
+     * compressed grid with AxisMap::floorIndex.
+     * @return the AxisMap of y coordinates
+     */
+    public AxisMap<S> yAxis() {
+        return y;
+    }
+
     public int xSize() {
         return x.size();
     }
@@ -56,16 +86,106 @@ public final class PlaneMap<S extends Comparable<S>> {
         RectangleException.verifyNonNull(rectangles);           // Set != null
         RectangleException.verifyNonNull(rectangles.toArray()); // Elements != null
 
+        return from(rectangles, false);
+    }
+
+    /**
+     * Generate a PlaneMap from the borders of the provided rectangles,
+     * optionally sorting each axis in parallel on the current fork-join pool.
+     * @param rectangles the nonnull rectangles to map; must not contain null
+     * @param parallel whether to sort the borders in parallel
+     * @return a PlaneMap of all the rectangles' borders
+     */
+    static <S extends Comparable<S>> PlaneMap<S> from(Set<Rectangle<S>> rectangles,
+            boolean parallel) {
+        assert rectangles != null;
+
         Collection<S> x = new ArrayList<S>();
         Collection<S> y = new ArrayList<S>();
 
         rectangles.forEach(rect -> {
-            rect.getBorders(Direction.HORIZONTAL_BOUNDS)
-                    .forEach((dir, coord) -> x.add(coord));
-            rect.getBorders(Direction.VERTICAL_BOUNDS)
-                    .forEach((dir, coord) -> y.add(coord));
+            x.add(rect.left());
+            x.add(rect.right());
+            y.add(rect.bottom());
+            y.add(rect.top());
         });
 
-        return PlaneMap.of(x, y);
+        return new PlaneMap<S>(AxisMap.from(x, parallel), AxisMap.from(y, parallel));
+    }
+
+    /**
+     * Generate a PlaneMap from the borders of the provided int rectangles.
+     * The borders are sorted as primitives; only distinct borders are boxed.
+     * @param rectangles the nonnull rectangles to map
+     * @return a PlaneMap of all the rectangles' borders
+     * @throws IllegalArgumentException containing a RectangleException as its
+     *          cause if rectangles is null or contains null elements
+     */
+    public static PlaneMap<Integer> fromInts(Collection<IntRectangle> rectangles) {
+        RectangleException.verifyNonNull(rectangles);
+        RectangleException.verifyNonNull(rectangles.toArray());
+
+        return fromInts(rectangles, false);
+    }
+
+    /**
+     * Generate a PlaneMap from the borders of the provided int rectangles,
+     * optionally sorting each axis in parallel on the current fork-join pool.
+     * @param rectangles the nonnull rectangles to map; must not contain null
+     * @param parallel whether to sort the borders in parallel
+     * @return a PlaneMap of all the rectangles' borders
+     */
+    static PlaneMap<Integer> fromInts(Collection<IntRectangle> rectangles,
+            boolean parallel) {
+        assert rectangles != null;
+
+        int[] x = new int[2 * rectangles.size()];
+        int[] y = new int[2 * rectangles.size()];
+
+        int i = 0;
+        for (IntRectangle rect : rectangles) {
+            x[i]     = rect.left();
+            x[i + 1] = rect.right();
+            y[i]     = rect.bottom();
+            y[i + 1] = rect.top();
+            i += 2;
+        }
+
+        return new PlaneMap<Integer>(AxisMap.fromInts(x, parallel),
+                AxisMap.fromInts(y, parallel));
+    }
+
+    /**
+     * Get the bounds of rectangle in this PlaneMap's index space. All of
+     * rectangle's borders must be in this map.
+     * @param rectangle the nonnull rectangle to map
+     * @return rectangle's left, right, bottom & top indices
+     */
+    IntRectangle indexBoundsOf(Rectangle<S> rectangle) {
+        assert rectangle != null;
+
+        return new IntRectangle(
+                x.flatIndexOf(rectangle.left()),
+                x.flatIndexOf(rectangle.right()),
+                y.flatIndexOf(rectangle.bottom()),
+                y.flatIndexOf(rectangle.top()));
+    }
+
+    /**
+     * Get the bounds of rectangle in this PlaneMap's index space without
+     * boxing. Only valid for PlaneMaps built with fromInts, and all of
+     * rectangle's borders must be in this map.
+     * @param rectangle the nonnull rectangle to map
+     * @return rectangle's left, right, bottom & top indices
+     */
+    IntRectangle indexBoundsOf(IntRectangle rectangle) {
+        assert rectangle != null;
+        assert x.isIntegral() && y.isIntegral();
+
+        return new IntRectangle(
+                x.intIndexOf(rectangle.left()),
+                x.intIndexOf(rectangle.right()),
+                y.intIndexOf(rectangle.bottom()),
+                y.intIndexOf(rectangle.top()));
     }
 }
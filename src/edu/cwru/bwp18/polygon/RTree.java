@@ -0,0 +1,249 @@
+package edu.cwru.bwp18.polygon;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Static R-tree spatial index over rectangles with generic Comparable
+ * bounds, bulk loaded with Sort-Tile-Recursive packing. Queries take
+ * logarithmic time plus the size of their output.
+ * <br>
+ * Like the cells of a matrix grid, a rectangle covers its left & bottom
+ * borders but not its right & top ones.
+ *
+ * @param <T> the comparable type of the rectangles' bounds
+ */
+final class RTree<T extends Comparable<T>> {
+    /**
+     * Maximum number of entries in each node.
+     */
+    static final int NODE_CAPACITY = 16;
+
+    private static final class Node<T extends Comparable<T>> {
+        /**
+         * Bounding box of everything below this node.
+         */
+        final Rectangle<T> bounds;
+
+        /**
+         * The Rectangles in this node if it's a leaf, otherwise its child
+         * Nodes.
+         */
+        final Object[] entries;
+        final boolean leaf;
+
+        Node(Rectangle<T> bounds, Object[] entries, boolean leaf) {
+            this.bounds  = bounds;
+            this.entries = entries;
+            this.leaf    = leaf;
+        }
+    }
+
+    /**
+     * Root of the tree, or null if the tree is empty.
+     */
+    private final Node<T> root;
+    private final int size;
+
+    private RTree(Node<T> root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * An entry being packed into a level of the tree with its bounds. Sorts
+     * compare the cached key, which saves a lookup per comparison.
+     */
+    private static final class Packed<S extends Comparable<S>> {
+        final Rectangle<S> bounds;
+        final Object item;
+        S key;
+
+        Packed(Rectangle<S> bounds, Object item) {
+            this.bounds = bounds;
+            this.item   = item;
+        }
+    }
+
+    /**
+     * Bulk load an R-tree from the provided rectangles. Each level is built
+     * by sorting its entries by left bound, cutting them into vertical
+     * slices, sorting each slice by bottom bound and packing runs of
+     * NODE_CAPACITY entries into nodes.
+     *
+     * @param rectangles the rectangles to index
+     * @param <S>        the type of the rectangles' bounds
+     * @return an R-tree of the rectangles
+     * @throws IllegalArgumentException if rectangles is null or contains null
+     *                                  elements
+     */
+    static <S extends Comparable<S>> RTree<S> of(Collection<Rectangle<S>> rectangles) {
+        RectangleException.verifyNonNull(rectangles);
+        RectangleException.verifyNonNull(rectangles.toArray());
+
+        if (rectangles.isEmpty()) {
+            return new RTree<S>(null, 0);
+        }
+
+        List<Packed<S>> entries = new ArrayList<>(rectangles.size());
+        rectangles.forEach(rect -> entries.add(new Packed<>(rect, rect)));
+
+        List<Node<S>> level = pack(entries, true);
+        while (level.size() > 1) {
+            List<Packed<S>> nodes = new ArrayList<>(level.size());
+            level.forEach(node -> nodes.add(new Packed<>(node.bounds, node)));
+            level = pack(nodes, false);
+        }
+
+        return new RTree<S>(level.get(0), rectangles.size());
+    }
+
+    /**
+     * Pack one level of the tree with Sort-Tile-Recursive.
+     */
+    private static <S extends Comparable<S>> List<Node<S>> pack(
+            List<Packed<S>> entries, boolean leaf) {
+        int numNodes  = (entries.size() + NODE_CAPACITY - 1) / NODE_CAPACITY;
+        int numSlices = (int) Math.ceil(Math.sqrt(numNodes));
+        int sliceSize = numSlices * NODE_CAPACITY;
+        Comparator<Packed<S>> byKey = Comparator.comparing(entry -> entry.key);
+
+        entries.forEach(entry -> entry.key = entry.bounds.left());
+        entries.sort(byKey);
+
+        List<Node<S>> nodes = new ArrayList<>(numNodes);
+        for (int start = 0; start < entries.size(); start += sliceSize) {
+            List<Packed<S>> slice = entries.subList(start,
+                    Math.min(entries.size(), start + sliceSize));
+            slice.forEach(entry -> entry.key = entry.bounds.bottom());
+            slice.sort(byKey);
+
+            for (int i = 0; i < slice.size(); i += NODE_CAPACITY) {
+                List<Packed<S>> group = slice.subList(i,
+                        Math.min(slice.size(), i + NODE_CAPACITY));
+
+                Object[] items = new Object[group.size()];
+                Arrays.setAll(items, j -> group.get(j).item);
+                nodes.add(new Node<S>(boundsOf(group), items, leaf));
+            }
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Get the bounding box of a nonempty group of entries.
+     */
+    private static <S extends Comparable<S>> Rectangle<S> boundsOf(
+            List<Packed<S>> group) {
+        Rectangle<S> first = group.get(0).bounds;
+        S left = first.left(), right = first.right();
+        S bottom = first.bottom(), top = first.top();
+
+        for (Packed<S> entry : group) {
+            Rectangle<S> bounds = entry.bounds;
+            left   = min(left,   bounds.left());
+            right  = max(right,  bounds.right());
+            bottom = min(bottom, bounds.bottom());
+            top    = max(top,    bounds.top());
+        }
+
+        return Rectangle.of(left, right, bottom, top);
+    }
+
+    private static <S extends Comparable<S>> S min(S a, S b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    private static <S extends Comparable<S>> S max(S a, S b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Find every rectangle covering the point (x, y).
+     * @param x the point's x coordinate
+     * @param y the point's y coordinate
+     * @return the rectangles r with r.left <= x < r.right and
+     *          r.bottom <= y < r.top
+     * @throws IllegalArgumentException if x or y is null
+     */
+    public List<Rectangle<T>> containing(T x, T y) {
+        RectangleException.verifyNonNull(x, y);
+
+        List<Rectangle<T>> found = new ArrayList<>();
+        search(root, bounds -> bounds.left().compareTo(x) <= 0
+                        && x.compareTo(bounds.right()) < 0
+                        && bounds.bottom().compareTo(y) <= 0
+                        && y.compareTo(bounds.top()) < 0,
+                bounds -> true, found::add);
+        return found;
+    }
+
+    /**
+     * Find every rectangle sharing some area with window. Rectangles that
+     * only touch window's edges don't intersect it.
+     * @param window the window to search
+     * @return the rectangles overlapping window
+     * @throws IllegalArgumentException if window is null
+     */
+    public List<Rectangle<T>> intersecting(Rectangle<T> window) {
+        RectangleException.verifyNonNull(window);
+
+        List<Rectangle<T>> found = new ArrayList<>();
+        search(root, window::overlaps, bounds -> true, found::add);
+        return found;
+    }
+
+    /**
+     * Find every rectangle lying entirely inside window, edges included.
+     * @param window the window to search
+     * @return the rectangles contained in window
+     * @throws IllegalArgumentException if window is null
+     */
+    public List<Rectangle<T>> containedIn(Rectangle<T> window) {
+        RectangleException.verifyNonNull(window);
+
+        List<Rectangle<T>> found = new ArrayList<>();
+        search(root, window::overlaps, rect ->
+                        window.left().compareTo(rect.left()) <= 0
+                        && rect.right().compareTo(window.right()) <= 0
+                        && window.bottom().compareTo(rect.bottom()) <= 0
+                        && rect.top().compareTo(window.top()) <= 0,
+                found::add);
+        return found;
+    }
+
+    /**
+     * Visit every rectangle below node that matches both predicates,
+     * skipping subtrees whose bounds don't match the first.
+     * @param matches must hold for a rectangle's bounds and for the bounds of
+     *                every node above it
+     * @param accepts must also hold for the rectangle itself
+     */
+    @SuppressWarnings("unchecked")
+    private void search(Node<T> node,
+            Predicate<Rectangle<T>> matches,
+            Predicate<Rectangle<T>> accepts,
+            Consumer<Rectangle<T>> action) {
+        if (node == null || !matches.test(node.bounds)) {
+            return;
+        }
+
+        for (Object entry : node.entries) {
+            if (node.leaf) {
+                Rectangle<T> rect = (Rectangle<T>) entry;
+                if (matches.test(rect) && accepts.test(rect)) {
+                    action.accept(rect);
+                }
+            }
+            else {
+                search((Node<T>) entry, matches, accepts, action);
+            }
+        }
+    }
+}
@@ -2,7 +2,6 @@ package edu.cwru.bwp18.polygon;
 
 import java.util.Collection;
 import java.util.EnumMap;
-import java.util.Map;
 import java.util.Set;
 
 /**
@@ -45,12 +44,14 @@ public final class Rectangle<T extends Comparable<T>> {
         RectangleException.verifyBounds(bottom, top);
         RectangleException.verifyBounds(left, right);
 
-        return new Rectangle<S>(new EnumMap<Direction, S>(Map.of(
-                Direction.TOP,    top,
-                Direction.BOTTOM, bottom,
-                Direction.LEFT,   left,
-                Direction.RIGHT,  right
-        )));
+        // Fill the EnumMap directly rather than copying a temporary Map
+        EnumMap<Direction, S> borders = new EnumMap<Direction, S>(Direction.class);
+        borders.put(Direction.TOP,    top);
+        borders.put(Direction.BOTTOM, bottom);
+        borders.put(Direction.LEFT,   left);
+        borders.put(Direction.RIGHT,  right);
+
+        return new Rectangle<S>(borders);
     }
 
     /**
@@ -137,4 +138,43 @@ public final class Rectangle<T extends Comparable<T>> {
 
         return borders.get(Direction.RIGHT);
     }
+
+    /**
+     * Whether this rectangle and that share some area. Rectangles that only
+     * touch along an edge or at a corner don't overlap.
+     * @param that the nonnull rectangle to compare with
+     * @return true iff the rectangles' interiors intersect
+     */
+    boolean overlaps(Rectangle<T> that) {
+        assert that != null;
+
+        return left().compareTo(that.right()) < 0
+            && that.left().compareTo(right()) < 0
+            && bottom().compareTo(that.top()) < 0
+            && that.bottom().compareTo(top()) < 0;
+    }
+
+    /**
+     * Whether this rectangle and that overlap or share an edge segment, so
+     * that their union is connected. Rectangles meeting only at a corner
+     * don't touch.
+     * @param that the nonnull rectangle to compare with
+     * @return true iff the rectangles' union is connected
+     */
+    boolean touches(Rectangle<T> that) {
+        assert that != null;
+
+        int leftGap   = left().compareTo(that.right());
+        int rightGap  = that.left().compareTo(right());
+        int bottomGap = bottom().compareTo(that.top());
+        int topGap    = that.bottom().compareTo(top());
+
+        if (leftGap > 0 || rightGap > 0 || bottomGap > 0 || topGap > 0) {
+            return false;
+        }
+
+        boolean xPoint = leftGap == 0 || rightGap == 0;
+        boolean yPoint = bottomGap == 0 || topGap == 0;
+        return !(xPoint && yPoint);
+    }
 }
@@ -65,6 +65,21 @@ public final class RectangleException extends Exception {
         }
     }
 
+    /**
+     * Throw an IllegalArgumentException if lesserBound >= greaterBound.
+     * Primitive overload of verifyBounds; only boxes the bounds on failure.
+     * @param lesserBound the bound that should be less
+     * @param greaterBound the bound that should be greater
+     * @throws IllegalArgumentException with RectangleException as its cause if
+     *          lessBound >= greaterBound
+     */
+    public static void verifyBounds(int lesserBound, int greaterBound) {
+        if (lesserBound >= greaterBound) {
+            throw new IllegalArgumentException(new RectangleException(
+                    Error.INVALID_BOUNDS, lesserBound, greaterBound));
+        }
+    }
+
     /**
      * Throw an IllegalArgumentException if one of the provided objects is null.
      * @param nonNullObjects the objects that should not be null
@@ -72,16 +87,20 @@ public final class RectangleException extends Exception {
      *          any of nonNullObjects is null
      */
     public static void verifyNonNull(Object... nonNullObjects) {
-        // We use HashSet to make our Set mutable
-        Set<Integer> nullIndexes = new HashSet<>();
+        // Only build the (mutable) Set of null indexes if there are any, so
+        // that successful checks don't allocate
+        Set<Integer> nullIndexes = null;
 
         for (int i = 0; i < nonNullObjects.length; i++) {
             if (nonNullObjects[i] == null) {
+                if (nullIndexes == null) {
+                    nullIndexes = new HashSet<>();
+                }
                 nullIndexes.add(i);
             }
         }
 
-        if (!nullIndexes.isEmpty()) {
+        if (nullIndexes != null) {
             throw new IllegalArgumentException(
                     new RectangleException(nullIndexes));
         }
@@ -1,39 +1,88 @@
 package edu.cwru.bwp18.polygon;
 
+import edu.cwru.bwp18.polygon.BuildMetrics.Phase;
+
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 
 final class RectangleGroup<T extends Comparable<T>> {
-    private final Set<Rectangle<T>> rectangles;
-    private final PlaneMap<T> map;
-    private final NavigableMap<IndexPair, Long> matrixGrid;
-    private final boolean isOverlapping;
-    private final boolean isConnected;
+    /**
+     * Groups whose rectangles cover less than 1 / SPARSE_RATIO of their
+     * cells, counting overlaps, store coverage sparsely: a covered cell in
+     * the sparse grid costs about as much as SPARSE_RATIO dense cells.
+     */
+    static final int SPARSE_RATIO = 8;
+
+    /**
+     * Dense grids of more cells than this are tiled so they can spill to
+     * disk rather than fill the heap.
+     */
+    static final long TILED_CELLS = 1L << 26;
+
+    /**
+     * A group's PlaneMap and its rectangles' bounds in the map's index space.
+     */
+    private record Indexed<T extends Comparable<T>>(PlaneMap<T> map,
+            List<IntRectangle> indexBounds) {
+    }
+
+    private final Lazy<Set<Rectangle<T>>> rectangles;
+    private final Lazy<Indexed<T>> indexed;
+    private final Lazy<CellGrid> coverage;
+    private final Lazy<NavigableMap<IndexPair, Long>> matrixGrid;
+    private final Lazy<RunLengthGrid> compressedGrid;
+    private final Lazy<OccupancyBitmap> occupancy;
+    private final Lazy<Boolean> isOverlapping;
+    private final Lazy<Integer> componentCount;
+    private final Lazy<Map<Rectangle<T>, Integer>> rectangleComponents;
+    private final Lazy<ComponentLabeling<T>> labeling;
+    private final Lazy<RTree<T>> spatialIndex;
+    private final Lazy<double[]> areas;
 
     /**
-     * Construct a RectangleGroup from the given rectangles.
+     * Construct a RectangleGroup whose properties are each computed on first
+     * access and then cached.
      * This constructor is required not to throw exceptions.
      *
      * @param rectangles the Set of Rectangles to group
+     * @param indexed    the rectangles' PlaneMap and index bounds
+     * @param pool       the pool to build the coverage grid & count
+     *                   components on, or null to use the calling thread
      */
-    private RectangleGroup(Set<Rectangle<T>> rectangles, PlaneMap<T> map,
-            NavigableMap<IndexPair, Long> matrixGrid,
-            boolean isOverlapping, boolean isConnected) {
+    private RectangleGroup(Lazy<Set<Rectangle<T>>> rectangles,
+            Lazy<Indexed<T>> indexed, ForkJoinPool pool) {
         assert rectangles != null;
-        assert map        != null;
-        assert matrixGrid != null;
+        assert indexed    != null;
 
-        this.rectangles    = rectangles;
-        this.map           = map;
-        this.matrixGrid    = matrixGrid;
-        this.isOverlapping = isOverlapping;
-        this.isConnected   = isConnected;
+        this.rectangles     = rectangles;
+        this.indexed        = indexed;
+        this.coverage       = Lazy.of(() -> coverageOf(indexed.get(), pool));
+        this.matrixGrid     = Lazy.of(() -> Collections
+                .unmodifiableNavigableMap(coverage.get().toMatrixGrid()));
+        this.compressedGrid = Lazy.of(() -> RunLengthGrid.of(
+                getMap().xSize(), getMap().ySize(), indexed.get().indexBounds()));
+        this.occupancy      = Lazy.of(() -> OccupancyBitmap.of(
+                getMap().xSize(), getMap().ySize(), indexed.get().indexBounds()));
+        this.isOverlapping  = Lazy.of(this::computeOverlapping);
+        this.componentCount = Lazy.of(() -> computeComponentCount(pool));
+        this.rectangleComponents = Lazy.of(() -> componentsOf(rectangles.get()));
+        // The build's pool is shut down once it returns, so label without it
+        this.labeling       = Lazy.of(() -> computeLabeling(null));
+        this.spatialIndex   = Lazy.of(() -> RTree.of(rectangles.get()));
+        this.areas          = Lazy.of(() -> AreaSweep.areas(
+                getMap(), indexed.get().indexBounds()));
     }
 
     /**
-     * Generate new RectangleGroup from provided rectangles.
+     * Generate new RectangleGroup from provided rectangles. Nothing is
+     * computed up front: the map, grids, overlap status and connectivity
+     * are each computed on first access and then cached.
      *
      * @param rectangles the Set of Rectangles to group
      * @param <S>        the type of the rectangles' dimensions
@@ -46,94 +95,545 @@ final class RectangleGroup<T extends Comparable<T>> {
         RectangleException.verifyNonNull(rectangles);
         RectangleException.verifyNonNull(rectangles.toArray());
 
-        PlaneMap<S> map = PlaneMap.from(rectangles);
-        NavigableMap<IndexPair, Long> matrixGrid =
-                createMatrixGrid(rectangles, map);
-        boolean isOverlapping = matrixGrid.values().stream()
-                .anyMatch(numRects -> numRects > 1);
+        return from(copyOf(rectangles), (ForkJoinPool) null);
+    }
+
+    /**
+     * Generate new RectangleGroup from provided rectangles, building it in
+     * parallel on a fork-join pool with the given parallelism. The axes are
+     * sorted in parallel, coverage counts are filled per x-stripe of the
+     * grid (or per tile column of a tiled grid), and connectivity is
+     * labeled per stripe and merged across the seams (sparse groups are
+     * still counted on one thread). The result is identical to
+     * from(rectangles).
+     *
+     * @param rectangles  the Set of Rectangles to group
+     * @param parallelism the number of threads to build with; 1 builds on
+     *                    this thread like from(rectangles)
+     * @param <S>         the type of the rectangles' dimensions
+     * @return a RectangleGroup of the rectangles
+     * @throws IllegalArgumentException if rectangles is null or contains null
+     *                                  elements, or parallelism < 1
+     */
+    public static <S extends Comparable<S>> RectangleGroup<S>
+    from(Set<Rectangle<S>> rectangles, int parallelism) {
+        RectangleException.verifyNonNull(rectangles);
+        RectangleException.verifyNonNull(rectangles.toArray());
+        RectangleException.verifyBounds(0, parallelism);
+
+        Set<Rectangle<S>> source = copyOf(rectangles);
+        return inPool(parallelism, pool -> from(source, pool));
+    }
+
+    /**
+     * Generate a group like from(rectangles) whose PlaneMap, once built, is
+     * passed through share, e.g. to swap in an equal map already held by
+     * another group. share must return a map with the same coordinates, so
+     * the rectangles' index bounds are unchanged.
+     */
+    static <S extends Comparable<S>> RectangleGroup<S>
+    from(Set<Rectangle<S>> rectangles, UnaryOperator<PlaneMap<S>> share) {
+        assert rectangles != null && share != null;
+
+        Set<Rectangle<S>> source = copyOf(rectangles);
+        Supplier<Indexed<S>> index = indexOf(source, null);
+        return build(Lazy.of(() -> source), () -> {
+            Indexed<S> built = index.get();
+            return new Indexed<S>(share.apply(built.map()), built.indexBounds());
+        }, null);
+    }
+
+    /**
+     * Build a group from rectangles, which must be a copy of the caller's
+     * rectangles so that later changes to their set aren't visible.
+     */
+    private static <S extends Comparable<S>> RectangleGroup<S>
+    from(Set<Rectangle<S>> rectangles, ForkJoinPool pool) {
+        return build(Lazy.of(() -> rectangles), indexOf(rectangles, pool), pool);
+    }
+
+    /**
+     * Get a supplier that indexes rectangles, without boxing their bounds
+     * if they're all Integers.
+     */
+    private static <S extends Comparable<S>> Supplier<Indexed<S>>
+    indexOf(Set<Rectangle<S>> rectangles, ForkJoinPool pool) {
+        // An empty set matches any bound type, so it takes the general path
+        if (!rectangles.isEmpty()
+                && rectangles.stream().allMatch(IntRectangle::isIntegral)) {
+            return indexIntegral(rectangles, pool);
+        }
 
-        Set<IndexPair> connectedPairs = new HashSet<>();
-        findConnectedPairs(matrixGrid.firstKey(),
-                matrixGrid, connectedPairs);
-        boolean isConnected = connectedPairs.containsAll(matrixGrid.keySet());
+        return () -> {
+            PlaneMap<S> map = PlaneMap.from(rectangles, pool != null);
+            return new Indexed<S>(map, stream(rectangles, pool)
+                    .map(map::indexBoundsOf)
+                    .toList());
+        };
+    }
 
-        return new RectangleGroup<S>(rectangles, map, matrixGrid,
-                isOverlapping, isConnected);
+    /**
+     * Copy rectangles into an unmodifiable set with the same iteration
+     * order.
+     */
+    private static <S extends Comparable<S>> Set<Rectangle<S>>
+    copyOf(Set<Rectangle<S>> rectangles) {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(rectangles));
     }
 
-    private static void findConnectedPairs(IndexPair start,
-            NavigableMap<IndexPair, Long> matrixGrid,
-            Set<IndexPair> connectedPairs) {
+    /**
+     * Generate new RectangleGroup from provided int rectangles, without
+     * boxing their bounds. The group's Rectangles are only created if
+     * getRectangles is called.
+     *
+     * @param rectangles the IntRectangles to group
+     * @return a RectangleGroup of the rectangles
+     * @throws IllegalArgumentException if rectangles is null or contains null
+     *                                  elements
+     */
+    public static RectangleGroup<Integer>
+    fromInts(Collection<IntRectangle> rectangles) {
+        RectangleException.verifyNonNull(rectangles);
+        RectangleException.verifyNonNull(rectangles.toArray());
 
-        connectedPairs.add(start);
-        Direction.ALL_BOUNDS.stream()
-                .map(start::increment)
-                .filter(matrixGrid::containsKey)
-                .filter(next -> !connectedPairs.contains(next))
-                .forEach(next ->
-                        findConnectedPairs(next, matrixGrid, connectedPairs));
+        return fromInts(List.copyOf(rectangles), (ForkJoinPool) null);
     }
 
     /**
-     * Create matrix grid from provided rectangles & PlaneMap. Semantically
-     * coupled to RectangleGroup::from, but that's OK b/c it's private.
+     * Generate new RectangleGroup from provided int rectangles, building it
+     * in parallel on a fork-join pool with the given parallelism. The result
+     * is identical to fromInts(rectangles).
      *
-     * @param rectangles the rectangles to include in the grid
-     * @param map        the map of all rectangle bounds to indices
-     * @param <S>        the type of the rectangles' bounds
-     * @return a matrix grid from IndexPairs to Longs representing the number
-     * of overlapping rectangles at each point
+     * @param rectangles  the IntRectangles to group
+     * @param parallelism the number of threads to build with; 1 builds on
+     *                    this thread like fromInts(rectangles)
+     * @return a RectangleGroup of the rectangles
+     * @throws IllegalArgumentException if rectangles is null or contains null
+     *                                  elements, or parallelism < 1
+     */
+    public static RectangleGroup<Integer>
+    fromInts(Collection<IntRectangle> rectangles, int parallelism) {
+        RectangleException.verifyNonNull(rectangles);
+        RectangleException.verifyNonNull(rectangles.toArray());
+        RectangleException.verifyBounds(0, parallelism);
+
+        List<IntRectangle> source = List.copyOf(rectangles);
+        return inPool(parallelism, pool -> fromInts(source, pool));
+    }
+
+    /**
+     * Build a group from source, which must be a copy of the caller's
+     * rectangles so that later changes to their collection aren't visible.
+     */
+    private static RectangleGroup<Integer>
+    fromInts(List<IntRectangle> source, ForkJoinPool pool) {
+        return build(Lazy.of(() -> source.stream()
+                .map(IntRectangle::toRectangle)
+                .collect(Collectors.toUnmodifiableSet())),
+                () -> indexInts(source, pool), pool);
+    }
+
+    /**
+     * Determine whether any two of the provided rectangles overlap without
+     * building a RectangleGroup. Uses an O(n log n) sweep line that stops at
+     * the first overlap and never allocates per-cell state.
+     *
+     * @param rectangles the rectangles to check
+     * @param <S>        the type of the rectangles' dimensions
+     * @return true iff some pair of rectangles shares some area
+     * @throws IllegalArgumentException if rectangles is null or contains null
+     *                                  elements
+     */
+    public static <S extends Comparable<S>> boolean
+    anyOverlap(Collection<Rectangle<S>> rectangles) {
+        RectangleException.verifyNonNull(rectangles);
+        RectangleException.verifyNonNull(rectangles.toArray());
+
+        return SweepLine.isOverlapping(rectangles);
+    }
+
+    /**
+     * Label each rectangle with the id of its connected component without
+     * building a RectangleGroup. Works on the rectangles themselves rather
+     * than on grid cells, so it takes O((n + k) log n) expected time for k
+     * touching pairs (see SweepLine.forEachTouchingPair) no matter how
+     * widely the coordinates are spread.
+     * Rectangles touching only at a corner are in separate components.
+     *
+     * @param rectangles the rectangles to label
+     * @param <S>        the type of the rectangles' dimensions
+     * @return an unmodifiable map from each rectangle to its component id;
+     *          ids are numbered from 0 with no gaps
+     * @throws IllegalArgumentException if rectangles is null or contains null
+     *                                  elements
+     */
+    public static <S extends Comparable<S>> Map<Rectangle<S>, Integer>
+    componentsOf(Collection<Rectangle<S>> rectangles) {
+        RectangleException.verifyNonNull(rectangles);
+        RectangleException.verifyNonNull(rectangles.toArray());
+
+        List<Rectangle<S>> list = List.copyOf(rectangles);
+        int[] ids = SweepLine.components(list);
+
+        Map<Rectangle<S>, Integer> components = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            components.put(list.get(i), ids[i]);
+        }
+        return Collections.unmodifiableMap(components);
+    }
+
+    /**
+     * Take the int path for rectangles whose bounds are all Integers, so that
+     * S is Integer.
+     */
+    @SuppressWarnings("unchecked")
+    private static <S extends Comparable<S>> Supplier<Indexed<S>>
+    indexIntegral(Set<Rectangle<S>> rectangles, ForkJoinPool pool) {
+        Set<Rectangle<Integer>> integral =
+                (Set<Rectangle<Integer>>) (Set<?>) rectangles;
+
+        return () -> (Indexed<S>) (Indexed<?>) indexInts(stream(integral, pool)
+                .map(IntRectangle::from)
+                .toList(), pool);
+    }
+
+    /**
+     * Create a group from rectangles that have already been indexed, e.g.
+     * by a stored group. Every other property, including the set of
+     * rectangles, is computed on first access.
+     * @param rectangles  creates the group's rectangles when first needed
+     * @param indexBounds the bounds of each rectangle in map's index space
+     */
+    static <S extends Comparable<S>> RectangleGroup<S> fromIndexed(
+            Supplier<Set<Rectangle<S>>> rectangles, PlaneMap<S> map,
+            List<IntRectangle> indexBounds) {
+        assert rectangles != null && map != null && indexBounds != null;
+
+        Indexed<S> indexed = new Indexed<S>(map, indexBounds);
+        return new RectangleGroup<S>(Lazy.of(rectangles),
+                Lazy.of(() -> indexed), null);
+    }
+
+    private static Indexed<Integer> indexInts(List<IntRectangle> source,
+            ForkJoinPool pool) {
+        PlaneMap<Integer> map = PlaneMap.fromInts(source, pool != null);
+        return new Indexed<Integer>(map, stream(source, pool)
+                .map(map::indexBoundsOf)
+                .toList());
+    }
+
+    /**
+     * Create a group that indexes its rectangles on first use. Without a
+     * pool every property is left until it's first accessed; with one, the
+     * index, coverage grid, overlap status and component count are computed
+     * on it now, since it's shut down once the build returns.
+     */
+    private static <S extends Comparable<S>> RectangleGroup<S>
+    build(Lazy<Set<Rectangle<S>>> rectangles, Supplier<Indexed<S>> index,
+            ForkJoinPool pool) {
+        RectangleGroup<S> group = new RectangleGroup<S>(rectangles,
+                Lazy.of(() -> {
+                    PhaseTimer timer = PhaseTimer.start(Phase.AXIS_COMPRESSION);
+                    Indexed<S> indexed = index.get();
+                    timer.stop(indexed.indexBounds().size(), indexed.map());
+                    return indexed;
+                }), pool);
+
+        if (pool != null) {
+            group.coverage.get();
+            group.isOverlapping.get();
+            group.componentCount.get();
+        }
+        return group;
+    }
+
+    /**
+     * Count the coverage of indexed's cells: sparsely if few cells are
+     * covered, in tiles if the dense grid would be too large, and otherwise
+     * densely.
+     */
+    private static CellGrid coverageOf(Indexed<?> indexed, ForkJoinPool pool) {
+        PlaneMap<?> map = indexed.map();
+        List<IntRectangle> indexBounds = indexed.indexBounds();
+
+        PhaseTimer timer = PhaseTimer.start(Phase.COVERAGE_GRID);
+        CellGrid coverage;
+        if (isSparse(map, indexBounds)) {
+            coverage = SparseCoverageGrid.of(map.xSize(), map.ySize(), indexBounds);
+        }
+        else if ((long) map.xSize() * map.ySize() > TILED_CELLS) {
+            coverage = TiledGrid.of(map.xSize(), map.ySize(), indexBounds, pool);
+        }
+        else {
+            coverage = CoverageGrid.of(map.xSize(), map.ySize(), indexBounds, pool);
+        }
+        timer.stop(indexBounds.size(), map);
+        return coverage;
+    }
+
+    /**
+     * Label the components of the coverage grid, building it if needed.
+     */
+    private ComponentLabeling<T> computeLabeling(ForkJoinPool pool) {
+        Indexed<T> indexed = this.indexed.get();
+        CellGrid grid = coverage.get();
+
+        PhaseTimer timer = PhaseTimer.start(Phase.CONNECTIVITY);
+        ComponentLabeling<T> labeling = ComponentLabeling.of(indexed.map(),
+                grid, indexed.indexBounds(), pool);
+        timer.stop(indexed.indexBounds().size(), indexed.map());
+        return labeling;
+    }
+
+    /**
+     * Check for overlaps on the coverage grid if it's already built,
+     * otherwise with a sweep over the rectangles' index bounds that stops at
+     * the first overlap and needs no grid or boxed rectangles.
+     */
+    private boolean computeOverlapping() {
+        Indexed<T> indexed = this.indexed.get();
+        PhaseTimer timer = PhaseTimer.start(Phase.OVERLAP_SCAN);
+        boolean overlapping = coverage.isEvaluated()
+                ? coverage.get().isOverlapping()
+                : SweepLine.isOverlappingInts(indexed.indexBounds(),
+                        indexed.map().ySize());
+        timer.stop(indexed.indexBounds().size(), indexed.map());
+        return overlapping;
+    }
+
+    /**
+     * Count components on the coverage grid if it's already built,
+     * otherwise from the rectangles' index bounds: every rectangle's cells
+     * are connected, and two rectangles' cells touch iff the rectangles do.
+     */
+    private int computeComponentCount(ForkJoinPool pool) {
+        Indexed<T> indexed = this.indexed.get();
+        PhaseTimer timer = PhaseTimer.start(Phase.CONNECTIVITY);
+        int count = coverage.isEvaluated()
+                ? coverage.get().componentCount(pool)
+                : SweepLine.componentCountOfInts(indexed.indexBounds());
+        timer.stop(indexed.indexBounds().size(), indexed.map());
+        return count;
+    }
+
+    /**
+     * Whether the rectangles cover too few cells for a dense grid to pay
+     * off. Their total area bounds the number of covered cells, which must
+     * also fit in a sparse grid's hash map.
      */
-    private static <S extends Comparable<S>> NavigableMap<IndexPair, Long>
-    createMatrixGrid(Set<Rectangle<S>> rectangles, PlaneMap<S> map) {
+    static boolean isSparse(PlaneMap<?> map,
+            List<IntRectangle> indexBounds) {
+        long cells = (long) map.xSize() * map.ySize();
+        long area = 0;
+        for (IntRectangle bounds : indexBounds) {
+            area += (long) (bounds.right() - bounds.left())
+                    * (bounds.top() - bounds.bottom());
+        }
 
-        return rectangles.stream()
-                .flatMap(rect -> streamPairsInBounds(
-                        map.xIndexOf(rect.left()).get(),
-                        map.xIndexOf(rect.right()).get(),
-                        map.yIndexOf(rect.bottom()).get(),
-                        map.yIndexOf(rect.top()).get()
-                ))
-                .collect(
-                        TreeMap<IndexPair, Long>::new,
-                        (grid, pair) ->
-                                grid.put(pair, grid.getOrDefault(pair, 0L) + 1),
-                        TreeMap::putAll
-                );
+        return area * SPARSE_RATIO < cells && area <= LongLongHashMap.MAX_SIZE;
     }
 
     /**
-     * Generates a stream of IndexPairs using Grid, one for each point in the
-     * provided bounds.
+     * Run build on a new fork-join pool with the given parallelism, or on
+     * this thread with a null pool if parallelism is 1. Parallel streams
+     * started inside the pool run on it rather than the common pool.
      */
-    private static Stream<IndexPair> streamPairsInBounds(
-            Integer leftInclusive, Integer rightExclusive,
-            Integer bottomInclusive, Integer topExclusive) {
+    private static <G> G inPool(int parallelism,
+            Function<ForkJoinPool, G> build) {
+        if (parallelism == 1) {
+            return build.apply(null);
+        }
 
-        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
-                Grid.from(Rectangle.of(
-                        leftInclusive, rightExclusive,
-                        bottomInclusive, topExclusive
-                )).iterator(), 0), false);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.submit(() -> build.apply(pool)).join();
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Stream a collection, in parallel if there's a pool to run on.
+     */
+    private static <E> Stream<E> stream(Collection<E> collection,
+            ForkJoinPool pool) {
+        return pool != null ? collection.parallelStream() : collection.stream();
     }
 
     public Set<Rectangle<T>> getRectangles() {
-        return Collections.unmodifiableSet(rectangles);
+        return Collections.unmodifiableSet(rectangles.get());
     }
 
     public PlaneMap<T> getMap() {
-        return map;
+        return indexed.get().map();
     }
 
     public boolean isOverlapping() {
-        return isOverlapping;
+        return isOverlapping.get();
     }
 
+    /**
+     * Get the matrix grid of every covered cell. The map is materialized
+     * from the group's coverage grid on first call, except that a tiled
+     * grid's is a view read from its tiles, so it fits in memory however
+     * many cells are covered.
+     * @return an unmodifiable map from IndexPairs to the number of
+     *          rectangles covering that cell
+     */
     public NavigableMap<IndexPair, Long> getMatrixGrid() {
-        return Collections.unmodifiableNavigableMap(matrixGrid);
+        return matrixGrid.get();
     }
 
+    /**
+     * Get the group's coverage as per-column runs of equal counts, built on
+     * first call. Visits the same cells in the same order as the matrix
+     * grid while taking memory proportional to the number of runs.
+     * @return the group's run-length compressed coverage grid
+     */
+    RunLengthGrid compressedGrid() {
+        return compressedGrid.get();
+    }
+
+    /**
+     * Get which of the group's cells are covered as a bitmap, built on first
+     * call.
+     * @return the group's occupancy bitmap
+     */
+    OccupancyBitmap occupancy() {
+        return occupancy.get();
+    }
+
+    /**
+     * Get the number of 4-connected regions formed by the group's covered
+     * cells. Rectangles touching only at a corner are in separate regions.
+     * @return the number of connected components (0 for an empty group)
+     */
+    public int componentCount() {
+        return componentCount.get();
+    }
+
+    /**
+     * Get the area covered by at least one of the group's rectangles, in
+     * coordinate units. Computed once with an x-sweep over a segment tree of
+     * the y cells, in O(n log n) time without materializing cells.
+     * @return the area of the union of the group's rectangles
+     * @throws UnsupportedOperationException if the group's bounds aren't
+     *          Numbers
+     */
+    public double unionArea() {
+        return numericAreas()[0];
+    }
+
+    /**
+     * Get the area covered by at least two of the group's rectangles, in
+     * coordinate units. Computed alongside unionArea.
+     * @return the area where the group's rectangles overlap
+     * @throws UnsupportedOperationException if the group's bounds aren't
+     *          Numbers
+     */
+    public double overlapArea() {
+        return numericAreas()[1];
+    }
+
+    private double[] numericAreas() {
+        PlaneMap<T> map = getMap();
+        if (map.xSize() > 0 && !(map.xAxis().coordinateAt(0) instanceof Number)) {
+            throw new UnsupportedOperationException(
+                    "Areas require Number bounds");
+        }
+        return areas.get();
+    }
+
+    /**
+     * Get an R-tree over the group's rectangles for point, window and
+     * containment queries. Bulk loaded on first call.
+     * @return the group's spatial index
+     */
+    public RTree<T> spatialIndex() {
+        return spatialIndex.get();
+    }
+
+    /**
+     * Stream every pair of the group's rectangles that overlap, found by a
+     * sweep that runs as the stream is consumed, in O((n + k) log n)
+     * expected time for k pairs. Rectangles that only touch don't overlap.
+     * @return a sequential stream of the overlapping pairs
+     */
+    public Stream<Overlap<T>> overlappingPairs() {
+        return SweepLine.overlappingPairs(List.copyOf(getRectangles()));
+    }
+
+    /**
+     * Call action with every pair of the group's rectangles that overlap,
+     * as overlappingPairs would stream them.
+     * @param action called once with each overlapping pair
+     * @throws IllegalArgumentException containing a RectangleException as its
+     *          cause if action is null
+     */
+    public void forEachOverlappingPair(
+            BiConsumer<Rectangle<T>, Rectangle<T>> action) {
+        RectangleException.verifyNonNull(action);
+
+        List<Rectangle<T>> rectangles = List.copyOf(getRectangles());
+        SweepLine.forEachOverlappingPair(rectangles, (first, second) ->
+                action.accept(rectangles.get(first), rectangles.get(second)));
+    }
+
+    /**
+     * Build a Fenwick tree of the group's coverage counts for point and
+     * window coverage queries. Each call builds a new tree, which can then
+     * be updated with rectangles whose borders are in the group's map.
+     * @return a new coverage tree of the group
+     */
+    public CoverageTree<T> coverageTree() {
+        Indexed<T> indexed = this.indexed.get();
+        return CoverageTree.of(indexed.map(), indexed.indexBounds());
+    }
+
+    /**
+     * Get the connected component id of each of the group's rectangles,
+     * computed from the rectangles rather than the grid (see componentsOf).
+     * @return an unmodifiable map from each rectangle to its component id
+     */
+    public Map<Rectangle<T>, Integer> rectangleComponents() {
+        return rectangleComponents.get();
+    }
+
+    /**
+     * Label the connected regions of the group's covered cells: the
+     * component of every covered cell and rectangle, and the size and
+     * bounding box of every component. Computed on first call.
+     * @return the group's component labeling
+     */
+    public ComponentLabeling<T> componentLabeling() {
+        return labeling.get();
+    }
+
+    /**
+     * Label the connected regions of the group's covered cells in parallel
+     * on a fork-join pool with the given parallelism. Dense grids are
+     * labeled in x-stripes whose components are merged across the seams.
+     * The result is identical to componentLabeling(), but is computed anew
+     * on each call.
+     * @param parallelism the number of threads to label with; 1 labels on
+     *                    this thread
+     * @return the group's component labeling
+     * @throws IllegalArgumentException containing a RectangleException as its
+     *          cause if parallelism < 1
+     */
+    public ComponentLabeling<T> componentLabeling(int parallelism) {
+        RectangleException.verifyBounds(0, parallelism);
+
+        return inPool(parallelism, this::computeLabeling);
+    }
+
+    /**
+     * Whether the group's covered cells form a single connected region.
+     * An empty group is considered connected.
+     * @return true iff componentCount() <= 1
+     */
     boolean isConnected() {
-        return isConnected;
+        return componentCount() <= 1;
     }
 }
@@ -0,0 +1,235 @@
+package edu.cwru.bwp18.polygon;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming reader of int rectangles from a text file, one rectangle per
+ * line as "left right bottom top". Fields are separated by commas and/or
+ * whitespace; blank lines and text after '#' are ignored. The file is read
+ * through a fixed NIO buffer and parsed byte by byte, so no String is
+ * created per line and memory doesn't grow with the file's size.
+ * <br>
+ * Parsed rectangles are collected into batches whose bounds are validated
+ * together before being passed on. Bad lines are skipped and reported in
+ * line order by line number rather than ending the read.
+ */
+final class RectangleReader {
+    /**
+     * Receiver of each valid rectangle read, such as GroupBuilder::add.
+     */
+    @FunctionalInterface
+    interface RectangleSink {
+        void accept(int left, int right, int bottom, int top);
+    }
+
+    /**
+     * A line that was skipped, numbered from 1.
+     */
+    record LineError(long line, String reason) {}
+
+    /**
+     * Totals of a read. Only the first MAX_REPORTED_ERRORS errors are kept.
+     * @param lines the number of lines read
+     * @param rectangles the number of rectangles passed to the sink
+     * @param errorCount the number of lines skipped
+     * @param errors the first skipped lines
+     */
+    record Report(long lines, long rectangles, long errorCount,
+            List<LineError> errors) {}
+
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    static final int BUFFER_SIZE = 1 << 16;
+
+    private static final int BATCH_SIZE = 4096;
+
+    private static final int FIELDS = 4;
+
+    private final RectangleSink sink;
+
+    // Batch of parsed lines awaiting validation; a line that failed to
+    // parse holds its error so errors are reported in line order
+    private final int[] batch          = new int[FIELDS * BATCH_SIZE];
+    private final long[] batchLines    = new long[BATCH_SIZE];
+    private final String[] batchErrors = new String[BATCH_SIZE];
+    private int batchSize;
+
+    private long lines, rectangles, errorCount;
+    private final List<LineError> errors = new ArrayList<>();
+
+    // Parser state, kept across buffer refills
+    private final int[] fields = new int[FIELDS];
+    private int fieldCount;
+    private long value;
+    private boolean inField, negative, hasDigits, inComment;
+    private String lineError;
+
+    private RectangleReader(RectangleSink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Read every rectangle in a file.
+     * @param path the file to read
+     * @param sink receives each valid rectangle in file order
+     * @return the totals of the read
+     * @throws IOException if the file can't be read
+     * @throws IllegalArgumentException containing a RectangleException as its
+     *          cause if path or sink is null
+     */
+    static Report read(Path path, RectangleSink sink) throws IOException {
+        RectangleException.verifyNonNull(path, sink);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel, sink);
+        }
+    }
+
+    /**
+     * Read every rectangle from a channel, which is left open.
+     * @see #read(Path, RectangleSink)
+     */
+    static Report read(ReadableByteChannel channel, RectangleSink sink)
+            throws IOException {
+        RectangleException.verifyNonNull(channel, sink);
+
+        RectangleReader reader = new RectangleReader(sink);
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        byte[] bytes = buffer.array();
+        byte last = '\n';
+
+        while (channel.read(buffer) != -1) {
+            for (int i = 0; i < buffer.position(); i++) {
+                reader.accept(bytes[i]);
+            }
+            if (buffer.position() > 0) {
+                last = bytes[buffer.position() - 1];
+            }
+            buffer.clear();
+        }
+
+        // The last line may lack a newline
+        if (last != '\n') {
+            reader.accept((byte) '\n');
+        }
+        reader.flush();
+
+        return new Report(reader.lines, reader.rectangles, reader.errorCount,
+                List.copyOf(reader.errors));
+    }
+
+    private void accept(byte b) {
+        if (b == '\n') {
+            endLine();
+        }
+        else if (inComment || lineError != null) {
+            return;
+        }
+        else if (b >= '0' && b <= '9') {
+            inField   = true;
+            hasDigits = true;
+            value     = 10 * value + (b - '0');
+            if (value > (negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE)) {
+                lineError = "bound out of int range";
+            }
+        }
+        else if (b == '-' && !inField) {
+            inField  = true;
+            negative = true;
+        }
+        else if (b == ',' || b == ' ' || b == '\t' || b == '\r') {
+            endField();
+        }
+        else if (b == '#') {
+            endField();
+            inComment = true;
+        }
+        else {
+            lineError = "unexpected character '" + (char) (b & 0xFF) + "'";
+        }
+    }
+
+    private void endField() {
+        if (!inField) {
+            return;
+        }
+        if (!hasDigits) {
+            lineError = "sign without digits";
+        }
+        else if (fieldCount == FIELDS) {
+            lineError = "more than " + FIELDS + " fields";
+        }
+        else {
+            fields[fieldCount++] = (int) (negative ? -value : value);
+        }
+
+        inField   = false;
+        negative  = false;
+        hasDigits = false;
+        value     = 0;
+    }
+
+    private void endLine() {
+        lines++;
+        if (lineError == null) {
+            endField();
+        }
+
+        if (lineError == null && fieldCount > 0 && fieldCount < FIELDS) {
+            lineError = "expected " + FIELDS + " fields, found " + fieldCount;
+        }
+        if (lineError != null || fieldCount > 0) {
+            System.arraycopy(fields, 0, batch, FIELDS * batchSize, FIELDS);
+            batchLines[batchSize]  = lines;
+            batchErrors[batchSize] = lineError;
+            if (++batchSize == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        fieldCount = 0;
+        inField    = false;
+        negative   = false;
+        hasDigits  = false;
+        value      = 0;
+        inComment  = false;
+        lineError  = null;
+    }
+
+    /**
+     * Validate the batch's bounds and pass its valid rectangles on.
+     */
+    private void flush() {
+        for (int i = 0; i < batchSize; i++) {
+            int at = FIELDS * i;
+            if (batchErrors[i] != null) {
+                reportError(batchLines[i], batchErrors[i]);
+                batchErrors[i] = null;
+            }
+            else if (batch[at] < batch[at + 1] && batch[at + 2] < batch[at + 3]) {
+                sink.accept(batch[at], batch[at + 1], batch[at + 2], batch[at + 3]);
+                rectangles++;
+            }
+            else {
+                reportError(batchLines[i], batch[at] >= batch[at + 1]
+                        ? "left must be less than right"
+                        : "bottom must be less than top");
+            }
+        }
+        batchSize = 0;
+    }
+
+    private void reportError(long line, String reason) {
+        errorCount++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new LineError(line, reason));
+        }
+    }
+}
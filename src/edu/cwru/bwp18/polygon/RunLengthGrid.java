@@ -0,0 +1,220 @@
+package edu.cwru.bwp18.polygon;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Run-length compressed matrix of how many rectangles cover each cell of a
+ * PlaneMap's index space. Each column is stored as the runs of consecutive
+ * covered cells with the same count, so long, thin or mostly empty layouts
+ * take memory proportional to their runs rather than their cells.
+ * <br>
+ * Runs are stored flat: the runs of column x are runs
+ * columnStarts[x] to columnStarts[x + 1], sorted by start.
+ */
+final class RunLengthGrid implements CellGrid {
+    private final int xSize, ySize;
+
+    private final int[] columnStarts;
+
+    /**
+     * The first y index, number of cells and coverage count of each run.
+     * Counts are always positive; uncovered cells have no run.
+     */
+    private final int[] starts, lengths, counts;
+
+    private RunLengthGrid(int xSize, int ySize, int[] columnStarts,
+            int[] starts, int[] lengths, int[] counts) {
+        assert columnStarts != null && columnStarts.length == xSize + 1;
+        assert starts.length == lengths.length && starts.length == counts.length;
+
+        this.xSize        = xSize;
+        this.ySize        = ySize;
+        this.columnStarts = columnStarts;
+        this.starts       = starts;
+        this.lengths      = lengths;
+        this.counts       = counts;
+    }
+
+    /**
+     * Build the runs of each column by sweeping the rectangles' edges along
+     * x. The y positions where the coverage changes are kept in a sorted map
+     * of deltas, so each column costs O(runs) and no cell is materialized.
+     * @param xSize the number of x indices
+     * @param ySize the number of y indices
+     * @param indexBounds the rectangles' bounds in index space; every bound
+     *                    must be in [0, xSize) or [0, ySize)
+     * @return the run-length grid of the rectangles
+     */
+    static RunLengthGrid of(int xSize, int ySize,
+            List<IntRectangle> indexBounds) {
+        assert indexBounds != null;
+
+        ColumnEvents events = ColumnEvents.of(xSize, indexBounds);
+        NavigableMap<Integer, Integer> deltas = new TreeMap<>();
+        int[] columnStarts = new int[xSize + 1];
+        int[] starts = new int[16], lengths = new int[16], counts = new int[16];
+        int runs = 0;
+
+        for (int x = 0; x < xSize; x++) {
+            for (int e = events.from(x); e < events.to(x); e++) {
+                IntRectangle bounds = indexBounds.get(events.rectangle(e));
+                int delta = events.isLeft(e) ? 1 : -1;
+                addDelta(deltas, bounds.bottom(),  delta);
+                addDelta(deltas, bounds.top(),    -delta);
+            }
+
+            // Every key changes the count, so consecutive keys bound a run
+            int count = 0, previous = 0;
+            for (Map.Entry<Integer, Integer> delta : deltas.entrySet()) {
+                if (count > 0) {
+                    if (runs == starts.length) {
+                        starts  = Arrays.copyOf(starts,  2 * runs);
+                        lengths = Arrays.copyOf(lengths, 2 * runs);
+                        counts  = Arrays.copyOf(counts,  2 * runs);
+                    }
+                    starts[runs]  = previous;
+                    lengths[runs] = delta.getKey() - previous;
+                    counts[runs]  = count;
+                    runs++;
+                }
+                count   += delta.getValue();
+                previous = delta.getKey();
+            }
+            columnStarts[x + 1] = runs;
+        }
+
+        return new RunLengthGrid(xSize, ySize, columnStarts,
+                Arrays.copyOf(starts, runs), Arrays.copyOf(lengths, runs),
+                Arrays.copyOf(counts, runs));
+    }
+
+    private static void addDelta(Map<Integer, Integer> deltas, int y, int delta) {
+        if (deltas.merge(y, delta, Integer::sum) == 0) {
+            deltas.remove(y);
+        }
+    }
+
+    @Override
+    public int xSize() {
+        return xSize;
+    }
+
+    @Override
+    public int ySize() {
+        return ySize;
+    }
+
+    /**
+     * Get the number of runs in the grid.
+     */
+    int runCount() {
+        return starts.length;
+    }
+
+    /**
+     * Get the position of column x's first run; column x's runs end where
+     * column x + 1's start.
+     */
+    int columnStart(int x) {
+        return columnStarts[x];
+    }
+
+    int runStart(int run) {
+        return starts[run];
+    }
+
+    int runLength(int run) {
+        return lengths[run];
+    }
+
+    /**
+     * Get the number of rectangles covering each cell of run.
+     */
+    int runCoverage(int run) {
+        return counts[run];
+    }
+
+    /**
+     * Get the number of rectangles covering cell (x, y) by binary searching
+     * column x's runs.
+     */
+    @Override
+    public int count(int x, int y) {
+        assert 0 <= x && x < xSize && 0 <= y && y < ySize;
+
+        int from = columnStarts[x], to = columnStarts[x + 1];
+        int i = Arrays.binarySearch(starts, from, to, y);
+        int run = i >= 0 ? i : -i - 2;
+        return run >= from && y < starts[run] + lengths[run] ? counts[run] : 0;
+    }
+
+    @Override
+    public boolean isOverlapping() {
+        for (int count : counts) {
+            if (count > 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Count the 4-connected regions of covered cells. Runs are united with
+     * the abutting runs above them in their column and with the runs of the
+     * previous column they share some y range with, found by merging the
+     * two columns' sorted runs.
+     */
+    @Override
+    public int componentCount() {
+        UnionFind components = new UnionFind(starts.length);
+        int count = starts.length;
+
+        for (int x = 0; x < xSize; x++) {
+            for (int run = columnStarts[x] + 1; run < columnStarts[x + 1]; run++) {
+                if (end(run - 1) == starts[run] && components.union(run - 1, run)) {
+                    count--;
+                }
+            }
+
+            if (x == 0) {
+                continue;
+            }
+
+            int left = columnStarts[x - 1], right = columnStarts[x];
+            while (left < columnStarts[x] && right < columnStarts[x + 1]) {
+                if (starts[left] < end(right) && starts[right] < end(left)
+                        && components.union(left, right)) {
+                    count--;
+                }
+
+                if (end(left) <= end(right)) {
+                    left++;
+                }
+                else {
+                    right++;
+                }
+            }
+        }
+
+        return count;
+    }
+
+    private int end(int run) {
+        return starts[run] + lengths[run];
+    }
+
+    @Override
+    public void forEachCovered(CellVisitor visitor) {
+        for (int x = 0; x < xSize; x++) {
+            for (int run = columnStarts[x]; run < columnStarts[x + 1]; run++) {
+                for (int y = starts[run]; y < end(run); y++) {
+                    visitor.visit(x, y, counts[run]);
+                }
+            }
+        }
+    }
+}
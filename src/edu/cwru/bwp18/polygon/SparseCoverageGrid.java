@@ -0,0 +1,125 @@
+package edu.cwru.bwp18.polygon;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Coverage counts of only the covered cells of a PlaneMap's index space,
+ * keyed by IndexPair.key in a LongLongHashMap. Suits grids whose covered
+ * cells are a small fraction of xSize * ySize, including grids too large to
+ * store densely.
+ */
+final class SparseCoverageGrid implements CellGrid {
+    private final int xSize, ySize;
+    private final LongLongHashMap counts;
+
+    /**
+     * Keys of the covered cells in IndexPair order, built on first use.
+     */
+    private final Lazy<long[]> sortedKeys;
+
+    private SparseCoverageGrid(int xSize, int ySize, LongLongHashMap counts) {
+        assert xSize >= 0 && ySize >= 0 && counts != null;
+
+        this.xSize      = xSize;
+        this.ySize      = ySize;
+        this.counts     = counts;
+        this.sortedKeys = Lazy.of(counts::sortedKeys);
+    }
+
+    /**
+     * Count the coverage of each cell covered by the provided rectangles.
+     * Takes time proportional to the rectangles' total area in cells.
+     * @param xSize the number of x indices
+     * @param ySize the number of y indices
+     * @param indexBounds the rectangles' bounds in index space; every bound
+     *                    must be in [0, xSize) or [0, ySize)
+     * @return the sparse coverage grid of the rectangles
+     */
+    static SparseCoverageGrid of(int xSize, int ySize,
+            Collection<IntRectangle> indexBounds) {
+        assert indexBounds != null;
+
+        LongLongHashMap counts = new LongLongHashMap();
+        for (IntRectangle bounds : indexBounds) {
+            assert bounds.right() < xSize && bounds.top() < ySize;
+
+            for (int x = bounds.left(); x < bounds.right(); x++) {
+                for (int y = bounds.bottom(); y < bounds.top(); y++) {
+                    counts.addTo(IndexPair.key(x, y), 1);
+                }
+            }
+        }
+        return new SparseCoverageGrid(xSize, ySize, counts);
+    }
+
+    @Override
+    public int xSize() {
+        return xSize;
+    }
+
+    @Override
+    public int ySize() {
+        return ySize;
+    }
+
+    /**
+     * Get the number of covered cells.
+     */
+    int coveredCount() {
+        return counts.size();
+    }
+
+    @Override
+    public int count(int x, int y) {
+        assert 0 <= x && x < xSize && 0 <= y && y < ySize;
+
+        return (int) counts.get(IndexPair.key(x, y), 0);
+    }
+
+    @Override
+    public boolean isOverlapping() {
+        boolean[] overlapping = {false};
+        counts.forEach((key, count) -> overlapping[0] |= count > 1);
+        return overlapping[0];
+    }
+
+    /**
+     * Count the 4-connected regions of covered cells, joining each covered
+     * cell to its covered left & lower neighbours in a UnionFind over the
+     * positions of the sorted keys.
+     */
+    @Override
+    public int componentCount() {
+        long[] keys = sortedKeys.get();
+        UnionFind components = new UnionFind(keys.length);
+        int count = keys.length;
+
+        for (int i = 0; i < keys.length; i++) {
+            int x = IndexPair.xIndexOf(keys[i]), y = IndexPair.yIndexOf(keys[i]);
+
+            // The cell below is the previous key if it's covered
+            if (y > 0 && i > 0 && keys[i - 1] == IndexPair.key(x, y - 1)
+                    && components.union(i, i - 1)) {
+                count--;
+            }
+
+            if (x > 0) {
+                int left = Arrays.binarySearch(keys, 0, i, IndexPair.key(x - 1, y));
+                if (left >= 0 && components.union(i, left)) {
+                    count--;
+                }
+            }
+        }
+
+        return count;
+    }
+
+    @Override
+    public void forEachCovered(CellVisitor visitor) {
+        for (long key : sortedKeys.get()) {
+            visitor.visit(IndexPair.xIndexOf(key), IndexPair.yIndexOf(key),
+                    (int) counts.get(key, 0));
+        }
+    }
+}
@@ -0,0 +1,434 @@
+package edu.cwru.bwp18.polygon;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Sweep-line algorithms over rectangles with generic Comparable bounds, and
+ * over rectangles' int bounds in a PlaneMap's index space. The sweep moves
+ * left to right over the rectangles' x borders; none of these algorithms
+ * allocate per-cell state.
+ */
+final class SweepLine {
+    private SweepLine() {
+    }
+
+    /**
+     * Determine whether any two of the provided rectangles overlap, i.e.
+     * share some area. Rectangles that only touch along an edge or at a
+     * corner don't overlap. Returns as soon as the first overlap is found.
+     * <br>
+     * Runs in O(n log n): the sweep keeps the y intervals of the rectangles
+     * crossing the sweep line in a TreeMap keyed by bottom. Until an overlap
+     * is found those intervals are disjoint, so only the interval directly
+     * below a new rectangle's top can intersect it.
+     *
+     * @param rectangles the nonnull rectangles to check
+     * @param <S> the type of the rectangles' bounds
+     * @return true iff some pair of rectangles overlaps
+     */
+    static <S extends Comparable<S>> boolean isOverlapping(
+            Collection<Rectangle<S>> rectangles) {
+        assert rectangles != null;
+
+        List<Rectangle<S>> byLeft  = sorted(rectangles, Rectangle::left);
+        List<Rectangle<S>> byRight = sorted(rectangles, Rectangle::right);
+
+        // Bottom -> top of each rectangle crossing the sweep line
+        NavigableMap<S, S> active = new TreeMap<>();
+        int retired = 0;
+
+        for (Rectangle<S> rect : byLeft) {
+            // Retire rectangles ending at or before rect's left border;
+            // rectangles that only touch rect don't overlap it
+            while (retired < byRight.size() && byRight.get(retired).right()
+                    .compareTo(rect.left()) <= 0) {
+                active.remove(byRight.get(retired).bottom());
+                retired++;
+            }
+
+            Map.Entry<S, S> below = active.lowerEntry(rect.top());
+            if (below != null && below.getValue().compareTo(rect.bottom()) > 0) {
+                return true;
+            }
+
+            active.put(rect.bottom(), rect.top());
+        }
+
+        return false;
+    }
+
+    /**
+     * Determine whether any two rectangles of a PlaneMap's index space
+     * overlap, like isOverlapping, without boxing their bounds.
+     * <br>
+     * Index bounds are small and dense, so instead of a TreeMap the sweep
+     * keeps a Fenwick tree counting the active intervals' bottoms and an
+     * array of their tops by bottom. A new interval overlaps an active one
+     * iff some active bottom is inside it or the nearest active bottom
+     * below it has a top above its bottom.
+     *
+     * @param indexBounds the rectangles' bounds in index space
+     * @param ySize the number of y indices; every bottom must be less
+     * @return true iff some pair of rectangles overlaps
+     */
+    static boolean isOverlappingInts(List<IntRectangle> indexBounds, int ySize) {
+        assert indexBounds != null;
+
+        int[] byLeft  = sortedPositions(indexBounds, IntRectangle::left);
+        int[] byRight = sortedPositions(indexBounds, IntRectangle::right);
+
+        int[] bottoms = new int[ySize + 1];
+        int[] tops    = new int[ySize];
+        int retired = 0;
+
+        for (int position : byLeft) {
+            IntRectangle rect = indexBounds.get(position);
+
+            while (retired < byRight.length && indexBounds.get(byRight[retired])
+                    .right() <= rect.left()) {
+                addCount(bottoms, indexBounds.get(byRight[retired]).bottom(), -1);
+                retired++;
+            }
+
+            int below = prefixCount(bottoms, rect.bottom());
+            if (prefixCount(bottoms, rect.top()) > below) {
+                return true;
+            }
+            if (below > 0 && tops[nthPosition(bottoms, below)] > rect.bottom()) {
+                return true;
+            }
+
+            addCount(bottoms, rect.bottom(), 1);
+            tops[rect.bottom()] = rect.top();
+        }
+
+        return false;
+    }
+
+    /**
+     * Add delta to the Fenwick tree's count at position.
+     */
+    private static void addCount(int[] tree, int position, int delta) {
+        for (int i = position + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Get the Fenwick tree's total count at positions below end.
+     */
+    private static int prefixCount(int[] tree, int end) {
+        int count = 0;
+        for (int i = end; i > 0; i -= i & -i) {
+            count += tree[i];
+        }
+        return count;
+    }
+
+    /**
+     * Get the position of the Fenwick tree's n'th counted element, from 1.
+     */
+    private static int nthPosition(int[] tree, int n) {
+        int position = 0;
+        for (int step = Integer.highestOneBit(tree.length); step > 0; step >>= 1) {
+            if (position + step < tree.length && tree[position + step] < n) {
+                position += step;
+                n -= tree[position];
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Consumer of pairs of rectangle positions.
+     */
+    @FunctionalInterface
+    interface PairConsumer {
+        void accept(int first, int second);
+    }
+
+    /**
+     * Report every pair of rectangles that touch along an edge or overlap,
+     * i.e. whose union is connected. Rectangles meeting only at a corner
+     * don't touch.
+     * <br>
+     * Runs in O((n + k) log n) expected time for k candidate pairs: the
+     * sweep keeps the y intervals of the rectangles crossing the sweep line
+     * in an IntervalTree and queries it with each rectangle as it enters.
+     * The candidates are the pairs the tree reports, i.e. the touching
+     * pairs and those meeting only at a corner.
+     *
+     * @param rectangles the nonnull rectangles to check
+     * @param action called once with the positions in rectangles of each
+     *               touching pair
+     * @param <S> the type of the rectangles' bounds
+     */
+    static <S extends Comparable<S>> void forEachTouchingPair(
+            List<Rectangle<S>> rectangles, PairConsumer action) {
+        assert rectangles != null && action != null;
+
+        Integer[] byLeft  = sortedPositions(rectangles, Rectangle::left);
+        Integer[] byRight = sortedPositions(rectangles, Rectangle::right);
+
+        IntervalTree<S> active = new IntervalTree<>();
+        int retired = 0;
+
+        for (int position : byLeft) {
+            Rectangle<S> rect = rectangles.get(position);
+
+            // Retire rectangles ending strictly before rect's left border;
+            // ones ending exactly there may share its left edge
+            while (retired < byRight.length && rectangles.get(byRight[retired])
+                    .right().compareTo(rect.left()) < 0) {
+                Rectangle<S> done = rectangles.get(byRight[retired]);
+                active.remove(done.bottom(), byRight[retired]);
+                retired++;
+            }
+
+            active.forEachIntersecting(rect.bottom(), rect.top(), true, other -> {
+                if (rect.touches(rectangles.get(other))) {
+                    action.accept(other, position);
+                }
+            });
+
+            active.insert(rect.bottom(), rect.top(), position);
+        }
+    }
+
+    /**
+     * Report every pair of rectangles that overlap, i.e. share some area.
+     * <br>
+     * Runs in O((n + k) log n) expected time for k overlapping pairs, like
+     * forEachTouchingPair: a rectangle still crossing the sweep line when
+     * another enters shares some x range with it, so every interval the
+     * IntervalTree reports as sharing some y range is an overlap.
+     *
+     * @param rectangles the nonnull rectangles to check
+     * @param action called once with the positions in rectangles of each
+     *               overlapping pair, the one that starts first along x
+     *               first
+     * @param <S> the type of the rectangles' bounds
+     */
+    static <S extends Comparable<S>> void forEachOverlappingPair(
+            List<Rectangle<S>> rectangles, PairConsumer action) {
+        assert rectangles != null && action != null;
+
+        OverlapSweep<S> sweep = new OverlapSweep<>(rectangles);
+        while (sweep.advance(action)) {
+            // Each step reports the pairs of the rectangle it enters
+        }
+    }
+
+    /**
+     * Stream every pair of rectangles that overlap, as forEachOverlappingPair
+     * reports them. The sweep only advances as the stream is consumed, and
+     * holds at most the pairs found with one entering rectangle, so results
+     * are never materialized as a whole.
+     *
+     * @param rectangles the nonnull rectangles to check
+     * @param <S> the type of the rectangles' bounds
+     * @return a sequential stream of the overlapping pairs
+     */
+    static <S extends Comparable<S>> Stream<Overlap<S>> overlappingPairs(
+            List<Rectangle<S>> rectangles) {
+        assert rectangles != null;
+
+        OverlapSweep<S> sweep = new OverlapSweep<>(rectangles);
+        Spliterator<Overlap<S>> pairs = new Spliterators.AbstractSpliterator<>(
+                Long.MAX_VALUE, Spliterator.NONNULL) {
+            // Pairs found but not yet consumed, as flat position pairs
+            private int[] pending = new int[16];
+            private int from, to;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super Overlap<S>> action) {
+                while (from == to) {
+                    from = 0;
+                    to   = 0;
+                    if (!sweep.advance(this::add)) {
+                        return false;
+                    }
+                }
+
+                action.accept(new Overlap<S>(rectangles.get(pending[from]),
+                        rectangles.get(pending[from + 1])));
+                from += 2;
+                return true;
+            }
+
+            private void add(int first, int second) {
+                if (to == pending.length) {
+                    pending = Arrays.copyOf(pending, 2 * pending.length);
+                }
+                pending[to++] = first;
+                pending[to++] = second;
+            }
+        };
+        return StreamSupport.stream(pairs, false);
+    }
+
+    /**
+     * State of a sweep for overlapping pairs that enters one rectangle at a
+     * time.
+     */
+    private static final class OverlapSweep<S extends Comparable<S>> {
+        private final List<Rectangle<S>> rectangles;
+        private final Integer[] byLeft, byRight;
+        private final IntervalTree<S> active = new IntervalTree<>();
+        private int entered, retired;
+
+        OverlapSweep(List<Rectangle<S>> rectangles) {
+            this.rectangles = rectangles;
+            this.byLeft     = sortedPositions(rectangles, Rectangle::left);
+            this.byRight    = sortedPositions(rectangles, Rectangle::right);
+        }
+
+        /**
+         * Enter the next rectangle, reporting the active rectangles it
+         * overlaps.
+         * @return false iff every rectangle had already entered
+         */
+        boolean advance(PairConsumer action) {
+            if (entered == byLeft.length) {
+                return false;
+            }
+
+            int position = byLeft[entered++];
+            Rectangle<S> rect = rectangles.get(position);
+
+            // Retire rectangles ending at or before rect's left border;
+            // rectangles that only touch rect don't overlap it
+            while (retired < byRight.length && rectangles.get(byRight[retired])
+                    .right().compareTo(rect.left()) <= 0) {
+                Rectangle<S> done = rectangles.get(byRight[retired]);
+                active.remove(done.bottom(), byRight[retired]);
+                retired++;
+            }
+
+            active.forEachIntersecting(rect.bottom(), rect.top(), false,
+                    other -> action.accept(other, position));
+            active.insert(rect.bottom(), rect.top(), position);
+            return true;
+        }
+    }
+
+    /**
+     * Label each rectangle with the id of its connected component, joining
+     * touching pairs in a UnionFind. Ids are numbered from 0 in the order
+     * their components first appear in rectangles.
+     *
+     * @param rectangles the nonnull rectangles to label
+     * @param <S> the type of the rectangles' bounds
+     * @return the component id of each rectangle, by position in rectangles
+     */
+    static <S extends Comparable<S>> int[] components(
+            List<Rectangle<S>> rectangles) {
+        assert rectangles != null;
+
+        UnionFind components = new UnionFind(rectangles.size());
+        forEachTouchingPair(rectangles, components::union);
+
+        int[] rootIds = new int[rectangles.size()];
+        Arrays.fill(rootIds, -1);
+        int[] ids = new int[rectangles.size()];
+        int numComponents = 0;
+
+        for (int i = 0; i < ids.length; i++) {
+            int root = components.find(i);
+            if (rootIds[root] < 0) {
+                rootIds[root] = numComponents++;
+            }
+            ids[i] = rootIds[root];
+        }
+
+        return ids;
+    }
+
+    /**
+     * Count the connected components of rectangles in a PlaneMap's index
+     * space, like components, without boxing their bounds.
+     *
+     * @param indexBounds the rectangles' bounds in index space
+     * @return the number of components (0 if there are no rectangles)
+     */
+    static int componentCountOfInts(List<IntRectangle> indexBounds) {
+        assert indexBounds != null;
+
+        UnionFind components = new UnionFind(indexBounds.size());
+        int[] count = {indexBounds.size()};
+
+        int[] byLeft  = sortedPositions(indexBounds, IntRectangle::left);
+        int[] byRight = sortedPositions(indexBounds, IntRectangle::right);
+        IntervalTree<Integer> active = new IntervalTree<>();
+        int retired = 0;
+
+        for (int position : byLeft) {
+            IntRectangle rect = indexBounds.get(position);
+
+            while (retired < byRight.length && indexBounds.get(byRight[retired])
+                    .right() < rect.left()) {
+                active.remove(indexBounds.get(byRight[retired]).bottom(),
+                        byRight[retired]);
+                retired++;
+            }
+
+            active.forEachIntersecting(rect.bottom(), rect.top(), true, other -> {
+                if (rect.touches(indexBounds.get(other))
+                        && components.union(other, position)) {
+                    count[0]--;
+                }
+            });
+
+            active.insert(rect.bottom(), rect.top(), position);
+        }
+
+        return count[0];
+    }
+
+    /**
+     * Get the positions of int rectangles sorted by the given border, by
+     * sorting each border packed above its position.
+     */
+    private static int[] sortedPositions(List<IntRectangle> rectangles,
+            ToIntFunction<IntRectangle> border) {
+        long[] packed = new long[rectangles.size()];
+        for (int i = 0; i < packed.length; i++) {
+            packed[i] = (long) border.applyAsInt(rectangles.get(i)) << 32 | i;
+        }
+        Arrays.sort(packed);
+
+        int[] positions = new int[packed.length];
+        for (int i = 0; i < packed.length; i++) {
+            positions[i] = (int) packed[i];
+        }
+        return positions;
+    }
+
+    /**
+     * Get the positions of rectangles sorted by the given border.
+     */
+    private static <S extends Comparable<S>> Integer[] sortedPositions(
+            List<Rectangle<S>> rectangles, Function<Rectangle<S>, S> border) {
+        Integer[] positions = new Integer[rectangles.size()];
+        Arrays.setAll(positions, i -> i);
+        Arrays.sort(positions,
+                Comparator.comparing(i -> border.apply(rectangles.get(i))));
+        return positions;
+    }
+
+    /**
+     * Copy rectangles into a list sorted by the given border.
+     */
+    private static <S extends Comparable<S>> List<Rectangle<S>> sorted(
+            Collection<Rectangle<S>> rectangles,
+            Function<Rectangle<S>, S> border) {
+        List<Rectangle<S>> list = new ArrayList<>(rectangles);
+        list.sort(Comparator.comparing(border));
+        return list;
+    }
+}
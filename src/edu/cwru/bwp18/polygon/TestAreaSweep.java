@@ -0,0 +1,52 @@
+package edu.cwru.bwp18.polygon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestAreaSweep {
+    @Test
+    public void testAreas() {
+        Random random = new Random(11);
+
+        for (int trial = 0; trial < 100; trial++) {
+            Set<Rectangle<Double>> rects = new HashSet<>();
+            int numRects = 1 + random.nextInt(8);
+            for (int i = 0; i < numRects; i++) {
+                double left   = random.nextInt(20) / 2.;
+                double bottom = random.nextInt(20) / 2.;
+                rects.add(Rectangle.of(left, left + 0.5 + random.nextInt(8),
+                        bottom, bottom + 0.5 + random.nextInt(8)));
+            }
+
+            // Sum the areas of the covered cells of the matrix grid
+            RectangleGroup<Double> group = RectangleGroup.from(rects);
+            AxisMap<Double> x = group.getMap().xAxis();
+            AxisMap<Double> y = group.getMap().yAxis();
+            double union = 0, overlap = 0;
+            for (Map.Entry<IndexPair, Long> cell : group.getMatrixGrid().entrySet()) {
+                int xIndex = cell.getKey().xIndex(), yIndex = cell.getKey().yIndex();
+                double area = (x.coordinateAt(xIndex + 1) - x.coordinateAt(xIndex))
+                        * (y.coordinateAt(yIndex + 1) - y.coordinateAt(yIndex));
+                union += area;
+                overlap += cell.getValue() > 1 ? area : 0;
+            }
+
+            assertEquals(union, group.unionArea(), 1e-9);
+            assertEquals(overlap, group.overlapArea(), 1e-9);
+        }
+
+        RectangleGroup<Integer> nested = RectangleGroup.from(Set.of(
+                Rectangle.of(0, 10, 0, 10),
+                Rectangle.of(2, 4, 2, 4),
+                Rectangle.of(3, 12, 3, 5)));
+        assertEquals(100 + 2 * 2, nested.unionArea());
+        assertEquals(4 + 7 * 2 - 1, nested.overlapArea());
+
+        assertThrows(UnsupportedOperationException.class,
+                () -> RectangleGroup.from(Set.of(
+                        Rectangle.of("0", "1", "0", "1"))).unionArea());
+    }
+}
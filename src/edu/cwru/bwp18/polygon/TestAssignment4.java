@@ -102,4 +102,22 @@ public class TestAssignment4 {
             }
         }
     }
+
+    @Test
+    public void testSnapshot() {
+        // Nothing is computed until it's first needed, but the group is of
+        // the set as it was when the group was built
+        Set<Rectangle<Integer>> set = new HashSet<>();
+        set.add(Rectangle.of(0, 2, 0, 2));
+        RectangleGroup<Integer> group = RectangleGroup.from(set);
+        RectangleGroup<Integer> parallel = RectangleGroup.from(set, 2);
+
+        set.add(Rectangle.of(1, 3, 1, 3));
+        for (RectangleGroup<Integer> built : List.of(group, parallel)) {
+            assertFalse(built.isOverlapping());
+            assertEquals(1, built.getRectangles().size());
+            assertEquals(1, built.getMatrixGrid().size());
+            assertEquals(1, built.componentCount());
+        }
+    }
 }
@@ -0,0 +1,67 @@
+package edu.cwru.bwp18.polygon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestAxisMap {
+    @Test
+    public void testAxisMap() {
+        List<AxisMap<Integer>> maps = List.of(
+                AxisMap.from(List.of(7, 3, 9, 3, 1)),
+                AxisMap.fromInts(new int[] {7, 3, 9, 3, 1})
+        );
+
+        for (AxisMap<Integer> map : maps) {
+            assertEquals(4, map.size());
+            assertEquals(Optional.of(2), map.indexOf(7));
+            assertEquals(Optional.empty(), map.indexOf(4));
+            assertEquals(Optional.empty(), map.indexOf(null));
+            assertEquals(9, map.coordinateAt(3));
+            assertThrows(IndexOutOfBoundsException.class,
+                    () -> map.coordinateAt(4));
+
+            assertEquals(0, map.rank(1));
+            assertEquals(2, map.rank(4));
+            assertEquals(4, map.rank(10));
+
+            assertEquals(OptionalInt.of(1), map.floorIndex(4));
+            assertEquals(OptionalInt.of(1), map.floorIndex(3));
+            assertEquals(OptionalInt.empty(), map.floorIndex(0));
+            assertEquals(OptionalInt.of(3), map.floorIndex(100));
+
+            assertEquals(OptionalInt.of(2), map.ceilingIndex(4));
+            assertEquals(OptionalInt.of(1), map.ceilingIndex(3));
+            assertEquals(OptionalInt.of(0), map.ceilingIndex(-5));
+            assertEquals(OptionalInt.empty(), map.ceilingIndex(10));
+
+            assertEquals(new AxisMap.IndexRange(1, 3), map.indexRange(2, 8));
+            assertEquals(new AxisMap.IndexRange(1, 4), map.indexRange(3, 9));
+            assertTrue(map.indexRange(4, 6).isEmpty());
+            assertTrue(map.indexRange(8, 2).isEmpty());
+            assertEquals(4, map.indexRange(-10, 10).size());
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> map.floorIndex(null));
+            assertThrows(IllegalArgumentException.class,
+                    () -> map.indexRange(null, 3));
+        }
+
+        AxisMap<String> strings = AxisMap.from(List.of("b", "d", "f"));
+        assertEquals(OptionalInt.of(1), strings.floorIndex("e"));
+        assertEquals("f", strings.coordinateAt(2));
+    }
+
+    @Test
+    public void testEmptyGroup() {
+        RectangleGroup<Double> doubles = RectangleGroup.from(Set.<Rectangle<Double>>of());
+        assertEquals(0, doubles.getMap().xSize());
+        assertEquals(Optional.empty(), doubles.getMap().xIndexOf(1.0));
+        assertEquals(OptionalInt.empty(), doubles.getMap().yAxis().floorIndex(1.0));
+
+        RectangleGroup<String> strings = RectangleGroup.from(Set.<Rectangle<String>>of());
+        assertEquals(Optional.empty(), strings.getMap().yIndexOf("a"));
+    }
+}
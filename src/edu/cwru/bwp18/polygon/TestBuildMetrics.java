@@ -0,0 +1,95 @@
+package edu.cwru.bwp18.polygon;
+
+import edu.cwru.bwp18.polygon.BuildMetrics.Phase;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBuildMetrics {
+    @Test
+    public void testBuildMetrics() {
+        BuildMetrics metrics = new BuildMetrics();
+        BuildMetrics.install(metrics);
+        try {
+            // Properties read after the grid is built are computed from it
+            RectangleGroup<Integer> gridded = RectangleGroup.from(Set.of(
+                    Rectangle.of(0, 2, 0, 2),
+                    Rectangle.of(1, 3, 1, 3)));
+            gridded.getMatrixGrid();
+            gridded.isOverlapping();
+            gridded.componentCount();
+
+            // Otherwise they're computed from the rectangles' index bounds
+            RectangleGroup<Integer> swept =
+                    RectangleGroup.fromInts(List.of(IntRectangle.of(0, 1, 0, 1)));
+            swept.isOverlapping();
+            swept.componentCount();
+        }
+        finally {
+            BuildMetrics.install(null);
+        }
+
+        // Both groups are indexed, but only the first builds a grid
+        BuildMetrics.PhaseStats grid = metrics.stats(Phase.COVERAGE_GRID);
+        assertEquals(1, grid.count());
+        assertEquals(2, grid.rectangles());
+        assertEquals(3 * 3, grid.cells());
+        for (Phase phase : List.of(Phase.AXIS_COMPRESSION, Phase.OVERLAP_SCAN,
+                Phase.CONNECTIVITY)) {
+            BuildMetrics.PhaseStats stats = metrics.stats(phase);
+            assertEquals(2, stats.count(), phase.name());
+            assertEquals(3, stats.rectangles());
+            assertEquals(3 * 3 + 1, stats.cells());
+            assertTrue(stats.maxNanos() <= stats.totalNanos());
+        }
+        assertEquals(metrics.stats(Phase.CONNECTIVITY),
+                metrics.snapshot().get(Phase.CONNECTIVITY));
+
+        // Uninstalled registries stop recording
+        RectangleGroup.from(Set.of(Rectangle.of(0, 1, 0, 1))).isOverlapping();
+        assertEquals(2, metrics.stats(Phase.OVERLAP_SCAN).count());
+
+        metrics.reset();
+        assertEquals(new BuildMetrics.PhaseStats(0, 0, 0, 0, 0, 0),
+                metrics.stats(Phase.AXIS_COMPRESSION));
+        assertThrows(IllegalArgumentException.class, () -> metrics.stats(null));
+    }
+
+    @Test
+    public void testFlightRecorderEvents() throws Exception {
+        Path file = Files.createTempFile("build-phases", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("edu.cwru.bwp18.polygon.BuildPhase").withoutThreshold();
+            recording.start();
+            RectangleGroup<Integer> group = RectangleGroup.from(Set.of(
+                    Rectangle.of(0, 2, 0, 2),
+                    Rectangle.of(2, 3, 0, 1)));
+            group.getMatrixGrid();
+            group.isOverlapping();
+            group.componentCount();
+            recording.stop();
+            recording.dump(file);
+
+            Set<String> phases = new HashSet<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                phases.add(event.getString("phase"));
+                assertEquals(2, event.getInt("rectangleCount"));
+                assertEquals(3, event.getInt("xBorders"));
+                assertEquals(3, event.getInt("yBorders"));
+                assertEquals(2 * 2, event.getLong("cellCount"));
+            }
+            assertEquals(Set.of("AXIS_COMPRESSION", "COVERAGE_GRID",
+                    "OVERLAP_SCAN", "CONNECTIVITY"), phases);
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
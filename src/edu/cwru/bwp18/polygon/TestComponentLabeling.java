@@ -0,0 +1,192 @@
+package edu.cwru.bwp18.polygon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestComponentLabeling {
+    private static List<IntRectangle> randomBounds(Random random) {
+        List<IntRectangle> bounds = new ArrayList<>();
+        int numRects = random.nextInt(12);
+        for (int i = 0; i < numRects; i++) {
+            int left   = random.nextInt(30);
+            int bottom = random.nextInt(30);
+            bounds.add(IntRectangle.of(left, left + 1 + random.nextInt(6),
+                    bottom, bottom + 1 + random.nextInt(6)));
+        }
+        return bounds;
+    }
+
+    private static List<IntRectangle> indexBoundsOf(PlaneMap<Integer> map,
+            List<IntRectangle> bounds) {
+        return bounds.stream().map(rect -> IntRectangle.of(
+                map.xIndexOf(rect.left()).get(), map.xIndexOf(rect.right()).get(),
+                map.yIndexOf(rect.bottom()).get(), map.yIndexOf(rect.top()).get()))
+                .toList();
+    }
+
+    /**
+     * Label grid's covered cells by flood fill, numbering components in
+     * IndexPair order of their first cell.
+     */
+    private static int[][] floodFill(CoverageGrid grid) {
+        int[][] labels = new int[grid.xSize()][grid.ySize()];
+        for (int[] column : labels) {
+            Arrays.fill(column, -1);
+        }
+
+        int next = 0;
+        for (int x = 0; x < grid.xSize(); x++) {
+            for (int y = 0; y < grid.ySize(); y++) {
+                if (grid.count(x, y) == 0 || labels[x][y] >= 0) {
+                    continue;
+                }
+                Deque<int[]> stack = new ArrayDeque<>();
+                stack.push(new int[] {x, y});
+                labels[x][y] = next;
+                while (!stack.isEmpty()) {
+                    int[] cell = stack.pop();
+                    int[][] neighbors = {{cell[0] - 1, cell[1]}, {cell[0] + 1, cell[1]},
+                            {cell[0], cell[1] - 1}, {cell[0], cell[1] + 1}};
+                    for (int[] n : neighbors) {
+                        if (0 <= n[0] && n[0] < grid.xSize()
+                                && 0 <= n[1] && n[1] < grid.ySize()
+                                && grid.count(n[0], n[1]) > 0 && labels[n[0]][n[1]] < 0) {
+                            labels[n[0]][n[1]] = next;
+                            stack.push(n);
+                        }
+                    }
+                }
+                next++;
+            }
+        }
+        return labels;
+    }
+
+    private static void assertLabeling(int[][] expected,
+            List<IntRectangle> indexBounds, ComponentLabeling<Integer> labeling) {
+        Map<Integer, Long> cells = new HashMap<>();
+        Map<Integer, Integer> rectangles = new HashMap<>();
+        for (IntRectangle bounds : indexBounds) {
+            rectangles.merge(expected[bounds.left()][bounds.bottom()], 1, Integer::sum);
+        }
+        for (int x = 0; x < expected.length; x++) {
+            for (int y = 0; y < expected[x].length; y++) {
+                assertEquals(expected[x][y], labeling.label(x, y));
+                if (expected[x][y] >= 0) {
+                    cells.merge(expected[x][y], 1L, Long::sum);
+                }
+            }
+        }
+
+        assertEquals(cells.size(), labeling.componentCount());
+        for (ComponentLabeling.Component<Integer> component : labeling.components()) {
+            assertEquals(cells.get(component.id()), component.cells());
+            assertEquals(rectangles.getOrDefault(component.id(), 0),
+                    component.rectangles());
+        }
+    }
+
+    @Test
+    public void testGrids() {
+        Random random = new Random(25);
+
+        for (int trial = 0; trial < 200; trial++) {
+            List<IntRectangle> bounds = randomBounds(random);
+            PlaneMap<Integer> map = PlaneMap.fromInts(bounds);
+            List<IntRectangle> indexBounds = indexBoundsOf(map, bounds);
+            int xSize = map.xSize(), ySize = map.ySize();
+
+            CoverageGrid dense = CoverageGrid.of(xSize, ySize, indexBounds);
+            int[][] expected = floodFill(dense);
+
+            assertLabeling(expected, indexBounds,
+                    ComponentLabeling.of(map, dense, indexBounds, null));
+            assertLabeling(expected, indexBounds, ComponentLabeling.of(map,
+                    SparseCoverageGrid.of(xSize, ySize, indexBounds), indexBounds, null));
+            try (TiledGrid tiled = TiledGrid.of(xSize, ySize, indexBounds, 4, 3)) {
+                assertLabeling(expected, indexBounds, ComponentLabeling.of(map, tiled,
+                        indexBounds, null));
+            }
+
+            ForkJoinPool pool = new ForkJoinPool(3);
+            try {
+                pool.submit(() -> assertLabeling(expected, indexBounds,
+                        ComponentLabeling.of(map,
+                                CoverageGrid.of(xSize, ySize, indexBounds, pool),
+                                indexBounds, pool))).join();
+
+                // Tiles labeled on the pool, with one-cell tiles so every
+                // cell is a seam
+                for (int tileSize : new int[] {1, 3}) {
+                    try (TiledGrid tiled = TiledGrid.of(xSize, ySize, indexBounds,
+                            tileSize, 2, pool)) {
+                        assertLabeling(expected, indexBounds, ComponentLabeling.of(map,
+                                tiled, indexBounds, pool));
+                    }
+                }
+            }
+            finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void testComponents() {
+        Rectangle<Integer> a = Rectangle.of(0, 2, 0, 2);
+        Rectangle<Integer> b = Rectangle.of(2, 4, 1, 5);
+        Rectangle<Integer> c = Rectangle.of(6, 7, 0, 1);
+        Rectangle<Integer> d = Rectangle.of(1, 3, 6, 8);
+        RectangleGroup<Integer> group = RectangleGroup.from(Set.of(a, b, c, d));
+
+        ComponentLabeling<Integer> labeling = group.componentLabeling();
+        assertSame(labeling, group.componentLabeling());
+        assertEquals(group.componentCount(), labeling.componentCount());
+        assertEquals(3, labeling.componentCount());
+
+        // Ids follow the first cell of each component by x, then y
+        assertEquals(0, labeling.componentOf(a));
+        assertEquals(0, labeling.componentOf(b));
+        assertEquals(1, labeling.componentOf(d));
+        assertEquals(2, labeling.componentOf(c));
+
+        assertEquals(0, labeling.componentAt(3, 4));
+        assertEquals(-1, labeling.componentAt(5, 0));
+        assertEquals(-1, labeling.componentAt(7, 0));
+        assertEquals(-1, labeling.componentAt(-1, 0));
+        assertEquals(2, labeling.componentAt(6, 0));
+
+        ComponentLabeling.Component<Integer> first = labeling.components().get(0);
+        assertEquals(2, first.rectangles());
+        // Cells of the index space, not unit squares
+        assertEquals(4 + 4, first.cells());
+        assertEquals(Set.of(List.of(0, 4, 0, 5)),
+                TestGroupFile.boundsOf(List.of(first.bounds())));
+        assertEquals(1, labeling.components().get(2).rectangles());
+        assertEquals(Set.of(List.of(1, 3, 6, 8)),
+                TestGroupFile.boundsOf(List.of(labeling.components().get(1).bounds())));
+
+        ComponentLabeling<Integer> parallel = group.componentLabeling(3);
+        assertEquals(labeling.components().size(), parallel.components().size());
+        for (Rectangle<Integer> rect : group.getRectangles()) {
+            assertEquals(labeling.componentOf(rect), parallel.componentOf(rect));
+        }
+        assertThrows(IllegalArgumentException.class, () -> group.componentLabeling(0));
+
+        // A group built in parallel labels after its build's pool is gone
+        RectangleGroup<Integer> built = RectangleGroup.from(Set.of(a, b, c, d), 4);
+        ComponentLabeling<Integer> builtLabeling = built.componentLabeling();
+        assertEquals(3, builtLabeling.componentCount());
+        for (Rectangle<Integer> rect : group.getRectangles()) {
+            assertEquals(labeling.componentOf(rect), builtLabeling.componentOf(rect));
+        }
+        assertThrows(IllegalArgumentException.class, () -> labeling.componentOf(null));
+
+        assertEquals(0, RectangleGroup.from(Set.<Rectangle<Integer>>of())
+                .componentLabeling().componentCount());
+    }
+}
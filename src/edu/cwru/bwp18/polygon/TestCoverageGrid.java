@@ -0,0 +1,149 @@
+package edu.cwru.bwp18.polygon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestCoverageGrid {
+    @Test
+    public void testCoverageGrid() {
+        Random random = new Random(293);
+        int xSize = 12, ySize = 9;
+
+        for (int trial = 0; trial < 50; trial++) {
+            List<IntRectangle> bounds = new ArrayList<>();
+            int[][] expected = new int[xSize][ySize];
+
+            int numRects = random.nextInt(8);
+            for (int i = 0; i < numRects; i++) {
+                int left   = random.nextInt(xSize - 1);
+                int right  = left + 1 + random.nextInt(xSize - 1 - left);
+                int bottom = random.nextInt(ySize - 1);
+                int top    = bottom + 1 + random.nextInt(ySize - 1 - bottom);
+                bounds.add(IntRectangle.of(left, right, bottom, top));
+
+                for (int x = left; x < right; x++) {
+                    for (int y = bottom; y < top; y++) {
+                        expected[x][y]++;
+                    }
+                }
+            }
+
+            CoverageGrid grid = CoverageGrid.of(xSize, ySize, bounds);
+            boolean overlapping = false;
+            for (int x = 0; x < xSize; x++) {
+                for (int y = 0; y < ySize; y++) {
+                    assertEquals(expected[x][y], grid.count(x, y));
+                    overlapping |= expected[x][y] > 1;
+                }
+            }
+            assertEquals(overlapping, grid.isOverlapping());
+        }
+
+        assertEquals(0, CoverageGrid.of(0, 0, List.of()).cellCount());
+    }
+
+    /**
+     * Count components of covered cells with a simple flood fill.
+     */
+    static int countComponents(CoverageGrid grid) {
+        boolean[] seen = new boolean[grid.cellCount()];
+        int components = 0;
+
+        for (int start = 0; start < grid.cellCount(); start++) {
+            if (grid.count(start) == 0 || seen[start]) {
+                continue;
+            }
+
+            components++;
+            Deque<IndexPair> stack = new ArrayDeque<>();
+            stack.push(new IndexPair(start / grid.ySize(), start % grid.ySize()));
+            seen[start] = true;
+            while (!stack.isEmpty()) {
+                IndexPair pair = stack.pop();
+                for (Direction direction : Direction.ALL_BOUNDS) {
+                    IndexPair next = pair.increment(direction);
+                    if (next.xIndex() < 0 || next.xIndex() >= grid.xSize()
+                            || next.yIndex() < 0 || next.yIndex() >= grid.ySize()) {
+                        continue;
+                    }
+                    int cell = grid.cell(next.xIndex(), next.yIndex());
+                    if (grid.count(cell) > 0 && !seen[cell]) {
+                        seen[cell] = true;
+                        stack.push(next);
+                    }
+                }
+            }
+        }
+
+        return components;
+    }
+
+    @Test
+    public void testComponentCount() {
+        Random random = new Random(1729);
+
+        for (int trial = 0; trial < 200; trial++) {
+            List<IntRectangle> bounds = new ArrayList<>();
+            int numRects = random.nextInt(10);
+            for (int i = 0; i < numRects; i++) {
+                int left   = random.nextInt(15);
+                int bottom = random.nextInt(15);
+                bounds.add(IntRectangle.of(left, left + 1 + random.nextInt(3),
+                        bottom, bottom + 1 + random.nextInt(3)));
+            }
+
+            CoverageGrid grid = CoverageGrid.of(20, 20, bounds);
+            assertEquals(countComponents(grid), grid.componentCount());
+        }
+
+        // A long staircase used to overflow the stack of the recursive fill
+        List<IntRectangle> stairs = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            stairs.add(IntRectangle.of(i, i + 2, i, i + 2));
+        }
+        RectangleGroup<Integer> group = RectangleGroup.fromInts(stairs);
+        assertEquals(1, group.componentCount());
+        assertTrue(group.isConnected());
+
+        assertEquals(2, RectangleGroup.fromInts(List.of(
+                IntRectangle.of(0, 1, 0, 1),
+                IntRectangle.of(1, 2, 1, 2))).componentCount());
+    }
+
+    @Test
+    public void testParallel() {
+        Random random = new Random(4);
+        List<IntRectangle> rects = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            int left   = random.nextInt(1000);
+            int bottom = random.nextInt(1000);
+            rects.add(IntRectangle.of(left, left + 1 + random.nextInt(40),
+                    bottom, bottom + 1 + random.nextInt(40)));
+        }
+
+        assertThrows(IllegalArgumentException.class,
+                () -> RectangleGroup.fromInts(rects, 0));
+
+        RectangleGroup<Integer> sequential = RectangleGroup.fromInts(rects);
+        for (int parallelism : new int[] {1, 2, 3, 8}) {
+            RectangleGroup<Integer> parallel =
+                    RectangleGroup.fromInts(rects, parallelism);
+            assertEquals(sequential.getMatrixGrid(), parallel.getMatrixGrid());
+            assertEquals(sequential.isOverlapping(), parallel.isOverlapping());
+            assertEquals(sequential.componentCount(), parallel.componentCount());
+        }
+
+        Set<Rectangle<String>> strings = new HashSet<>();
+        // Zero-padded so that Strings sort like the ints
+        rects.forEach(rect -> strings.add(Rectangle.of(
+                "%04d".formatted(rect.left()), "%04d".formatted(rect.right()),
+                "%04d".formatted(rect.bottom()), "%04d".formatted(rect.top()))));
+        RectangleGroup<String> stringGroup = RectangleGroup.from(strings);
+        RectangleGroup<String> parallelStrings = RectangleGroup.from(strings, 5);
+        assertEquals(stringGroup.getMatrixGrid(), parallelStrings.getMatrixGrid());
+        assertEquals(stringGroup.componentCount(), parallelStrings.componentCount());
+    }
+}
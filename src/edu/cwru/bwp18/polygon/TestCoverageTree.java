@@ -0,0 +1,115 @@
+package edu.cwru.bwp18.polygon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestCoverageTree {
+    private static int coverage(Collection<Rectangle<Integer>> rects, int x, int y) {
+        int count = 0;
+        for (Rectangle<Integer> rect : rects) {
+            if (rect.left() <= x && x < rect.right()
+                    && rect.bottom() <= y && y < rect.top()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Sum the coverage of every cell of map that window intersects, probing
+     * each cell at its lower left corner.
+     */
+    private static long windowSum(PlaneMap<Integer> map,
+            Collection<Rectangle<Integer>> rects, Rectangle<Integer> window) {
+        long sum = 0;
+        AxisMap<Integer> x = map.xAxis(), y = map.yAxis();
+        for (int i = 0; i + 1 < x.size(); i++) {
+            for (int j = 0; j + 1 < y.size(); j++) {
+                if (x.coordinateAt(i) < window.right()
+                        && x.coordinateAt(i + 1) > window.left()
+                        && y.coordinateAt(j) < window.top()
+                        && y.coordinateAt(j + 1) > window.bottom()) {
+                    sum += coverage(rects, x.coordinateAt(i), y.coordinateAt(j));
+                }
+            }
+        }
+        return sum;
+    }
+
+    @Test
+    public void testQueries() {
+        Random random = new Random(21);
+        for (Set<Rectangle<Integer>> rects : TestSweepLine.randomSets(21, 100)) {
+            RectangleGroup<Integer> group = RectangleGroup.from(rects);
+            CoverageTree<Integer> tree = group.coverageTree();
+
+            for (int x = -2; x < 60; x += 3) {
+                for (int y = -2; y < 60; y += 3) {
+                    assertEquals(coverage(rects, x, y), tree.coverageAt(x, y));
+                }
+            }
+
+            for (int i = 0; i < 10; i++) {
+                int left = random.nextInt(60) - 2, bottom = random.nextInt(60) - 2;
+                Rectangle<Integer> window = Rectangle.of(left,
+                        left + 1 + random.nextInt(30), bottom,
+                        bottom + 1 + random.nextInt(30));
+                assertEquals(windowSum(group.getMap(), rects, window),
+                        tree.windowSum(window));
+            }
+        }
+    }
+
+    @Test
+    public void testUpdates() {
+        for (Set<Rectangle<Integer>> rects : TestSweepLine.randomSets(2021, 50)) {
+            if (rects.size() < 2) {
+                continue;
+            }
+            RectangleGroup<Integer> group = RectangleGroup.from(rects);
+            CoverageTree<Integer> tree = group.coverageTree();
+
+            // Remove half the rectangles, then add them back twice
+            List<Rectangle<Integer>> remaining = new ArrayList<>(rects);
+            List<Rectangle<Integer>> removed = new ArrayList<>();
+            while (removed.size() < rects.size() / 2) {
+                Rectangle<Integer> rect = remaining.remove(remaining.size() - 1);
+                tree.remove(rect);
+                removed.add(rect);
+            }
+            for (Rectangle<Integer> rect : removed) {
+                tree.add(rect);
+                tree.add(rect);
+            }
+            remaining.addAll(removed);
+            remaining.addAll(removed);
+
+            CoverageTree<Integer> rebuilt = CoverageTree.of(group.getMap(),
+                    remaining.stream().map(group.getMap()::indexBoundsOf).toList());
+            Rectangle<Integer> all = Rectangle.of(-100, 100, -100, 100);
+            assertEquals(rebuilt.windowSum(all), tree.windowSum(all));
+            for (int x = -2; x < 60; x += 2) {
+                for (int y = -2; y < 60; y += 2) {
+                    assertEquals(coverage(remaining, x, y), tree.coverageAt(x, y));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testErrors() {
+        RectangleGroup<Integer> group = RectangleGroup.from(
+                Set.of(Rectangle.of(0, 2, 0, 2)));
+        CoverageTree<Integer> tree = group.coverageTree();
+        assertThrows(IllegalArgumentException.class,
+                () -> tree.add(Rectangle.of(0, 3, 0, 2)));
+        assertThrows(IllegalArgumentException.class, () -> tree.add(null));
+        assertThrows(IllegalArgumentException.class, () -> tree.coverageAt(null, 0));
+
+        assertEquals(0, RectangleGroup.<Integer>from(Set.of()).coverageTree()
+                .windowSum(Rectangle.of(0, 1, 0, 1)));
+    }
+}
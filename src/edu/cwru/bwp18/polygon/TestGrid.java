@@ -0,0 +1,59 @@
+package edu.cwru.bwp18.polygon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestGrid {
+    @Test
+    public void testForEachCell() {
+        Grid grid = Grid.from(Rectangle.of(-2, 3, 4, 7));
+        List<IndexPair> iterated = new ArrayList<>();
+        grid.forEach(iterated::add);
+
+        List<IndexPair> visited = new ArrayList<>();
+        grid.forEachCell((x, y) -> visited.add(new IndexPair(x, y)));
+
+        assertEquals(15, grid.size());
+        assertEquals(iterated, visited);
+        assertEquals(iterated, grid.stream().collect(Collectors.toList()));
+        assertThrows(IllegalArgumentException.class, () -> grid.forEachCell(null));
+    }
+
+    @Test
+    public void testSpliterator() {
+        Grid grid = Grid.fromInts(IntRectangle.of(0, 100, 10, 47));
+        List<IndexPair> expected = new ArrayList<>();
+        grid.forEach(expected::add);
+
+        Spliterator<IndexPair> spliterator = grid.spliterator();
+        assertTrue(spliterator.hasCharacteristics(
+                Spliterator.SIZED | Spliterator.SUBSIZED));
+        assertEquals(100 * 37, spliterator.getExactSizeIfKnown());
+
+        // Splits land on column boundaries and keep exact sizes
+        Spliterator<IndexPair> prefix = spliterator.trySplit();
+        assertNotNull(prefix);
+        assertEquals(50 * 37, prefix.estimateSize());
+        assertEquals(50 * 37, spliterator.estimateSize());
+        List<IndexPair> first = new ArrayList<>();
+        prefix.tryAdvance(first::add);
+        assertEquals(new IndexPair(0, 10), first.get(0));
+        spliterator.tryAdvance(first::add);
+        assertEquals(new IndexPair(50, 10), first.get(1));
+
+        assertEquals(expected, grid.stream().parallel().collect(Collectors.toList()));
+        assertEquals(expected.size(), grid.stream().parallel().count());
+
+        // A single column still splits within itself, down to single cells
+        Spliterator<IndexPair> column = Grid.fromInts(IntRectangle.of(3, 4, 0, 2))
+                .spliterator();
+        Spliterator<IndexPair> cell = column.trySplit();
+        assertEquals(1, cell.estimateSize());
+        assertEquals(1, column.estimateSize());
+        assertNull(column.trySplit());
+    }
+}
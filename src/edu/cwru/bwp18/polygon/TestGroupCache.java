@@ -0,0 +1,117 @@
+package edu.cwru.bwp18.polygon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestGroupCache {
+    private static Set<Rectangle<Integer>> copyOf(Set<Rectangle<Integer>> rects) {
+        List<Rectangle<Integer>> copies = new ArrayList<>();
+        rects.forEach(rect -> copies.add(Rectangle.of(
+                rect.left(), rect.right(), rect.bottom(), rect.top())));
+        Collections.reverse(copies);
+        return new LinkedHashSet<>(copies);
+    }
+
+    @Test
+    public void testHits() {
+        GroupCache<Integer> cache = GroupCache.create(100, 10_000);
+
+        for (Set<Rectangle<Integer>> rects : TestSweepLine.randomSets(23, 100)) {
+            RectangleGroup<Integer> group = cache.group(rects);
+            assertSame(group, cache.group(copyOf(rects)));
+
+            RectangleGroup<Integer> expected = RectangleGroup.from(rects);
+            assertEquals(expected.componentCount(), group.componentCount());
+            assertEquals(expected.isOverlapping(), group.isOverlapping());
+            assertEquals(expected.getMatrixGrid(), group.getMatrixGrid());
+        }
+
+        GroupCache.Stats stats = cache.stats();
+        assertEquals(200, stats.hits() + stats.misses());
+        assertTrue(stats.hits() >= 100);
+        assertTrue(stats.hitRate() >= 0.5);
+        assertEquals(0, stats.evictions());
+
+        // Same bounds counted differently aren't the same set
+        Set<Rectangle<Integer>> once = Set.of(Rectangle.of(0, 1, 0, 1),
+                Rectangle.of(0, 2, 0, 2));
+        Set<Rectangle<Integer>> twice = Set.of(Rectangle.of(0, 1, 0, 1),
+                Rectangle.of(0, 1, 0, 1));
+        assertNotSame(cache.group(once), cache.group(twice));
+
+        // A caller changing its set doesn't change the cached group
+        Set<Rectangle<Integer>> changed = new HashSet<>(Set.of(
+                Rectangle.of(10, 11, 10, 11), Rectangle.of(10, 12, 10, 12)));
+        RectangleGroup<Integer> group = cache.group(changed);
+        Set<Rectangle<Integer>> original = copyOf(changed);
+        changed.add(Rectangle.of(15, 16, 15, 16));
+        assertEquals(2, group.getRectangles().size());
+        assertEquals(1, group.componentCount());
+        assertSame(group, cache.group(original));
+        assertNotSame(group, cache.group(changed));
+
+        cache.clear();
+        assertEquals(new GroupCache.Stats(0, 0, 0, 0, 0, 0, 0), cache.stats());
+    }
+
+    @Test
+    public void testEviction() {
+        GroupCache<Integer> cache = GroupCache.create(2, 5);
+        Set<Rectangle<Integer>> a = Set.of(Rectangle.of(0, 1, 0, 1));
+        Set<Rectangle<Integer>> b = Set.of(Rectangle.of(0, 2, 0, 2),
+                Rectangle.of(5, 6, 5, 6));
+        Set<Rectangle<Integer>> c = Set.of(Rectangle.of(0, 3, 0, 3));
+
+        RectangleGroup<Integer> groupA = cache.group(a);
+        cache.group(b);
+        cache.group(a);
+        cache.group(c);
+
+        // b was least recently used
+        GroupCache.Stats stats = cache.stats();
+        assertEquals(1, stats.evictions());
+        assertEquals(2, stats.groups());
+        assertEquals(2, stats.weight());
+        assertSame(groupA, cache.group(copyOf(a)));
+
+        // Too heavy to cache at all, and pushes out lighter groups by weight
+        Set<Rectangle<Integer>> heavy = new HashSet<>();
+        for (int i = 0; i < 6; i++) {
+            heavy.add(Rectangle.of(i, i + 1, 0, 1));
+        }
+        assertNotSame(cache.group(heavy), cache.group(heavy));
+        Set<Rectangle<Integer>> four = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            four.add(Rectangle.of(0, 1, i, i + 1));
+        }
+        cache.group(four);
+        stats = cache.stats();
+        assertEquals(2, stats.evictions());
+        assertEquals(5, stats.weight());
+        assertEquals(2, stats.groups());
+        assertSame(groupA, cache.group(a));
+    }
+
+    @Test
+    public void testAxisSharing() {
+        GroupCache<Integer> cache = GroupCache.create(10, 100);
+        RectangleGroup<Integer> a = cache.group(Set.of(
+                Rectangle.of(0, 1, 0, 5), Rectangle.of(3, 4, 2, 7)));
+        RectangleGroup<Integer> b = cache.group(Set.of(
+                Rectangle.of(0, 4, 0, 2), Rectangle.of(1, 3, 5, 8)));
+
+        assertNotSame(a, b);
+        assertSame(a.getMap().xAxis(), b.getMap().xAxis());
+        assertNotSame(a.getMap().yAxis(), b.getMap().yAxis());
+        assertEquals(1, cache.stats().axisHits());
+        assertEquals(3, cache.stats().axisMisses());
+        assertEquals(2, b.componentCount());
+
+        assertThrows(IllegalArgumentException.class, () -> cache.group(null));
+        assertThrows(IllegalArgumentException.class, () -> GroupCache.create(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> GroupCache.create(1, 0));
+    }
+}
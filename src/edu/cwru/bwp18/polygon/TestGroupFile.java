@@ -0,0 +1,170 @@
+package edu.cwru.bwp18.polygon;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestGroupFile {
+    /**
+     * Rectangles compare by identity, so compare sets of them by bounds.
+     */
+    static <S extends Comparable<S>> Set<List<S>> boundsOf(
+            Collection<Rectangle<S>> rectangles) {
+        Set<List<S>> bounds = new HashSet<>();
+        rectangles.forEach(rect -> bounds.add(List.of(
+                rect.left(), rect.right(), rect.bottom(), rect.top())));
+        return bounds;
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Path file = Files.createTempFile("group", ".rgrp");
+        try {
+            for (Set<Rectangle<Integer>> rects : TestSweepLine.randomSets(19, 50)) {
+                RectangleGroup<Integer> group = RectangleGroup.from(rects);
+                GroupFile.write(file, group);
+
+                GroupFile<Integer> stored = GroupFile.open(file, Integer.class);
+                assertEquals(rects.size(), stored.size());
+                assertEquals(group.componentCount(), stored.componentCount());
+                assertEquals(group.getMap().xSize(), stored.xSize());
+                assertEquals(group.getMap().yAxis().coordinateAt(1),
+                        stored.yCoordinate(1));
+
+                // Rectangles are stored in the group's iteration order
+                List<Rectangle<Integer>> written = List.copyOf(group.getRectangles());
+                List<Rectangle<Integer>> read = new ArrayList<>();
+                for (int i = 0; i < stored.size(); i++) {
+                    read.add(stored.rectangle(i));
+                    assertEquals(group.getMap().indexBoundsOf(written.get(i)),
+                            stored.indexBounds(i));
+                    assertEquals(group.rectangleComponents().get(written.get(i)),
+                            stored.componentOf(i));
+                }
+                assertEquals(boundsOf(written), boundsOf(read));
+
+                // Random access to the grid, column by column
+                NavigableMap<IndexPair, Long> cells = new TreeMap<>();
+                for (int x = 0; x < stored.xSize(); x++) {
+                    stored.forEachInColumn(x, (cx, cy, count) ->
+                            cells.put(new IndexPair(cx, cy), (long) count));
+                    for (int y = 0; y < stored.ySize(); y++) {
+                        assertEquals(group.getMatrixGrid().getOrDefault(
+                                new IndexPair(x, y), 0L), stored.count(x, y));
+                    }
+                }
+                assertEquals(group.getMatrixGrid(), cells);
+
+                RectangleGroup<Integer> reopened = stored.toGroup();
+                assertEquals(boundsOf(rects), boundsOf(reopened.getRectangles()));
+                assertEquals(group.getMatrixGrid(), reopened.getMatrixGrid());
+                assertEquals(group.isOverlapping(), reopened.isOverlapping());
+
+                // The stored int axes are read back unboxed
+                assertTrue(reopened.getMap().xAxis().isIntegral());
+                assertEquals(group.getMap().ySize(), reopened.getMap().ySize());
+            }
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testBoundTypes() throws IOException {
+        Path file = Files.createTempFile("group", ".rgrp");
+        try {
+            RectangleGroup<Double> doubles = RectangleGroup.from(Set.of(
+                    Rectangle.of(0.5, 1.5, -2.25, 3.0),
+                    Rectangle.of(1.0, 4.0, 0.0, 1.0)));
+            GroupFile.write(file, doubles);
+            GroupFile<Double> stored = GroupFile.open(file, Double.class);
+            assertEquals(boundsOf(doubles.getRectangles()),
+                    boundsOf(stored.toGroup().getRectangles()));
+            assertEquals(doubles.unionArea(), stored.toGroup().unionArea());
+            assertThrows(IOException.class, () -> GroupFile.open(file, Long.class));
+
+            RectangleGroup<Long> longs = RectangleGroup.from(Set.of(
+                    Rectangle.of(1L << 40, (1L << 40) + 1, 0L, 1L)));
+            GroupFile.write(file, longs);
+            assertEquals(boundsOf(longs.getRectangles()), boundsOf(
+                    GroupFile.open(file, Long.class).toGroup().getRectangles()));
+
+            RectangleGroup<Integer> empty = RectangleGroup.from(Set.of());
+            GroupFile.write(file, empty);
+            assertEquals(0, GroupFile.open(file, Integer.class).size());
+
+            assertThrows(UnsupportedOperationException.class, () -> GroupFile.write(
+                    file, RectangleGroup.from(Set.of(Rectangle.of("a", "b", "a", "b")))));
+            assertThrows(IllegalArgumentException.class,
+                    () -> GroupFile.write(null, empty));
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testCorruption() throws IOException {
+        Path file = Files.createTempFile("group", ".rgrp");
+        try {
+            GroupFile.write(file, RectangleGroup.from(Set.of(
+                    Rectangle.of(0, 2, 0, 2), Rectangle.of(1, 3, 1, 3))));
+
+            // Flip a byte of the payload
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                ByteBuffer data = ByteBuffer.allocate(1);
+                channel.read(data, GroupFile.HEADER_SIZE);
+                data.put(0, (byte) (data.get(0) ^ 1)).rewind();
+                channel.write(data, GroupFile.HEADER_SIZE);
+            }
+            assertThrows(IOException.class, () -> GroupFile.open(file, Integer.class));
+            assertEquals(2, GroupFile.open(file, Integer.class, false).size());
+
+            // Header counts that don't match the sections fail on opening,
+            // even without the checksum
+            GroupFile.write(file, RectangleGroup.from(Set.of(
+                    Rectangle.of(0, 2, 0, 2), Rectangle.of(1, 3, 1, 3))));
+            for (int field : new int[] {12, 16, 20, 24}) {
+                byte[] bytes = Files.readAllBytes(file);
+                ByteBuffer header = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(field, header.getInt(field) + 100);
+                Path corrupt = Files.createTempFile("group", ".rgrp");
+                try {
+                    Files.write(corrupt, bytes);
+                    assertThrows(IOException.class,
+                            () -> GroupFile.open(corrupt, Integer.class, false));
+                }
+                finally {
+                    Files.delete(corrupt);
+                }
+            }
+
+            // As does a truncated file whose payload length was fixed up
+            byte[] bytes = Files.readAllBytes(file);
+            byte[] truncated = Arrays.copyOf(bytes, bytes.length - 8);
+            ByteBuffer.wrap(truncated).order(ByteOrder.LITTLE_ENDIAN)
+                    .putLong(32, truncated.length - GroupFile.HEADER_SIZE);
+            Files.write(file, truncated);
+            assertThrows(IOException.class, () -> GroupFile.open(file, Integer.class, false));
+
+            Files.write(file, new byte[GroupFile.HEADER_SIZE]);
+            assertThrows(IOException.class, () -> GroupFile.open(file, Integer.class));
+            Files.write(file, new byte[3]);
+            assertThrows(IOException.class, () -> GroupFile.open(file, Integer.class));
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
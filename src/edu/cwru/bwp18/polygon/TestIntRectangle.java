@@ -0,0 +1,72 @@
+package edu.cwru.bwp18.polygon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestIntRectangle {
+    @Test
+    public void testIntRectangle() {
+        IntRectangle rect = IntRectangle.of(1, 4, 2, 3);
+        assertEquals(1, rect.left());
+        assertEquals(4, rect.right());
+        assertEquals(2, rect.bottom());
+        assertEquals(3, rect.top());
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> IntRectangle.of(4, 1, 2, 3));
+        RectangleException re = (RectangleException) e.getCause();
+        assertEquals(RectangleException.Error.INVALID_BOUNDS, re.getError());
+        assertEquals(4, re.getLesserBound());
+        assertEquals(1, re.getGreaterBound());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> IntRectangle.of(1, 4, 3, 3));
+        assertThrows(IllegalArgumentException.class,
+                () -> IntRectangle.from(null));
+
+        Rectangle<Integer> boxed = rect.toRectangle();
+        assertEquals(4, boxed.right());
+        assertEquals(rect, IntRectangle.from(boxed));
+        assertTrue(IntRectangle.isIntegral(boxed));
+        assertFalse(IntRectangle.isIntegral(Rectangle.of(1., 2., 3., 4.)));
+    }
+
+    @Test
+    public void testIntPath() {
+        List<IntRectangle> ints = List.of(
+                IntRectangle.of(4, 5, 3, 6),
+                IntRectangle.of(1, 4, 5, 6),
+                IntRectangle.of(1, 5, 1, 4),
+                IntRectangle.of(1, 5, 3, 4)
+        );
+
+        assertThrows(IllegalArgumentException.class,
+                () -> RectangleGroup.fromInts(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> PlaneMap.fromInts(null));
+
+        PlaneMap<Integer> map = PlaneMap.fromInts(ints);
+        assertEquals(3, map.xSize());
+        assertEquals(5, map.ySize());
+        assertEquals(Optional.of(2), map.xIndexOf(5));
+        assertEquals(Optional.of(3), map.yIndexOf(5));
+        assertEquals(Optional.empty(), map.xIndexOf(2));
+
+        RectangleGroup<Integer> intGroup = RectangleGroup.fromInts(ints);
+        RectangleGroup<Integer> boxedGroup = RectangleGroup.from(
+                ints.stream().map(IntRectangle::toRectangle)
+                        .collect(Collectors.toSet()));
+
+        assertEquals(boxedGroup.getMatrixGrid(), intGroup.getMatrixGrid());
+        assertEquals(boxedGroup.isOverlapping(), intGroup.isOverlapping());
+        assertEquals(boxedGroup.isConnected(), intGroup.isConnected());
+        assertEquals(4, intGroup.getRectangles().size());
+        assertEquals(Set.copyOf(ints), intGroup.getRectangles().stream()
+                .map(IntRectangle::from)
+                .collect(Collectors.toSet()));
+    }
+}
@@ -0,0 +1,128 @@
+package edu.cwru.bwp18.polygon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestMutableRectangleGroup {
+    @Test
+    public void testMutableRectangleGroup() {
+        assertThrows(IllegalArgumentException.class,
+                () -> MutableRectangleGroup.from(null));
+
+        MutableRectangleGroup<String> strings =
+                MutableRectangleGroup.from(List.<Rectangle<String>>of());
+        assertThrows(IllegalArgumentException.class, () -> strings.add(null));
+        assertEquals(0, strings.componentCount());
+        assertTrue(strings.isConnected());
+
+        Rectangle<String> a = Rectangle.of("0", "3", "0", "3");
+        Rectangle<String> b = Rectangle.of("3", "6", "3", "6");
+        Rectangle<String> c = Rectangle.of("3", "6", "0", "3");
+
+        assertTrue(strings.add(a));
+        assertFalse(strings.add(a));
+        assertTrue(strings.add(b));
+        assertFalse(strings.isConnected());
+        assertTrue(strings.add(c));
+        assertTrue(strings.isConnected());
+        assertFalse(strings.isOverlapping());
+        assertEquals(Optional.of(2), strings.getMap().xIndexOf("6"));
+
+        assertTrue(strings.remove(c));
+        assertFalse(strings.remove(c));
+        assertEquals(2, strings.componentCount());
+        assertEquals(Optional.of(0), strings.getMap().yIndexOf("0"));
+
+        assertTrue(strings.remove(b));
+        assertEquals(Optional.empty(), strings.getMap().xIndexOf("6"));
+        assertEquals(1, strings.componentCount());
+    }
+
+    @Test
+    public void testAgainstRectangleGroup() {
+        Random random = new Random(293);
+        MutableRectangleGroup<Integer> group =
+                MutableRectangleGroup.from(Set.<Rectangle<Integer>>of());
+        List<Rectangle<Integer>> present = new ArrayList<>();
+
+        for (int step = 0; step < 1500; step++) {
+            if (present.isEmpty() || random.nextInt(5) < 3) {
+                int left   = random.nextInt(30);
+                int bottom = random.nextInt(30);
+                Rectangle<Integer> rect = Rectangle.of(
+                        left, left + 1 + random.nextInt(6),
+                        bottom, bottom + 1 + random.nextInt(6));
+                assertTrue(group.add(rect));
+                present.add(rect);
+            }
+            else {
+                Rectangle<Integer> rect =
+                        present.remove(random.nextInt(present.size()));
+                assertTrue(group.remove(rect));
+            }
+
+            assertEquals(present.size(), group.size());
+            if (present.isEmpty()) {
+                continue;
+            }
+
+            RectangleGroup<Integer> snapshot = group.toGroup();
+            assertEquals(snapshot.isOverlapping(), group.isOverlapping());
+            assertEquals(snapshot.componentCount(), group.componentCount());
+            assertEquals(snapshot.getMap().xSize(), group.getMap().xSize());
+            assertEquals(snapshot.getMap().ySize(), group.getMap().ySize());
+
+            int x = random.nextInt(36), y = random.nextInt(36);
+            long expected = present.stream()
+                    .filter(rect -> rect.left() <= x && x < rect.right()
+                            && rect.bottom() <= y && y < rect.top())
+                    .count();
+            assertEquals(expected, group.coverageAt(x, y));
+        }
+    }
+
+    @Test
+    public void testSplits() {
+        // A row of touching rectangles with a branch above the middle one
+        List<Rectangle<Integer>> row = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            row.add(Rectangle.of(i, i + 1, 0, 1));
+        }
+        Rectangle<Integer> branch = Rectangle.of(4, 5, 1, 3);
+        MutableRectangleGroup<Integer> group = MutableRectangleGroup.from(row);
+        group.add(branch);
+        assertEquals(1, group.componentCount());
+
+        // Three pieces, two of which finish before the last search
+        assertTrue(group.remove(row.get(4)));
+        assertEquals(3, group.componentCount());
+        assertTrue(group.remove(row.get(3)));
+        assertEquals(3, group.componentCount());
+        assertTrue(group.add(row.get(4)));
+        assertEquals(2, group.componentCount());
+        assertTrue(group.remove(branch));
+        assertEquals(2, group.componentCount());
+        assertTrue(group.add(row.get(3)));
+        assertEquals(1, group.componentCount());
+
+        // Dense random removals keep splitting and rejoining components
+        Random random = new Random(9);
+        List<Rectangle<Integer>> present = new ArrayList<>(group.getRectangles());
+        for (int step = 0; step < 600; step++) {
+            if (present.isEmpty() || random.nextInt(2) == 0) {
+                int left = random.nextInt(12), bottom = random.nextInt(12);
+                Rectangle<Integer> rect = Rectangle.of(left, left + 1 + random.nextInt(2),
+                        bottom, bottom + 1 + random.nextInt(2));
+                group.add(rect);
+                present.add(rect);
+            }
+            else {
+                group.remove(present.remove(random.nextInt(present.size())));
+            }
+            assertEquals(group.toGroup().componentCount(), group.componentCount());
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package edu.cwru.bwp18.polygon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestOccupancyBitmap {
+    @Test
+    public void testOccupancyBitmap() {
+        Random random = new Random(64);
+
+        // Tall grids so that runs cross word boundaries
+        for (int trial = 0; trial < 200; trial++) {
+            int ySize = 1 + random.nextInt(200);
+            List<IntRectangle> bounds = new ArrayList<>();
+            int numRects = random.nextInt(12);
+            for (int i = 0; i < numRects; i++) {
+                int left   = random.nextInt(15);
+                int bottom = random.nextInt(ySize);
+                bounds.add(IntRectangle.of(left, left + 1 + random.nextInt(3),
+                        bottom, Math.min(ySize, bottom + 1 + random.nextInt(70))));
+            }
+
+            CoverageGrid grid = CoverageGrid.of(20, ySize + 1, bounds);
+            OccupancyBitmap bitmap = OccupancyBitmap.of(20, ySize + 1, bounds);
+            long occupied = 0;
+            for (int x = 0; x < 20; x++) {
+                for (int y = 0; y <= ySize; y++) {
+                    assertEquals(grid.count(x, y) > 0, bitmap.isOccupied(x, y));
+                    occupied += grid.count(x, y) > 0 ? 1 : 0;
+                }
+            }
+            assertEquals(occupied, bitmap.occupiedCount());
+            assertEquals(grid.componentCount(), bitmap.componentCount());
+
+            // The regions partition the covered cells, and each is connected
+            List<OccupancyBitmap.Region> regions = bitmap.regions();
+            assertEquals(bitmap.componentCount(), regions.size());
+            long total = 0;
+            for (OccupancyBitmap.Region region : regions) {
+                assertEquals(1, region.cells().componentCount());
+                total += region.cells().occupiedCount();
+            }
+            assertEquals(occupied, total);
+            for (int x = 0; x < 20; x++) {
+                for (int y = 0; y <= ySize; y++) {
+                    int cellX = x, cellY = y;
+                    assertEquals(bitmap.isOccupied(x, y) ? 1 : 0, regions.stream()
+                            .filter(region -> region.contains(cellX, cellY))
+                            .count());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRegions() {
+        // A spiral-like snake needs sweeps in both directions
+        List<IntRectangle> snake = List.of(
+                IntRectangle.of(0, 10, 0, 1),
+                IntRectangle.of(9, 10, 1, 130),
+                IntRectangle.of(1, 9, 129, 130),
+                IntRectangle.of(1, 2, 2, 129),
+                IntRectangle.of(2, 8, 2, 3),
+                IntRectangle.of(12, 13, 0, 5));
+        OccupancyBitmap bitmap = OccupancyBitmap.of(14, 131, snake);
+        assertEquals(2, bitmap.componentCount());
+        assertEquals(10 + 129 + 8 + 127 + 6,
+                bitmap.regions().get(0).cells().occupiedCount());
+
+        // The small region keeps only its own column and first word
+        OccupancyBitmap.Region small = bitmap.regions().get(1);
+        assertEquals(12, small.left());
+        assertEquals(0, small.bottom());
+        assertEquals(1, small.cells().xSize());
+        assertEquals(64, small.cells().ySize());
+        assertTrue(small.contains(12, 4));
+        assertFalse(small.contains(12, 5));
+        assertFalse(small.contains(9, 4));
+
+        OccupancyBitmap high = OccupancyBitmap.of(4, 300, List.of(
+                IntRectangle.of(0, 1, 0, 1), IntRectangle.of(2, 3, 200, 290)));
+        OccupancyBitmap.Region top = high.regions().get(1);
+        assertEquals(2, top.left());
+        assertEquals(192, top.bottom());
+        assertEquals(300 - 192, top.cells().ySize());
+        assertEquals(90, top.cells().occupiedCount());
+        assertTrue(top.contains(2, 289));
+        assertFalse(top.contains(2, 290));
+
+        RectangleGroup<Integer> group = RectangleGroup.from(Set.of(
+                Rectangle.of(0, 1, 0, 1),
+                Rectangle.of(1, 2, 1, 2)));
+        assertEquals(group.componentCount(), group.occupancy().componentCount());
+        assertEquals(OccupancyBitmap.of(group.compressedGrid()).occupiedCount(),
+                group.occupancy().occupiedCount());
+
+        assertEquals(0, OccupancyBitmap.of(0, 0, List.of()).componentCount());
+    }
+}
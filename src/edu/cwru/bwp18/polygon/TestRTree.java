@@ -0,0 +1,60 @@
+package edu.cwru.bwp18.polygon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestRTree {
+    @Test
+    public void testRTree() {
+        assertThrows(IllegalArgumentException.class, () -> RTree.of(null));
+
+        RTree<String> empty = RTree.of(List.of());
+        assertEquals(0, empty.size());
+        assertTrue(empty.containing("1", "1").isEmpty());
+
+        Random random = new Random(17);
+        Set<Rectangle<Integer>> rects = new HashSet<>();
+        for (int i = 0; i < 3000; i++) {
+            int left   = random.nextInt(1000);
+            int bottom = random.nextInt(1000);
+            rects.add(Rectangle.of(left, left + 1 + random.nextInt(50),
+                    bottom, bottom + 1 + random.nextInt(50)));
+        }
+
+        RTree<Integer> tree = RectangleGroup.from(rects).spatialIndex();
+        assertEquals(rects.size(), tree.size());
+        assertThrows(IllegalArgumentException.class,
+                () -> tree.containing(null, 3));
+        assertThrows(IllegalArgumentException.class,
+                () -> tree.intersecting(null));
+
+        for (int query = 0; query < 200; query++) {
+            int x = random.nextInt(1050), y = random.nextInt(1050);
+            assertEquals(rects.stream()
+                            .filter(r -> r.left() <= x && x < r.right()
+                                    && r.bottom() <= y && y < r.top())
+                            .collect(Collectors.toSet()),
+                    Set.copyOf(tree.containing(x, y)));
+
+            int left = random.nextInt(1000), bottom = random.nextInt(1000);
+            Rectangle<Integer> window = Rectangle.of(left,
+                    left + 1 + random.nextInt(200),
+                    bottom, bottom + 1 + random.nextInt(200));
+            assertEquals(rects.stream()
+                            .filter(window::overlaps)
+                            .collect(Collectors.toSet()),
+                    Set.copyOf(tree.intersecting(window)));
+            assertEquals(rects.stream()
+                            .filter(r -> window.left() <= r.left()
+                                    && r.right() <= window.right()
+                                    && window.bottom() <= r.bottom()
+                                    && r.top() <= window.top())
+                            .collect(Collectors.toSet()),
+                    Set.copyOf(tree.containedIn(window)));
+        }
+    }
+}
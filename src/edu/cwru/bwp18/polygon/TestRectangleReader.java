@@ -0,0 +1,115 @@
+package edu.cwru.bwp18.polygon;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestRectangleReader {
+    private static RectangleReader.Report read(String text, GroupBuilder builder)
+            throws IOException {
+        Path file = Files.createTempFile("rectangles", ".txt");
+        try {
+            Files.writeString(file, text, StandardCharsets.US_ASCII);
+            return RectangleReader.read(file, builder::add);
+        }
+        finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testFormats() throws IOException {
+        GroupBuilder builder = GroupBuilder.create();
+        RectangleReader.Report report = read("""
+                # left right bottom top
+                0 2 0 2
+                1,3,1,3\r
+                \t-4 ,  -1\t-4,-1   # trailing comment
+
+                5 6 5 6""", builder);
+
+        assertEquals(6, report.lines());
+        assertEquals(4, report.rectangles());
+        assertEquals(0, report.errorCount());
+
+        RectangleGroup<Integer> group = builder.build();
+        RectangleGroup<Integer> expected = RectangleGroup.fromInts(List.of(
+                IntRectangle.of(0, 2, 0, 2), IntRectangle.of(1, 3, 1, 3),
+                IntRectangle.of(-4, -1, -4, -1), IntRectangle.of(5, 6, 5, 6)));
+        assertEquals(TestGroupFile.boundsOf(expected.getRectangles()),
+                TestGroupFile.boundsOf(group.getRectangles()));
+        assertEquals(expected.componentCount(), group.componentCount());
+        assertEquals(expected.isOverlapping(), group.isOverlapping());
+        assertEquals(expected.getMap().xSize(), group.getMap().xSize());
+    }
+
+    @Test
+    public void testBadLines() throws IOException {
+        GroupBuilder builder = GroupBuilder.create();
+        RectangleReader.Report report = read("""
+                0 1 0 1
+                0 1 0
+                0 1 0 1 2
+                0 x 0 1
+                0 1 1 0
+                2 1 0 1
+                0 99999999999 0 1
+                - 1 0 1
+                0 1 0 1
+                """, builder);
+
+        assertEquals(9, report.lines());
+        assertEquals(2, report.rectangles());
+        assertEquals(7, report.errorCount());
+        assertEquals(List.of(2L, 3L, 4L, 5L, 6L, 7L, 8L),
+                report.errors().stream().map(RectangleReader.LineError::line).toList());
+        assertEquals("bottom must be less than top", report.errors().get(3).reason());
+        assertEquals(2, builder.size());
+    }
+
+    @Test
+    public void testLargeFile() throws IOException {
+        // Enough lines to cross many buffer refills and batches
+        Random random = new Random(20);
+        List<IntRectangle> rects = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            int left = random.nextInt(1000) - 500, bottom = random.nextInt(1000) - 500;
+            IntRectangle rect = IntRectangle.of(left, left + 1 + random.nextInt(50),
+                    bottom, bottom + 1 + random.nextInt(50));
+            rects.add(rect);
+            text.append(rect.left()).append(',').append(rect.right()).append(' ')
+                    .append(rect.bottom()).append('\t').append(rect.top())
+                    .append('\n');
+            if (i % 1000 == 0) {
+                text.append("bad line\n");
+            }
+        }
+        assertTrue(text.length() > 2 * RectangleReader.BUFFER_SIZE);
+
+        GroupBuilder builder = GroupBuilder.create();
+        RectangleReader.Report report = read(text.toString(), builder);
+        assertEquals(rects.size(), report.rectangles());
+        assertEquals(20, report.errorCount());
+
+        RectangleGroup<Integer> expected = RectangleGroup.fromInts(rects);
+        RectangleGroup<Integer> group = builder.build();
+        assertEquals(expected.componentCount(), group.componentCount());
+        assertEquals(expected.getMap().xSize(), group.getMap().xSize());
+        assertEquals(expected.getMap().ySize(), group.getMap().ySize());
+
+        GroupBuilder borders = GroupBuilder.bordersOnly();
+        read(text.toString(), borders);
+        PlaneMap<Integer> map = borders.map();
+        assertEquals(expected.getMap().xSize(), map.xSize());
+        assertEquals(expected.getMap().yAxis().coordinateAt(7),
+                map.yAxis().coordinateAt(7));
+        assertThrows(IllegalStateException.class, borders::build);
+    }
+}
@@ -0,0 +1,75 @@
+package edu.cwru.bwp18.polygon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestRunLengthGrid {
+    @Test
+    public void testRunLengthGrid() {
+        Random random = new Random(4242);
+
+        for (int trial = 0; trial < 200; trial++) {
+            List<IntRectangle> bounds = new ArrayList<>();
+            int numRects = random.nextInt(10);
+            for (int i = 0; i < numRects; i++) {
+                int left   = random.nextInt(15);
+                int bottom = random.nextInt(15);
+                bounds.add(IntRectangle.of(left, left + 1 + random.nextInt(4),
+                        bottom, bottom + 1 + random.nextInt(4)));
+            }
+
+            CoverageGrid dense = CoverageGrid.of(20, 20, bounds);
+            RunLengthGrid runs = RunLengthGrid.of(20, 20, bounds);
+            for (int x = 0; x < 20; x++) {
+                for (int y = 0; y < 20; y++) {
+                    assertEquals(dense.count(x, y), runs.count(x, y));
+                }
+            }
+            assertEquals(dense.toMatrixGrid(), runs.toMatrixGrid());
+            assertEquals(dense.isOverlapping(), runs.isOverlapping());
+            assertEquals(dense.componentCount(), runs.componentCount());
+        }
+
+        // Visits cells in the matrix grid's order
+        for (Set<Rectangle<Integer>> rects : TestSweepLine.randomSets(12, 50)) {
+            RectangleGroup<Integer> group = RectangleGroup.from(rects);
+            List<IndexPair> visited = new ArrayList<>();
+            group.compressedGrid().forEachCovered((x, y, count) ->
+                    visited.add(new IndexPair(x, y)));
+            assertEquals(new ArrayList<>(group.getMatrixGrid().keySet()), visited);
+        }
+    }
+
+    @Test
+    public void testRuns() {
+        // A tall column stacked from abutting rectangles with one overlap
+        List<IntRectangle> bounds = List.of(
+                IntRectangle.of(0, 1, 0, 500),
+                IntRectangle.of(0, 1, 500, 1000),
+                IntRectangle.of(0, 1, 900, 1000));
+        RunLengthGrid grid = RunLengthGrid.of(2, 1001, bounds);
+
+        assertEquals(2, grid.runCount());
+        assertEquals(1, grid.count(0, 0));
+        assertEquals(1, grid.count(0, 899));
+        assertEquals(2, grid.count(0, 900));
+        assertEquals(0, grid.count(0, 1000));
+        assertEquals(0, grid.count(1, 10));
+        assertTrue(grid.isOverlapping());
+        assertEquals(1, grid.componentCount());
+
+        // Columns touching only at a corner stay separate
+        RunLengthGrid corner = RunLengthGrid.of(3, 3, List.of(
+                IntRectangle.of(0, 1, 0, 1),
+                IntRectangle.of(1, 2, 1, 2)));
+        assertFalse(corner.isOverlapping());
+        assertEquals(2, corner.componentCount());
+
+        RunLengthGrid empty = RunLengthGrid.of(0, 0, List.of());
+        assertEquals(0, empty.runCount());
+        assertEquals(0, empty.componentCount());
+    }
+}
@@ -0,0 +1,105 @@
+package edu.cwru.bwp18.polygon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestSparseCoverageGrid {
+    @Test
+    public void testLongLongHashMap() {
+        LongLongHashMap map = new LongLongHashMap();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(99);
+
+        for (int i = 0; i < 5000; i++) {
+            long key = IndexPair.key(random.nextInt(100), random.nextInt(100));
+            long delta = random.nextInt(5);
+            assertEquals(expected.merge(key, delta, Long::sum), map.addTo(key, delta));
+        }
+        map.put(IndexPair.key(7, 7), -3);
+        expected.put(IndexPair.key(7, 7), -3L);
+
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> {
+            assertTrue(map.containsKey(key));
+            assertEquals(value, map.get(key, 0));
+        });
+        assertFalse(map.containsKey(IndexPair.key(100, 0)));
+        assertEquals(-1, map.get(IndexPair.key(100, 0), -1));
+
+        long[] sorted = map.sortedKeys();
+        assertEquals(expected.size(), sorted.length);
+        for (int i = 1; i < sorted.length; i++) {
+            assertTrue(sorted[i - 1] < sorted[i]);
+        }
+    }
+
+    @Test
+    public void testKeys() {
+        IndexPair pair = new IndexPair(3, 1 << 30);
+        assertEquals(pair, IndexPair.fromKey(pair.key()));
+        assertTrue(IndexPair.key(1, 0) > IndexPair.key(0, Integer.MAX_VALUE));
+        assertTrue(IndexPair.key(2, 5) < IndexPair.key(2, 6));
+    }
+
+    @Test
+    public void testSparseCoverageGrid() {
+        Random random = new Random(31);
+
+        for (int trial = 0; trial < 200; trial++) {
+            List<IntRectangle> bounds = new ArrayList<>();
+            int numRects = random.nextInt(10);
+            for (int i = 0; i < numRects; i++) {
+                int left   = random.nextInt(15);
+                int bottom = random.nextInt(15);
+                bounds.add(IntRectangle.of(left, left + 1 + random.nextInt(4),
+                        bottom, bottom + 1 + random.nextInt(4)));
+            }
+
+            CoverageGrid dense = CoverageGrid.of(20, 20, bounds);
+            SparseCoverageGrid sparse = SparseCoverageGrid.of(20, 20, bounds);
+            for (int x = 0; x < 20; x++) {
+                for (int y = 0; y < 20; y++) {
+                    assertEquals(dense.count(x, y), sparse.count(x, y));
+                }
+            }
+            assertEquals(dense.toMatrixGrid(), sparse.toMatrixGrid());
+            assertEquals(dense.isOverlapping(), sparse.isOverlapping());
+            assertEquals(dense.componentCount(), sparse.componentCount());
+        }
+
+        // Too many cells for a dense grid: a long diagonal of small squares
+        Set<Rectangle<Integer>> diagonal = new HashSet<>();
+        for (int i = 0; i < 50_000; i++) {
+            diagonal.add(Rectangle.of(2 * i, 2 * i + 1, 2 * i, 2 * i + 1));
+        }
+        RectangleGroup<Integer> group = RectangleGroup.from(diagonal);
+        assertEquals(50_000, group.componentCount());
+        assertFalse(group.isOverlapping());
+        assertEquals(50_000, group.getMatrixGrid().size());
+
+        // A bar joining the first two squares by their edges
+        diagonal.add(Rectangle.of(1, 2, 0, 3));
+        group = RectangleGroup.from(diagonal);
+        assertEquals(50_000 - 1, group.componentCount());
+        assertFalse(group.isOverlapping());
+    }
+
+    @Test
+    public void testSparseLimit() {
+        int[] borders = new int[1 << 17];
+        Arrays.setAll(borders, i -> i);
+        PlaneMap<Integer> map = PlaneMap.fromAxes(AxisMap.fromInts(borders),
+                AxisMap.fromInts(borders));
+
+        // Both cover well under 1 / SPARSE_RATIO of the plane, but the
+        // second covers more cells than a sparse grid can hold
+        int side = 1 << 14;
+        assertTrue(RectangleGroup.isSparse(map,
+                List.of(IntRectangle.of(0, side, 0, side))));
+        assertFalse(RectangleGroup.isSparse(map,
+                List.of(IntRectangle.of(0, 2 * side + 1, 0, 2 * side))));
+    }
+}
@@ -0,0 +1,233 @@
+package edu.cwru.bwp18.polygon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestSweepLine {
+    /**
+     * Random sets of small integer rectangles, many of which touch or
+     * overlap.
+     */
+    static List<Set<Rectangle<Integer>>> randomSets(long seed, int numSets) {
+        Random random = new Random(seed);
+        List<Set<Rectangle<Integer>>> sets = new ArrayList<>();
+
+        for (int i = 0; i < numSets; i++) {
+            Set<Rectangle<Integer>> set = new HashSet<>();
+            int numRects = 1 + random.nextInt(6);
+            for (int j = 0; j < numRects; j++) {
+                int left   = random.nextInt(10);
+                int bottom = random.nextInt(10);
+                set.add(Rectangle.of(left, left + 1 + random.nextInt(4),
+                        bottom, bottom + 1 + random.nextInt(4)));
+            }
+            sets.add(set);
+        }
+
+        return sets;
+    }
+
+    @Test
+    public void testAnyOverlap() {
+        HashSet<Rectangle<Integer>> setWithNulls = new HashSet<>();
+        setWithNulls.add(null);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> RectangleGroup.anyOverlap(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> RectangleGroup.anyOverlap(setWithNulls));
+
+        assertFalse(RectangleGroup.anyOverlap(Set.<Rectangle<Integer>>of()));
+        assertFalse(RectangleGroup.anyOverlap(Set.of(
+                Rectangle.of("0", "3", "0", "3"),
+                Rectangle.of("3", "6", "3", "6"))));
+        assertFalse(RectangleGroup.anyOverlap(Set.of(
+                Rectangle.of("0", "3", "0", "3"),
+                Rectangle.of("3", "6", "0", "6"))));
+        assertTrue(RectangleGroup.anyOverlap(Set.of(
+                Rectangle.of("0", "3", "0", "3"),
+                Rectangle.of("1", "6", "2", "6"))));
+        assertTrue(RectangleGroup.anyOverlap(Set.of(
+                Rectangle.of(0., 3., 0., 3.),
+                Rectangle.of(0., 3., 0., 3.))));
+
+        for (Set<Rectangle<Integer>> set : randomSets(293, 500)) {
+            assertEquals(RectangleGroup.from(set).isOverlapping(),
+                    RectangleGroup.anyOverlap(set));
+        }
+    }
+
+    @Test
+    public void testComponentsOf() {
+        assertThrows(IllegalArgumentException.class,
+                () -> RectangleGroup.componentsOf(null));
+
+        Rectangle<String> a = Rectangle.of("0", "3", "0", "3");
+        Rectangle<String> b = Rectangle.of("3", "6", "3", "6");
+        Rectangle<String> c = Rectangle.of("3", "6", "0", "3");
+        Rectangle<String> d = Rectangle.of("8", "9", "8", "9");
+
+        Map<Rectangle<String>, Integer> corner =
+                RectangleGroup.componentsOf(List.of(a, b));
+        assertNotEquals(corner.get(a), corner.get(b));
+
+        Map<Rectangle<String>, Integer> edges =
+                RectangleGroup.componentsOf(List.of(a, b, c, d));
+        assertEquals(edges.get(a), edges.get(b));
+        assertEquals(edges.get(a), edges.get(c));
+        assertNotEquals(edges.get(a), edges.get(d));
+        assertEquals(Set.of(0, 1), Set.copyOf(edges.values()));
+
+        for (Set<Rectangle<Integer>> set : randomSets(1729, 500)) {
+            RectangleGroup<Integer> group = RectangleGroup.from(set);
+            Map<Rectangle<Integer>, Integer> components =
+                    group.rectangleComponents();
+            assertEquals(set, components.keySet());
+            assertEquals(group.componentCount(),
+                    Set.copyOf(components.values()).size());
+        }
+    }
+
+    @Test
+    public void testOverlappingPairs() {
+        Rectangle<String> a = Rectangle.of("0", "3", "0", "3");
+        Rectangle<String> b = Rectangle.of("3", "6", "0", "3");
+        Rectangle<String> c = Rectangle.of("1", "4", "2", "5");
+        List<Overlap<String>> touching = RectangleGroup.from(Set.of(a, b))
+                .overlappingPairs().toList();
+        assertEquals(List.of(), touching);
+
+        List<Overlap<String>> pairs = RectangleGroup.from(Set.of(a, b, c))
+                .overlappingPairs().toList();
+        assertEquals(2, pairs.size());
+        assertEquals(new Overlap<>(a, c), pairs.get(0));
+        assertEquals(new Overlap<>(c, b), pairs.get(1));
+        for (Overlap<String> pair : pairs) {
+            Rectangle<String> shared = pair.intersection();
+            assertEquals(List.of(pair.first() == a ? "1" : "3",
+                            pair.first() == a ? "3" : "4", "2", "3"),
+                    List.of(shared.left(), shared.right(),
+                            shared.bottom(), shared.top()));
+        }
+
+        for (Set<Rectangle<Integer>> set : randomSets(2024, 500)) {
+            Set<Set<Rectangle<Integer>>> expected = new HashSet<>();
+            for (Rectangle<Integer> first : set) {
+                for (Rectangle<Integer> second : set) {
+                    if (first != second && first.overlaps(second)) {
+                        expected.add(Set.of(first, second));
+                    }
+                }
+            }
+
+            RectangleGroup<Integer> group = RectangleGroup.from(set);
+            List<Set<Rectangle<Integer>>> streamed = new ArrayList<>();
+            group.overlappingPairs().forEach(pair -> {
+                assertTrue(pair.first().left() <= pair.second().left());
+                assertTrue(pair.first().overlaps(pair.intersection()));
+                streamed.add(Set.of(pair.first(), pair.second()));
+            });
+            List<Set<Rectangle<Integer>>> called = new ArrayList<>();
+            group.forEachOverlappingPair((first, second) ->
+                    called.add(Set.of(first, second)));
+
+            assertEquals(expected.size(), streamed.size());
+            assertEquals(expected, Set.copyOf(streamed));
+            assertEquals(streamed, called);
+            assertEquals(group.isOverlapping(), !expected.isEmpty());
+        }
+
+        // Consuming part of the stream only sweeps as far as it needs to
+        Set<Rectangle<Integer>> stack = new HashSet<>();
+        for (int i = 0; i < 2000; i++) {
+            stack.add(Rectangle.of(0, 1, 0, 1));
+        }
+        assertEquals(10, RectangleGroup.from(stack).overlappingPairs()
+                .limit(10).count());
+    }
+
+    @Test
+    public void testIntervalTree() {
+        Random random = new Random(42);
+        IntervalTree<Integer> tree = new IntervalTree<>();
+        Map<Integer, int[]> intervals = new HashMap<>();
+
+        for (int step = 0; step < 2000; step++) {
+            if (intervals.isEmpty() || random.nextInt(3) > 0) {
+                int lo = random.nextInt(100);
+                int[] interval = {lo, lo + random.nextInt(10)};
+                tree.insert(interval[0], interval[1], step);
+                intervals.put(step, interval);
+            }
+            else {
+                int id = intervals.keySet().iterator().next();
+                assertTrue(tree.remove(intervals.remove(id)[0], id));
+            }
+            assertEquals(intervals.size(), tree.size());
+
+            int lo = random.nextInt(100), hi = lo + random.nextInt(10);
+            for (boolean closed : new boolean[] {true, false}) {
+                Set<Integer> expected = new HashSet<>();
+                intervals.forEach((id, interval) -> {
+                    boolean hit = closed
+                            ? interval[0] <= hi && interval[1] >= lo
+                            : interval[0] < hi && interval[1] > lo;
+                    if (hit) {
+                        expected.add(id);
+                    }
+                });
+
+                Set<Integer> found = new HashSet<>();
+                tree.forEachIntersecting(lo, hi, closed,
+                        id -> assertTrue(found.add(id)));
+                assertEquals(expected, found);
+            }
+        }
+    }
+
+    @Test
+    public void testLazyProperties() {
+        // Properties of a fresh group come from the index bounds, and must
+        // agree with the same properties computed from a built grid
+        for (Set<Rectangle<Integer>> rects : randomSets(18, 300)) {
+            RectangleGroup<Integer> fresh = RectangleGroup.from(rects);
+            RectangleGroup<Integer> gridded = RectangleGroup.from(rects);
+            gridded.getMatrixGrid();
+
+            assertEquals(gridded.isOverlapping(), fresh.isOverlapping());
+            assertEquals(gridded.componentCount(), fresh.componentCount());
+
+            // The index-space sweeps agree with the sweeps over rectangles
+            PlaneMap<Integer> map = fresh.getMap();
+            List<IntRectangle> indexBounds = rects.stream()
+                    .map(map::indexBoundsOf)
+                    .toList();
+            assertEquals(SweepLine.isOverlapping(rects),
+                    SweepLine.isOverlappingInts(indexBounds, map.ySize()));
+            assertEquals(Set.copyOf(RectangleGroup.componentsOf(rects).values()).size(),
+                    SweepLine.componentCountOfInts(indexBounds));
+        }
+
+        BuildMetrics metrics = new BuildMetrics();
+        BuildMetrics.install(metrics);
+        try {
+            RectangleGroup<Integer> group = RectangleGroup.from(Set.of(
+                    Rectangle.of(0, 2, 0, 2),
+                    Rectangle.of(5, 7, 0, 2)));
+            assertEquals(2, group.getRectangles().size());
+            assertEquals(0, metrics.stats(BuildMetrics.Phase.AXIS_COMPRESSION).count());
+
+            assertEquals(4, group.getMap().xSize());
+            assertFalse(group.isOverlapping());
+            assertEquals(2, group.componentCount());
+            assertEquals(1, metrics.stats(BuildMetrics.Phase.AXIS_COMPRESSION).count());
+            assertEquals(0, metrics.stats(BuildMetrics.Phase.COVERAGE_GRID).count());
+        }
+        finally {
+            BuildMetrics.install(null);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package edu.cwru.bwp18.polygon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestTiledGrid {
+    @Test
+    public void testTiledGrid() {
+        Random random = new Random(2022);
+
+        for (int trial = 0; trial < 200; trial++) {
+            List<IntRectangle> bounds = new ArrayList<>();
+            int numRects = random.nextInt(12);
+            for (int i = 0; i < numRects; i++) {
+                int left   = random.nextInt(20);
+                int bottom = random.nextInt(20);
+                bounds.add(IntRectangle.of(left, left + 1 + random.nextInt(6),
+                        bottom, bottom + 1 + random.nextInt(6)));
+            }
+
+            // Tiny tiles and cache, so regions cross tiles and tiles spill
+            CoverageGrid dense = CoverageGrid.of(27, 29, bounds);
+            try (TiledGrid tiled = TiledGrid.of(27, 29, bounds, 4, 3)) {
+                for (int x = 0; x < 27; x++) {
+                    for (int y = 0; y < 29; y++) {
+                        assertEquals(dense.count(x, y), tiled.count(x, y));
+                    }
+                }
+                assertEquals(dense.toMatrixGrid(), tiled.toMatrixGrid());
+                assertEquals(dense.isOverlapping(), tiled.isOverlapping());
+                assertEquals(dense.componentCount(), tiled.componentCount());
+            }
+        }
+    }
+
+    private static void assertSameMap(NavigableMap<IndexPair, Long> expected,
+            NavigableMap<IndexPair, Long> actual) {
+        assertEquals(expected, actual);
+        assertEquals(List.copyOf(expected.entrySet()), List.copyOf(actual.entrySet()));
+        assertEquals(List.copyOf(expected.keySet()), List.copyOf(actual.keySet()));
+        assertEquals(expected.isEmpty(), actual.isEmpty());
+        if (!expected.isEmpty()) {
+            assertEquals(expected.firstEntry(), actual.firstEntry());
+            assertEquals(expected.lastKey(), actual.lastKey());
+        }
+    }
+
+    @Test
+    public void testMatrixGrid() {
+        Random random = new Random(22);
+
+        for (int trial = 0; trial < 50; trial++) {
+            List<IntRectangle> bounds = new ArrayList<>();
+            int numRects = random.nextInt(8);
+            for (int i = 0; i < numRects; i++) {
+                int left   = random.nextInt(15);
+                int bottom = random.nextInt(15);
+                bounds.add(IntRectangle.of(left, left + 1 + random.nextInt(5),
+                        bottom, bottom + 1 + random.nextInt(5)));
+            }
+
+            NavigableMap<IndexPair, Long> expected =
+                    CoverageGrid.of(21, 23, bounds).toMatrixGrid();
+            try (TiledGrid tiled = TiledGrid.of(21, 23, bounds, 4, 3)) {
+                NavigableMap<IndexPair, Long> actual = tiled.toMatrixGrid();
+                assertSameMap(expected, actual);
+                assertSameMap(expected.descendingMap(), actual.descendingMap());
+                assertThrows(UnsupportedOperationException.class,
+                        () -> actual.put(new IndexPair(0, 0), 1L));
+                assertThrows(UnsupportedOperationException.class, actual::pollFirstEntry);
+
+                for (int x = -1; x <= 22; x++) {
+                    for (int y = -1; y <= 24; y++) {
+                        IndexPair key = new IndexPair(x, y);
+                        assertEquals(expected.get(key), actual.get(key));
+                        assertEquals(expected.ceilingEntry(key), actual.ceilingEntry(key));
+                        assertEquals(expected.floorEntry(key), actual.floorEntry(key));
+                        assertEquals(expected.higherKey(key), actual.higherKey(key));
+                        assertEquals(expected.lowerKey(key), actual.lowerKey(key));
+                        assertEquals(expected.descendingMap().ceilingKey(key),
+                                actual.descendingMap().ceilingKey(key));
+                        assertEquals(expected.descendingMap().higherKey(key),
+                                actual.descendingMap().higherKey(key));
+                    }
+                }
+
+                for (int i = 0; i < 20; i++) {
+                    IndexPair a = new IndexPair(random.nextInt(23) - 1, random.nextInt(25) - 1);
+                    IndexPair b = new IndexPair(random.nextInt(23) - 1, random.nextInt(25) - 1);
+                    IndexPair low = a.compareTo(b) <= 0 ? a : b, high = low == a ? b : a;
+                    boolean lowInclusive = random.nextBoolean();
+                    boolean highInclusive = random.nextBoolean();
+
+                    assertSameMap(expected.headMap(high, highInclusive),
+                            actual.headMap(high, highInclusive));
+                    assertSameMap(expected.tailMap(low, lowInclusive),
+                            actual.tailMap(low, lowInclusive));
+                    assertSameMap(expected.subMap(low, lowInclusive, high, highInclusive),
+                            actual.subMap(low, lowInclusive, high, highInclusive));
+                    assertSameMap(expected.descendingMap().subMap(high, highInclusive, low, lowInclusive),
+                            actual.descendingMap().subMap(high, highInclusive, low, lowInclusive));
+                    assertSameMap(expected.descendingMap().headMap(low, lowInclusive),
+                            actual.descendingMap().headMap(low, lowInclusive));
+                    assertEquals(List.copyOf(expected.descendingKeySet().tailSet(low)),
+                            List.copyOf(actual.descendingKeySet().tailSet(low)));
+                    if (a.compareTo(b) != 0) {
+                        assertThrows(IllegalArgumentException.class,
+                                () -> actual.subMap(high, low));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCache() {
+        List<IntRectangle> bounds = List.of(
+                IntRectangle.of(0, 40, 0, 40),
+                IntRectangle.of(50, 60, 50, 60));
+
+        try (TiledGrid grid = TiledGrid.of(64, 64, bounds, 16, 4)) {
+            assertEquals(new TiledGrid.TileStats(0, 0, 0, 0, 0, 0), grid.stats());
+
+            assertEquals(1, grid.count(0, 0));
+            assertEquals(1, grid.count(1, 1));
+            assertEquals(0, grid.count(40, 40));
+            assertEquals(0, grid.count(20, 60));
+            TiledGrid.TileStats stats = grid.stats();
+            assertEquals(1, stats.hits());
+            assertEquals(3, stats.misses());
+            assertEquals(2, stats.computed());
+
+            // Empty tiles are remembered rather than recomputed
+            assertEquals(0, grid.count(21, 61));
+            assertEquals(2, grid.stats().hits());
+            assertEquals(3, grid.stats().misses());
+
+            // 16 tiles through a cache of 4 spill and reload tiles
+            assertEquals(2, grid.componentCount());
+            assertEquals(2, grid.componentCount());
+            stats = grid.stats();
+            assertEquals(10, stats.computed());
+            assertTrue(stats.spills() > 0);
+            assertTrue(stats.loads() > 0);
+            assertTrue(stats.evictions() >= stats.spills());
+        }
+
+        // A column of 8 tiles through a cache of 2 fetches each tile once
+        // per visit rather than once per x
+        try (TiledGrid grid = TiledGrid.of(16, 128, List.of(
+                IntRectangle.of(0, 16, 0, 128)), 16, 2)) {
+            long[] cells = new long[1];
+            grid.forEachCovered((x, y, count) -> cells[0]++);
+            assertEquals(16 * 128, cells[0]);
+            TiledGrid.TileStats stats = grid.stats();
+            assertEquals(8, stats.computed());
+            assertEquals(0, stats.loads());
+            assertEquals(8, stats.hits() + stats.misses());
+        }
+    }
+
+    @Test
+    public void testParallelFill() {
+        List<IntRectangle> bounds = List.of(
+                IntRectangle.of(0, 40, 0, 40),
+                IntRectangle.of(50, 60, 50, 60));
+        CoverageGrid dense = CoverageGrid.of(64, 64, bounds);
+
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try (TiledGrid grid = TiledGrid.of(64, 64, bounds, 16, 4, pool)) {
+            // Every non-empty tile is computed up front, and spilled
+            assertEquals(10, grid.stats().computed());
+            assertTrue(grid.stats().spills() > 0);
+
+            for (int x = 0; x < 64; x++) {
+                for (int y = 0; y < 64; y++) {
+                    assertEquals(dense.count(x, y), grid.count(x, y));
+                }
+            }
+            assertEquals(2, grid.componentCount());
+            assertEquals(10, grid.stats().computed());
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testGroup() {
+        // Long stripes: more cells than a dense grid is allowed to hold.
+        // Building in parallel computes overlap & components on the grid
+        int n = 9000;
+        List<IntRectangle> rects = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            rects.add(IntRectangle.of(i, i + 1, 0, n));
+            rects.add(IntRectangle.of(0, n, i, i + 1));
+        }
+        RectangleGroup<Integer> group = RectangleGroup.fromInts(rects, 2);
+        assertTrue((long) group.getMap().xSize() * group.getMap().ySize()
+                > RectangleGroup.TILED_CELLS);
+
+        assertTrue(group.isOverlapping());
+        assertEquals(1, group.componentCount());
+
+        // The matrix grid is read from the tiles rather than copied
+        NavigableMap<IndexPair, Long> matrixGrid = group.getMatrixGrid();
+        assertEquals(2L, matrixGrid.get(new IndexPair(5, 7)));
+        assertEquals(new IndexPair(0, 0), matrixGrid.firstKey());
+        assertEquals(new IndexPair(n - 1, n - 1), matrixGrid.lastKey());
+        assertEquals(n, matrixGrid.subMap(new IndexPair(3, 0), new IndexPair(4, 0)).size());
+    }
+}
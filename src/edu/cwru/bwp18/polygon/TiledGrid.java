@@ -0,0 +1,575 @@
+package edu.cwru.bwp18.polygon;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Coverage counts of a PlaneMap's index space split into square tiles of
+ * tileSize x tileSize cells, for grids too large to hold in memory. Tiles
+ * are computed on demand from the rectangles crossing them and kept in an
+ * LRU cache of a bounded number of tiles; evicted tiles are spilled to a
+ * scratch file and read back rather than recomputed.
+ * <br>
+ * Within a tile, cell (x, y) is stored at (x - left) * tileSize +
+ * (y - bottom), so scanning a tile follows IndexPair order. The cache is
+ * guarded by the grid's lock, but tiles are computed outside it, so
+ * several threads can compute tiles at once.
+ */
+final class TiledGrid implements CellGrid, AutoCloseable {
+    /**
+     * Default number of cells along each side of a tile.
+     */
+    static final int TILE_SIZE = 128;
+
+    /**
+     * Default number of tiles kept in memory.
+     */
+    static final int CACHE_TILES = 256;
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    /**
+     * Hits, misses, tiles computed from rectangles, tiles written to and
+     * read from the scratch file, and tiles evicted from the cache.
+     */
+    record TileStats(long hits, long misses, long computed, long spills,
+            long loads, long evictions) {}
+
+    private final int xSize, ySize, tileSize, xTiles, yTiles;
+
+    private final List<IntRectangle> indexBounds;
+
+    /**
+     * The rectangles crossing tile column tx are
+     * columnRectangles[columnStarts[tx]] to columnRectangles[columnStarts[tx + 1]].
+     */
+    private final int[] columnStarts, columnRectangles;
+
+    private final LinkedHashMap<Integer, int[]> cache;
+
+    /**
+     * Shared tile of a region no rectangle crosses; never cached or spilled.
+     */
+    private final int[] emptyTile;
+
+    /**
+     * Tiles known to be crossed by no rectangle, so they aren't recomputed.
+     */
+    private final BitSet empty = new BitSet();
+
+    /**
+     * Tiles that have been written to the scratch file.
+     */
+    private final BitSet spilled = new BitSet();
+
+    private final Scratch scratch = new Scratch();
+    private final Cleaner.Cleanable cleanable;
+
+    private long hits, misses, computed, spills, loads, evictions;
+
+    private TiledGrid(int xSize, int ySize, int tileSize, int cacheTiles,
+            List<IntRectangle> indexBounds) {
+        assert xSize >= 0 && ySize >= 0 && tileSize > 0 && cacheTiles > 0;
+
+        this.xSize       = xSize;
+        this.ySize       = ySize;
+        this.tileSize    = tileSize;
+        this.xTiles      = (xSize + tileSize - 1) / tileSize;
+        this.yTiles      = (ySize + tileSize - 1) / tileSize;
+        this.indexBounds = indexBounds;
+        this.emptyTile   = new int[tileSize * tileSize];
+
+        // Tiles are keyed by int
+        Math.multiplyExact(xTiles, yTiles);
+
+        // Bucket the rectangles by the tile columns they cross
+        this.columnStarts = new int[xTiles + 1];
+        for (IntRectangle bounds : indexBounds) {
+            for (int tx = bounds.left() / tileSize; tx <= (bounds.right() - 1) / tileSize; tx++) {
+                columnStarts[tx + 1]++;
+            }
+        }
+        for (int tx = 0; tx < xTiles; tx++) {
+            columnStarts[tx + 1] += columnStarts[tx];
+        }
+        this.columnRectangles = new int[columnStarts[xTiles]];
+        int[] next = Arrays.copyOf(columnStarts, xTiles);
+        for (int i = 0; i < indexBounds.size(); i++) {
+            IntRectangle bounds = indexBounds.get(i);
+            for (int tx = bounds.left() / tileSize; tx <= (bounds.right() - 1) / tileSize; tx++) {
+                columnRectangles[next[tx]++] = i;
+            }
+        }
+
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, int[]> eldest) {
+                if (size() <= cacheTiles) {
+                    return false;
+                }
+                evict(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+        };
+        this.cleanable = CLEANER.register(this, scratch);
+    }
+
+    /**
+     * Create a tiled grid of the provided rectangles with the default tile
+     * and cache sizes. No tile is computed until it's needed.
+     * @param xSize the number of x indices
+     * @param ySize the number of y indices
+     * @param indexBounds the rectangles' bounds in index space; every bound
+     *                    must be in [0, xSize) or [0, ySize)
+     * @return the tiled grid of the rectangles
+     */
+    static TiledGrid of(int xSize, int ySize, List<IntRectangle> indexBounds) {
+        return of(xSize, ySize, indexBounds, TILE_SIZE, CACHE_TILES, null);
+    }
+
+    /**
+     * Create a tiled grid of the provided rectangles with the default tile
+     * and cache sizes, computing every tile now on pool.
+     * @param pool the pool to compute tiles on, or null to leave each tile
+     *             until it's needed
+     * @see #of(int, int, List, int, int, ForkJoinPool)
+     */
+    static TiledGrid of(int xSize, int ySize, List<IntRectangle> indexBounds,
+            ForkJoinPool pool) {
+        return of(xSize, ySize, indexBounds, TILE_SIZE, CACHE_TILES, pool);
+    }
+
+    /**
+     * Create a tiled grid of the provided rectangles.
+     * @param tileSize the number of cells along each side of a tile
+     * @param cacheTiles the number of tiles to keep in memory
+     * @see #of(int, int, List)
+     */
+    static TiledGrid of(int xSize, int ySize, List<IntRectangle> indexBounds,
+            int tileSize, int cacheTiles) {
+        return of(xSize, ySize, indexBounds, tileSize, cacheTiles, null);
+    }
+
+    /**
+     * Create a tiled grid of the provided rectangles. With a pool, the tile
+     * columns are computed in parallel on it before returning; tiles that
+     * don't fit in the cache are spilled as they're evicted, so later scans
+     * read them back instead of computing them one at a time.
+     * @param tileSize the number of cells along each side of a tile
+     * @param cacheTiles the number of tiles to keep in memory
+     * @param pool the pool to compute tiles on, or null to leave each tile
+     *             until it's needed
+     * @see #of(int, int, List)
+     */
+    static TiledGrid of(int xSize, int ySize, List<IntRectangle> indexBounds,
+            int tileSize, int cacheTiles, ForkJoinPool pool) {
+        assert indexBounds != null;
+
+        TiledGrid grid = new TiledGrid(xSize, ySize, tileSize, cacheTiles, indexBounds);
+        if (pool != null) {
+            // Parallel streams run on the pool they're started from
+            pool.submit(() -> IntStream.range(0, grid.xTiles).parallel()
+                    .forEach(tx -> {
+                        for (int ty = 0; ty < grid.yTiles; ty++) {
+                            grid.tile(tx, ty);
+                        }
+                    })).join();
+        }
+        return grid;
+    }
+
+    @Override
+    public int xSize() {
+        return xSize;
+    }
+
+    @Override
+    public int ySize() {
+        return ySize;
+    }
+
+    int tileSize() {
+        return tileSize;
+    }
+
+    int xTiles() {
+        return xTiles;
+    }
+
+    int yTiles() {
+        return yTiles;
+    }
+
+    synchronized TileStats stats() {
+        return new TileStats(hits, misses, computed, spills, loads, evictions);
+    }
+
+    /**
+     * Get tile (tx, ty) from the cache, the scratch file, or by computing it
+     * outside the lock. Cell (x, y) of the tile is at x * tileSize + y; the
+     * array may be shared and must not be modified.
+     */
+    int[] tile(int tx, int ty) {
+        int key = tx * yTiles + ty;
+        int[] tile = stored(key);
+        return tile != null ? tile : store(key, compute(tx, ty));
+    }
+
+    /**
+     * Get tile key if it's known to be empty, cached or spilled, or null if
+     * it has to be computed.
+     */
+    private synchronized int[] stored(int key) {
+        if (empty.get(key)) {
+            hits++;
+            return emptyTile;
+        }
+        int[] tile = cache.get(key);
+        if (tile != null) {
+            hits++;
+            return tile;
+        }
+
+        misses++;
+        if (spilled.get(key)) {
+            tile = scratch.read(key, tileSize * tileSize);
+            loads++;
+            cache.put(key, tile);
+        }
+        return tile;
+    }
+
+    /**
+     * Cache a newly computed tile, or mark it empty if it's null, unless
+     * another thread stored it first.
+     * @return the stored tile
+     */
+    private synchronized int[] store(int key, int[] tile) {
+        if (tile == null) {
+            empty.set(key);
+            return emptyTile;
+        }
+
+        int[] raced = cache.get(key);
+        if (raced != null || spilled.get(key)) {
+            return raced != null ? raced : tile;
+        }
+        computed++;
+        cache.put(key, tile);
+        return tile;
+    }
+
+    /**
+     * Count the tile's cells with a difference array over each column of
+     * the rectangles crossing it.
+     * @return the tile, or null if no rectangle crosses it
+     */
+    private int[] compute(int tx, int ty) {
+        int left = tx * tileSize, bottom = ty * tileSize;
+        int right = left + tileSize, top = bottom + tileSize;
+
+        int[] tile = null;
+        for (int r = columnStarts[tx]; r < columnStarts[tx + 1]; r++) {
+            IntRectangle bounds = indexBounds.get(columnRectangles[r]);
+            int from = Math.max(bounds.bottom(), bottom) - bottom;
+            int to   = Math.min(bounds.top(), top) - bottom;
+            if (from >= to) {
+                continue;
+            }
+
+            if (tile == null) {
+                tile = new int[tileSize * tileSize];
+            }
+            int xFrom = Math.max(bounds.left(), left), xTo = Math.min(bounds.right(), right);
+            for (int x = xFrom; x < xTo; x++) {
+                int column = (x - left) * tileSize;
+                tile[column + from]++;
+                if (to < tileSize) {
+                    tile[column + to]--;
+                }
+            }
+        }
+
+        if (tile != null) {
+            for (int column = 0; column < tile.length; column += tileSize) {
+                for (int y = 1; y < tileSize; y++) {
+                    tile[column + y] += tile[column + y - 1];
+                }
+            }
+        }
+        return tile;
+    }
+
+    /**
+     * Spill an evicted tile unless the scratch file already holds it; tiles
+     * never change once computed.
+     */
+    private void evict(int key, int[] tile) {
+        evictions++;
+        if (!spilled.get(key)) {
+            scratch.write(key, tile);
+            spilled.set(key);
+            spills++;
+        }
+    }
+
+    @Override
+    public int count(int x, int y) {
+        assert 0 <= x && x < xSize && 0 <= y && y < ySize;
+
+        int[] tile = tile(x / tileSize, y / tileSize);
+        return tile[x % tileSize * tileSize + y % tileSize];
+    }
+
+    @Override
+    public boolean isOverlapping() {
+        for (int tx = 0; tx < xTiles; tx++) {
+            for (int ty = 0; ty < yTiles; ty++) {
+                for (int count : tile(tx, ty)) {
+                    if (count > 1) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Count the 4-connected regions of covered cells one tile at a time.
+     * Each tile's regions are labeled on their own and joined with the
+     * labels along the right edge of the tile column to its left and the
+     * top edge of the tile below, so only one tile's cells and one column
+     * of edge labels are held at once.
+     */
+    @Override
+    public int componentCount() {
+        UnionFind regions = new UnionFind(0);
+        int count = 0;
+
+        // Labels of the last x of the previous and current tile columns and
+        // of the top row of the tile below; -1 where uncovered
+        int[] leftEdge = new int[ySize], rightEdge = new int[ySize];
+        int[] topRow = new int[tileSize];
+        int[] labels = new int[tileSize * tileSize];
+        Arrays.fill(leftEdge, -1);
+
+        for (int tx = 0; tx < xTiles; tx++) {
+            int width = Math.min(tileSize, xSize - tx * tileSize);
+
+            for (int ty = 0; ty < yTiles; ty++) {
+                int bottom = ty * tileSize;
+                int height = Math.min(tileSize, ySize - bottom);
+                count += labelTile(tile(tx, ty), width, height, regions, labels);
+
+                for (int y = 0; y < height; y++) {
+                    int label = labels[y];
+                    if (label >= 0 && leftEdge[bottom + y] >= 0
+                            && regions.union(label, leftEdge[bottom + y])) {
+                        count--;
+                    }
+                    rightEdge[bottom + y] = labels[(width - 1) * tileSize + y];
+                }
+                for (int x = 0; x < width; x++) {
+                    int label = labels[x * tileSize];
+                    if (ty > 0 && label >= 0 && topRow[x] >= 0
+                            && regions.union(label, topRow[x])) {
+                        count--;
+                    }
+                    topRow[x] = labels[x * tileSize + height - 1];
+                }
+            }
+
+            int[] swap = leftEdge;
+            leftEdge  = rightEdge;
+            rightEdge = swap;
+        }
+
+        return count;
+    }
+
+    /**
+     * Label the covered cells of tile with new elements of regions, joining
+     * the cells within the tile.
+     * @param labels set to each cell's element, or -1 if uncovered
+     * @return the number of regions within the tile
+     */
+    private int labelTile(int[] tile, int width, int height,
+            UnionFind regions, int[] labels) {
+        int count = 0;
+
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                int cell = x * tileSize + y;
+                if (tile[cell] == 0) {
+                    labels[cell] = -1;
+                    continue;
+                }
+
+                int below = y > 0 ? labels[cell - 1] : -1;
+                int left  = x > 0 ? labels[cell - tileSize] : -1;
+                if (below >= 0) {
+                    labels[cell] = below;
+                    if (left >= 0 && regions.union(below, left)) {
+                        count--;
+                    }
+                }
+                else if (left >= 0) {
+                    labels[cell] = left;
+                }
+                else {
+                    labels[cell] = regions.add();
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Visit the covered cells one tile column at a time, fetching each of
+     * the column's tiles once rather than once per x, so tall grids don't
+     * evict and reload every tile for each x of its column.
+     */
+    @Override
+    public void forEachCovered(CellVisitor visitor) {
+        for (int tx = 0; tx < xTiles; tx++) {
+            int[][] tiles = tileColumn(tx);
+            int left = tx * tileSize, width = Math.min(tileSize, xSize - left);
+
+            for (int x = 0; x < width; x++) {
+                for (int ty = 0; ty < yTiles; ty++) {
+                    int[] tile = tiles[ty];
+                    if (tile == emptyTile) {
+                        continue;
+                    }
+                    int bottom = ty * tileSize, height = Math.min(tileSize, ySize - bottom);
+                    for (int y = 0, cell = x * tileSize; y < height; y++, cell++) {
+                        if (tile[cell] > 0) {
+                            visitor.visit(left + x, bottom + y, tile[cell]);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether tile is the shared tile of a region no rectangle crosses.
+     */
+    boolean isEmptyTile(int[] tile) {
+        return tile == emptyTile;
+    }
+
+    /**
+     * Get a read-only view of the covered cells rather than a copy, since
+     * a tiled grid is too large to copy cell by cell. The grid must stay
+     * open while the view is used.
+     */
+    @Override
+    public NavigableMap<IndexPair, Long> toMatrixGrid() {
+        return TiledMatrixGrid.of(this);
+    }
+
+    /**
+     * Get every tile of tile column tx, each fetched once. The column's
+     * tiles are held until the array is dropped, however few the cache
+     * keeps; empty tiles share one array.
+     */
+    int[][] tileColumn(int tx) {
+        int[][] tiles = new int[yTiles][];
+        for (int ty = 0; ty < yTiles; ty++) {
+            tiles[ty] = tile(tx, ty);
+        }
+        return tiles;
+    }
+
+    /**
+     * Delete the scratch file. The grid can't be used afterwards; the file
+     * is also deleted once the grid is unreachable.
+     */
+    @Override
+    public void close() {
+        cleanable.clean();
+    }
+
+    /**
+     * The scratch file, created on the first spill and deleted on close.
+     * Tile key's cells are stored at key * tileSize * tileSize * 4 bytes.
+     * Holds no reference to its grid so the grid can be cleaned.
+     */
+    private static final class Scratch implements Runnable {
+        private FileChannel channel;
+
+        void write(int key, int[] tile) {
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * tile.length)
+                    .order(ByteOrder.nativeOrder());
+            buffer.asIntBuffer().put(tile);
+            try {
+                if (channel == null) {
+                    Path file = Files.createTempFile("tiles", ".grid");
+                    channel = FileChannel.open(file, StandardOpenOption.READ,
+                            StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+                }
+                long position = (long) key * buffer.capacity();
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        int[] read(int key, int cells) {
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * cells)
+                    .order(ByteOrder.nativeOrder());
+            try {
+                long position = (long) key * buffer.capacity();
+                while (buffer.hasRemaining()) {
+                    int read = channel.read(buffer, position);
+                    if (read < 0) {
+                        throw new IOException("Tile " + key + " is truncated");
+                    }
+                    position += read;
+                }
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            int[] tile = new int[cells];
+            buffer.flip().asIntBuffer().get(tile);
+            return tile;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,544 @@
+package edu.cwru.bwp18.polygon;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+
+/**
+ * Read-only matrix grid of a TiledGrid's covered cells, read from the tiles
+ * as it's queried rather than copied into a TreeMap, so it takes no memory
+ * per cell. Lookups fetch one tile; navigation scans the tiles in IndexPair
+ * order, skipping empty ones; iteration fetches each tile column once.
+ * size() and the other bulk operations scan every cell in range.
+ * <br>
+ * Cell (x, y) is at position x * ySize + y, which follows IndexPair order.
+ * A view holds the cells at positions in [from, to), in ascending or
+ * descending order.
+ */
+final class TiledMatrixGrid extends AbstractMap<IndexPair, Long>
+        implements NavigableMap<IndexPair, Long> {
+    /**
+     * Source of the tile at (tx, ty).
+     */
+    @FunctionalInterface
+    private interface Tiles {
+        int[] tile(int tx, int ty);
+    }
+
+    private final TiledGrid grid;
+    private final long from, to;
+    private final boolean descending;
+
+    private TiledMatrixGrid(TiledGrid grid, long from, long to,
+            boolean descending) {
+        this.grid       = grid;
+        this.from       = from;
+        this.to         = to;
+        this.descending = descending;
+    }
+
+    /**
+     * Get a view of every covered cell of grid, which must stay open while
+     * the view is used.
+     */
+    static TiledMatrixGrid of(TiledGrid grid) {
+        assert grid != null;
+
+        return new TiledMatrixGrid(grid, 0, (long) grid.xSize() * grid.ySize(),
+                false);
+    }
+
+    /**
+     * Get the first covered position in [start, end), or -1 if there's none.
+     */
+    private long next(Tiles tiles, long start, long end) {
+        int tileSize = grid.tileSize(), ySize = grid.ySize();
+
+        for (long position = start; position < end; ) {
+            int x = (int) (position / ySize), y = (int) (position % ySize);
+            int tileTop = Math.min(ySize, (y / tileSize + 1) * tileSize);
+            int[] tile = tiles.tile(x / tileSize, y / tileSize);
+
+            if (!grid.isEmptyTile(tile)) {
+                int column = x % tileSize * tileSize - y / tileSize * tileSize;
+                for (; y < tileTop && position < end; y++, position++) {
+                    if (tile[column + y] > 0) {
+                        return position;
+                    }
+                }
+            }
+            position = (long) x * ySize + tileTop;
+        }
+        return -1;
+    }
+
+    /**
+     * Get the last covered position in [start, end), or -1 if there's none.
+     */
+    private long previous(Tiles tiles, long start, long end) {
+        int tileSize = grid.tileSize(), ySize = grid.ySize();
+
+        for (long position = end - 1; position >= start; ) {
+            int x = (int) (position / ySize), y = (int) (position % ySize);
+            int tileBottom = y / tileSize * tileSize;
+            int[] tile = tiles.tile(x / tileSize, y / tileSize);
+
+            if (!grid.isEmptyTile(tile)) {
+                int column = x % tileSize * tileSize - tileBottom;
+                for (; y >= tileBottom && position >= start; y--, position--) {
+                    if (tile[column + y] > 0) {
+                        return position;
+                    }
+                }
+            }
+            position = (long) x * ySize + tileBottom - 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Get the position of the first cell at or after key in IndexPair
+     * order, clamped to the grid.
+     */
+    private long ceilingPosition(IndexPair key) {
+        int x = key.xIndex(), y = key.yIndex();
+        if (x < 0) {
+            return 0;
+        }
+        if (x >= grid.xSize()) {
+            return (long) grid.xSize() * grid.ySize();
+        }
+        return (long) x * grid.ySize() + Math.min(Math.max(y, 0), grid.ySize());
+    }
+
+    /**
+     * Get the position of the first cell after key in IndexPair order,
+     * clamped to the grid.
+     */
+    private long higherPosition(IndexPair key) {
+        return ceilingPosition(key) + (contains(key) ? 1 : 0);
+    }
+
+    private boolean contains(IndexPair key) {
+        return 0 <= key.xIndex() && key.xIndex() < grid.xSize()
+                && 0 <= key.yIndex() && key.yIndex() < grid.ySize();
+    }
+
+    private Entry<IndexPair, Long> entryAt(long position) {
+        if (position < 0) {
+            return null;
+        }
+        int x = (int) (position / grid.ySize()), y = (int) (position % grid.ySize());
+        return Map.entry(new IndexPair(x, y), (long) grid.count(x, y));
+    }
+
+    private Entry<IndexPair, Long> first(long start, long end) {
+        return entryAt(next(grid::tile, Math.max(start, from), Math.min(end, to)));
+    }
+
+    private Entry<IndexPair, Long> last(long start, long end) {
+        return entryAt(previous(grid::tile, Math.max(start, from), Math.min(end, to)));
+    }
+
+    /**
+     * Get a view of the cells at positions in [start, end) within this
+     * view's, in the same order.
+     */
+    private TiledMatrixGrid range(long start, long end) {
+        start = Math.max(start, from);
+        return new TiledMatrixGrid(grid, start, Math.max(start, Math.min(end, to)),
+                descending);
+    }
+
+    private static IndexPair keyOf(Entry<IndexPair, Long> entry) {
+        return entry == null ? null : entry.getKey();
+    }
+
+    @Override
+    public Long get(Object key) {
+        if (!(key instanceof IndexPair pair) || !contains(pair)) {
+            return null;
+        }
+        long position = ceilingPosition(pair);
+        int count = position < from || position >= to
+                ? 0
+                : grid.count(pair.xIndex(), pair.yIndex());
+        return count > 0 ? (long) count : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return firstEntry() == null;
+    }
+
+    @Override
+    public Set<Entry<IndexPair, Long>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<IndexPair, Long>> iterator() {
+                return new Cursor(descending);
+            }
+
+            @Override
+            public int size() {
+                int size = 0;
+                for (Iterator<?> cells = iterator(); cells.hasNext(); cells.next()) {
+                    if (++size == Integer.MAX_VALUE) {
+                        break;
+                    }
+                }
+                return size;
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return TiledMatrixGrid.this.isEmpty();
+            }
+        };
+    }
+
+    /**
+     * Iterator over the view's cells that fetches each tile column once.
+     */
+    private final class Cursor implements Iterator<Entry<IndexPair, Long>> {
+        private final boolean reversed;
+        private int columnIndex = -1;
+        private int[][] column;
+        private long position;
+
+        Cursor(boolean reversed) {
+            this.reversed = reversed;
+            this.position = reversed
+                    ? previous(this::tile, from, to)
+                    : TiledMatrixGrid.this.next(this::tile, from, to);
+        }
+
+        private int[] tile(int tx, int ty) {
+            if (tx != columnIndex) {
+                column      = grid.tileColumn(tx);
+                columnIndex = tx;
+            }
+            return column[ty];
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position >= 0;
+        }
+
+        @Override
+        public Entry<IndexPair, Long> next() {
+            if (position < 0) {
+                throw new NoSuchElementException();
+            }
+            int x = (int) (position / grid.ySize()), y = (int) (position % grid.ySize());
+            int tileSize = grid.tileSize();
+            long count = tile(x / tileSize, y / tileSize)[x % tileSize * tileSize + y % tileSize];
+            Entry<IndexPair, Long> entry = Map.entry(new IndexPair(x, y), count);
+
+            position = reversed
+                    ? previous(this::tile, from, position)
+                    : TiledMatrixGrid.this.next(this::tile, position + 1, to);
+            return entry;
+        }
+    }
+
+    @Override
+    public Comparator<? super IndexPair> comparator() {
+        return descending ? Collections.reverseOrder() : null;
+    }
+
+    @Override
+    public Entry<IndexPair, Long> firstEntry() {
+        return descending ? last(from, to) : first(from, to);
+    }
+
+    @Override
+    public Entry<IndexPair, Long> lastEntry() {
+        return descending ? first(from, to) : last(from, to);
+    }
+
+    @Override
+    public Entry<IndexPair, Long> ceilingEntry(IndexPair key) {
+        return descending
+                ? last(from, higherPosition(key))
+                : first(ceilingPosition(key), to);
+    }
+
+    @Override
+    public Entry<IndexPair, Long> higherEntry(IndexPair key) {
+        return descending
+                ? last(from, ceilingPosition(key))
+                : first(higherPosition(key), to);
+    }
+
+    @Override
+    public Entry<IndexPair, Long> floorEntry(IndexPair key) {
+        return descending
+                ? first(ceilingPosition(key), to)
+                : last(from, higherPosition(key));
+    }
+
+    @Override
+    public Entry<IndexPair, Long> lowerEntry(IndexPair key) {
+        return descending
+                ? first(higherPosition(key), to)
+                : last(from, ceilingPosition(key));
+    }
+
+    @Override
+    public IndexPair firstKey() {
+        Entry<IndexPair, Long> first = firstEntry();
+        if (first == null) {
+            throw new NoSuchElementException();
+        }
+        return first.getKey();
+    }
+
+    @Override
+    public IndexPair lastKey() {
+        Entry<IndexPair, Long> last = lastEntry();
+        if (last == null) {
+            throw new NoSuchElementException();
+        }
+        return last.getKey();
+    }
+
+    @Override
+    public IndexPair ceilingKey(IndexPair key) {
+        return keyOf(ceilingEntry(key));
+    }
+
+    @Override
+    public IndexPair higherKey(IndexPair key) {
+        return keyOf(higherEntry(key));
+    }
+
+    @Override
+    public IndexPair floorKey(IndexPair key) {
+        return keyOf(floorEntry(key));
+    }
+
+    @Override
+    public IndexPair lowerKey(IndexPair key) {
+        return keyOf(lowerEntry(key));
+    }
+
+    @Override
+    public Entry<IndexPair, Long> pollFirstEntry() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Entry<IndexPair, Long> pollLastEntry() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public NavigableMap<IndexPair, Long> descendingMap() {
+        return new TiledMatrixGrid(grid, from, to, !descending);
+    }
+
+    @Override
+    public NavigableMap<IndexPair, Long> headMap(IndexPair toKey,
+            boolean inclusive) {
+        return descending
+                ? range(inclusive ? ceilingPosition(toKey) : higherPosition(toKey), to)
+                : range(from, inclusive ? higherPosition(toKey) : ceilingPosition(toKey));
+    }
+
+    @Override
+    public NavigableMap<IndexPair, Long> tailMap(IndexPair fromKey,
+            boolean inclusive) {
+        return descending
+                ? range(from, inclusive ? higherPosition(fromKey) : ceilingPosition(fromKey))
+                : range(inclusive ? ceilingPosition(fromKey) : higherPosition(fromKey), to);
+    }
+
+    @Override
+    public NavigableMap<IndexPair, Long> subMap(IndexPair fromKey,
+            boolean fromInclusive, IndexPair toKey, boolean toInclusive) {
+        int order = fromKey.compareTo(toKey);
+        if (descending ? order < 0 : order > 0) {
+            throw new IllegalArgumentException("fromKey > toKey");
+        }
+        return headMap(toKey, toInclusive).tailMap(fromKey, fromInclusive);
+    }
+
+    @Override
+    public SortedMap<IndexPair, Long> headMap(IndexPair toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public SortedMap<IndexPair, Long> tailMap(IndexPair fromKey) {
+        return tailMap(fromKey, true);
+    }
+
+    @Override
+    public SortedMap<IndexPair, Long> subMap(IndexPair fromKey,
+            IndexPair toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public NavigableSet<IndexPair> navigableKeySet() {
+        return new KeySet(this);
+    }
+
+    @Override
+    public Set<IndexPair> keySet() {
+        return navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<IndexPair> descendingKeySet() {
+        return descendingMap().navigableKeySet();
+    }
+
+    /**
+     * Keys of a view, backed by it.
+     */
+    private static final class KeySet extends AbstractSet<IndexPair>
+            implements NavigableSet<IndexPair> {
+        private final NavigableMap<IndexPair, Long> map;
+
+        KeySet(NavigableMap<IndexPair, Long> map) {
+            this.map = map;
+        }
+
+        @Override
+        public Iterator<IndexPair> iterator() {
+            Iterator<Entry<IndexPair, Long>> entries = map.entrySet().iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return entries.hasNext();
+                }
+
+                @Override
+                public IndexPair next() {
+                    return entries.next().getKey();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return map.isEmpty();
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return map.containsKey(key);
+        }
+
+        @Override
+        public Comparator<? super IndexPair> comparator() {
+            return map.comparator();
+        }
+
+        @Override
+        public IndexPair first() {
+            return map.firstKey();
+        }
+
+        @Override
+        public IndexPair last() {
+            return map.lastKey();
+        }
+
+        @Override
+        public IndexPair lower(IndexPair key) {
+            return map.lowerKey(key);
+        }
+
+        @Override
+        public IndexPair floor(IndexPair key) {
+            return map.floorKey(key);
+        }
+
+        @Override
+        public IndexPair ceiling(IndexPair key) {
+            return map.ceilingKey(key);
+        }
+
+        @Override
+        public IndexPair higher(IndexPair key) {
+            return map.higherKey(key);
+        }
+
+        @Override
+        public IndexPair pollFirst() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public IndexPair pollLast() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public NavigableSet<IndexPair> descendingSet() {
+            return map.descendingKeySet();
+        }
+
+        @Override
+        public Iterator<IndexPair> descendingIterator() {
+            return descendingSet().iterator();
+        }
+
+        @Override
+        public NavigableSet<IndexPair> subSet(IndexPair fromKey,
+                boolean fromInclusive, IndexPair toKey, boolean toInclusive) {
+            return map.subMap(fromKey, fromInclusive, toKey, toInclusive)
+                    .navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<IndexPair> headSet(IndexPair toKey,
+                boolean inclusive) {
+            return map.headMap(toKey, inclusive).navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<IndexPair> tailSet(IndexPair fromKey,
+                boolean inclusive) {
+            return map.tailMap(fromKey, inclusive).navigableKeySet();
+        }
+
+        @Override
+        public SortedSet<IndexPair> subSet(IndexPair fromKey, IndexPair toKey) {
+            return subSet(fromKey, true, toKey, false);
+        }
+
+        @Override
+        public SortedSet<IndexPair> headSet(IndexPair toKey) {
+            return headSet(toKey, false);
+        }
+
+        @Override
+        public SortedSet<IndexPair> tailSet(IndexPair fromKey) {
+            return tailSet(fromKey, true);
+        }
+    }
+}
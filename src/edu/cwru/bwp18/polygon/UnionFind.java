@@ -0,0 +1,100 @@
+package edu.cwru.bwp18.polygon;
+
+import java.util.Arrays;
+
+/**
+ * Disjoint-set forest over the ints [0, size), with path halving and union
+ * by size. Iterative, so it never recurses no matter how large a set gets.
+ * Elements can be added after construction, for labelings whose size isn't
+ * known up front.
+ */
+final class UnionFind {
+    /**
+     * Parent of each element; roots are their own parents.
+     */
+    private int[] parent;
+
+    /**
+     * Number of elements in each root's set. Only meaningful for roots.
+     */
+    private int[] size;
+
+    private int elements;
+
+    UnionFind(int size) {
+        assert size >= 0;
+
+        this.parent   = new int[size];
+        this.size     = new int[size];
+        this.elements = size;
+
+        for (int i = 0; i < size; i++) {
+            parent[i]    = i;
+            this.size[i] = 1;
+        }
+    }
+
+    /**
+     * Add a new element in a set of its own.
+     * @return the new element, which is the previous number of elements
+     */
+    int add() {
+        if (elements == parent.length) {
+            int capacity = Math.max(16, 2 * elements);
+            parent = Arrays.copyOf(parent, capacity);
+            size   = Arrays.copyOf(size, capacity);
+        }
+        parent[elements] = elements;
+        size[elements]   = 1;
+        return elements++;
+    }
+
+    /**
+     * Find the root of element's set, halving the path along the way.
+     * @param element the element to find
+     * @return the root of element's set
+     */
+    int find(int element) {
+        while (parent[element] != element) {
+            parent[element] = parent[parent[element]];
+            element = parent[element];
+        }
+        return element;
+    }
+
+    /**
+     * Find the root of element's set without changing the forest, so any
+     * number of threads may call it at once while nothing is being merged.
+     * @param element the element to find
+     * @return the root of element's set
+     */
+    int root(int element) {
+        while (parent[element] != element) {
+            element = parent[element];
+        }
+        return element;
+    }
+
+    /**
+     * Merge the sets containing a and b.
+     * @return true iff a and b were in different sets
+     */
+    boolean union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+
+        if (rootA == rootB) {
+            return false;
+        }
+
+        if (size[rootA] < size[rootB]) {
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+
+        parent[rootB] = rootA;
+        size[rootA] += size[rootB];
+        return true;
+    }
+}